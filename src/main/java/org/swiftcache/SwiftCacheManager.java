@@ -3,7 +3,11 @@ package org.swiftcache;
 import org.swiftcache.cache.SwiftCache;
 import org.swiftcache.cache.SwiftCacheConfig;
 import org.swiftcache.evictionstrategy.*;
+import org.swiftcache.membershipfilter.CuckooFilter;
+import org.swiftcache.membershipfilter.IMembershipFilter;
+import org.swiftcache.membershipfilter.ScalableBloomFilter;
 import org.swiftcache.readingpolicy.*;
+import org.swiftcache.utils.Weigher;
 import org.swiftcache.writingpolicy.*;
 
 import java.util.HashMap;
@@ -46,54 +50,97 @@ public class SwiftCacheManager<K, V> {
      * @param config the configuration for the cache
      */
     private void initializeCache(SwiftCacheConfig config) {
-        swiftCache = new SwiftCache<>(config.getMaxSize(),
-                createEvictionStrategy(config.getEvictionStrategy()),
-                createWritingPolicy(config.getWritePolicy()),
-                createReadingPolicy(config.getReadPolicy()));
+        swiftCache = new SwiftCache<>(config,
+                createEvictionStrategy(config),
+                createWritingPolicy(config),
+                createReadingPolicy(config));
     }
 
     /**
-     * Creates an eviction strategy based on the specified strategy name.
+     * Creates an eviction strategy based on the strategy name of the specified configuration.
      *
-     * @param strategy the name of the eviction strategy
+     * @param config the configuration for the cache
      * @return the corresponding eviction strategy
      */
-    private IEvictionStrategy<K, V> createEvictionStrategy(String strategy) {
+    private IEvictionStrategy<K, V> createEvictionStrategy(SwiftCacheConfig config) {
         Map<String, Supplier<IEvictionStrategy<K, V>>> evictionStrategies = new HashMap<>();
         evictionStrategies.put(SwiftCacheConfig.FIFO_EVICTION_STRATEGY, FIFOEvictionStrategy::new);
         evictionStrategies.put(SwiftCacheConfig.LRU_EVICTION_STRATEGY, LRUEvictionStrategy::new);
+        evictionStrategies.put(SwiftCacheConfig.SIEVE_EVICTION_STRATEGY, SIEVEEvictionStrategy::new);
+        evictionStrategies.put(SwiftCacheConfig.LFU_EVICTION_STRATEGY,
+                () -> new LFUEvictionStrategy<>(config.getFrequencyDecayInterval()));
+        evictionStrategies.put(SwiftCacheConfig.GDSF_EVICTION_STRATEGY,
+                () -> new GDSFEvictionStrategy<>(configuredWeigher(config)));
+        evictionStrategies.put(SwiftCacheConfig.SAMPLED_EVICTION_STRATEGY, () -> new SampledEvictionStrategy<>(
+                config.getEvictionSampleSize(), config.getEvictionPoolSize(), SampledEvictionStrategy.idleTime()));
 
-        return createStrategy(evictionStrategies, strategy, "eviction strategy");
+        return createStrategy(evictionStrategies, config.getEvictionStrategy(), "eviction strategy");
     }
 
     /**
-     * Creates a reading policy based on the specified policy name.
+     * Returns the weigher of the specified configuration, typed for the cache.
      *
-     * @param policy the name of the reading policy
+     * @param config the configuration for the cache
+     * @return the weigher set with {@link SwiftCacheConfig#setMaxWeight(long, Weigher)}, or null
+     */
+    @SuppressWarnings("unchecked")
+    private Weigher<K, V> configuredWeigher(SwiftCacheConfig config) {
+        return (Weigher<K, V>) config.getWeigher();
+    }
+
+    /**
+     * Creates a reading policy based on the policy name of the specified configuration.
+     *
+     * @param config the configuration for the cache
      * @return the corresponding reading policy
      */
-    private IReadingPolicy<K, V> createReadingPolicy(String policy) {
+    private IReadingPolicy<K, V> createReadingPolicy(SwiftCacheConfig config) {
         Map<String, Supplier<IReadingPolicy<K, V>>> readingPolicies = new HashMap<>();
-        readingPolicies.put(SwiftCacheConfig.READ_THROUGH_POLICY, ReadThroughPolicy::new);
+        readingPolicies.put(SwiftCacheConfig.READ_THROUGH_POLICY, () -> new ReadThroughPolicy<>(
+                config.getNegativeCacheTtlMillis(), config.getMaxNegativeEntries(), createMembershipFilter(config)));
         readingPolicies.put(SwiftCacheConfig.REFRESH_AHEAD_POLICY, RefreshAheadPolicy::new);
         readingPolicies.put(SwiftCacheConfig.SIMPLE_READ_POLICY, SimpleReadPolicy::new);
 
-        return createStrategy(readingPolicies, policy, "reading policy");
+        return createStrategy(readingPolicies, config.getReadPolicy(), "reading policy");
+    }
+
+    /**
+     * Creates the membership filter guarding the repository based on the
+     * specified configuration.
+     *
+     * @param config the configuration for the cache
+     * @return the corresponding membership filter, or null if none is configured
+     */
+    private IMembershipFilter<K> createMembershipFilter(SwiftCacheConfig config) {
+        if (config.getMembershipFilter() == null) {
+            return null;
+        }
+
+        Map<String, Supplier<IMembershipFilter<K>>> membershipFilters = new HashMap<>();
+        membershipFilters.put(SwiftCacheConfig.BLOOM_MEMBERSHIP_FILTER,
+                () -> new ScalableBloomFilter<>(config.getExpectedKeys(), config.getFilterFalsePositiveRate()));
+        membershipFilters.put(SwiftCacheConfig.CUCKOO_MEMBERSHIP_FILTER,
+                () -> new CuckooFilter<>(config.getExpectedKeys()));
+
+        return createStrategy(membershipFilters, config.getMembershipFilter(), "membership filter");
     }
 
     /**
-     * Creates a writing policy based on the specified policy name.
+     * Creates a writing policy based on the policy name of the specified configuration.
      *
-     * @param policy the name of the writing policy
+     * @param config the configuration for the cache
      * @return the corresponding writing policy
      */
-    private IWritingPolicy<K, V> createWritingPolicy(String policy) {
+    private IWritingPolicy<K, V> createWritingPolicy(SwiftCacheConfig config) {
         Map<String, Supplier<IWritingPolicy<K, V>>> writingPolicies = new HashMap<>();
-        writingPolicies.put(SwiftCacheConfig.WRITE_ALWAYS_POLICY, WriteAlwaysPolicy::new);
+        writingPolicies.put(SwiftCacheConfig.WRITE_ALWAYS_POLICY, () -> new WriteAlwaysPolicy<>(
+                config.getWriteBatchWindowMillis(), config.getMaxWriteBatchSize()));
         writingPolicies.put(SwiftCacheConfig.WRITE_BEHIND_POLICY, WriteBehindPolicy::new);
         writingPolicies.put(SwiftCacheConfig.WRITE_IF_ABSENT_POLICY, WriteIfAbsentPolicy::new);
+        writingPolicies.put(SwiftCacheConfig.WRITE_BACK_POLICY,
+                () -> new WriteBackPolicy<>(config.getWriteBackMaxAgeMillis()));
 
-        return createStrategy(writingPolicies, policy, "writing policy");
+        return createStrategy(writingPolicies, config.getWritePolicy(), "writing policy");
     }
 
     /**
@@ -0,0 +1,107 @@
+package org.swiftcache.cache;
+
+import java.util.Arrays;
+
+/**
+ * A tiny direct-mapped cache of recently read entries, owned by a single
+ * thread. Each entry remembers the cache map it was read from and the epoch
+ * of that map at the time, and is only served while both are unchanged, so
+ * any write to the cache invalidates every copy at once.
+ * <p>
+ * The table is only ever touched by its owning thread, so lookups and
+ * updates write no shared memory. To keep the eviction strategy aware of
+ * keys that are served from here, every {@value #ACCESS_SAMPLE}th hit on a
+ * slot is reported as a miss, which sends the read down the regular path.
+ *
+ * @param <K> the type of keys in the cache
+ * @param <V> the type of values in the cache
+ */
+final class HotKeyCache<K, V> {
+
+    /** Every this many hits on a slot, the read goes down the regular path. */
+    static final int ACCESS_SAMPLE = 64;
+
+    private final Object[] keys;
+
+    private final Object[] values;
+
+    private final long[] epochs;
+
+    private final int[] hits;
+
+    private final int mask;
+
+    private Object map;
+
+    /**
+     * Constructs a new, empty HotKeyCache.
+     *
+     * @param slots the number of slots, rounded up to a power of two
+     */
+    HotKeyCache(int slots) {
+        int capacity = Integer.highestOneBit(Math.max(1, slots - 1)) << 1;
+        this.keys = new Object[capacity];
+        this.values = new Object[capacity];
+        this.epochs = new long[capacity];
+        this.hits = new int[capacity];
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * Returns the copy of the value of the specified key, if it was read from
+     * the specified map at the specified epoch.
+     *
+     * @param map the current cache map
+     * @param epoch the current epoch of the map
+     * @param key the key to look up
+     * @return the value of the key, or null if there is no valid copy or this hit is sampled
+     */
+    @SuppressWarnings("unchecked")
+    V get(Object map, long epoch, Object key) {
+        if (map != this.map) {
+            return null;
+        }
+
+        int index = slot(key);
+        Object cached = this.keys[index];
+        if (cached == null || this.epochs[index] != epoch || !cached.equals(key)) {
+            return null;
+        }
+        if (++this.hits[index] % ACCESS_SAMPLE == 0) {
+            return null;
+        }
+        return (V) this.values[index];
+    }
+
+    /**
+     * Stores a copy of an entry read from the specified map. The epoch must
+     * have been read before the entry, so that a write racing with the read
+     * leaves the copy invalid.
+     *
+     * @param map the cache map the entry was read from
+     * @param epoch the epoch of the map, read before the entry
+     * @param key the key of the entry
+     * @param value the value of the entry
+     */
+    void put(Object map, long epoch, K key, V value) {
+        if (map != this.map) {
+            // The cache was cleared, every copy is from the old generation
+            Arrays.fill(this.keys, null);
+            Arrays.fill(this.values, null);
+            this.map = map;
+        }
+
+        int index = slot(key);
+        if (!key.equals(this.keys[index])) {
+            this.hits[index] = 0;
+        }
+        this.keys[index] = key;
+        this.values[index] = value;
+        this.epochs[index] = epoch;
+    }
+
+    private int slot(Object key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & this.mask;
+    }
+}
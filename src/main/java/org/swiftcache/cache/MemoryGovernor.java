@@ -0,0 +1,369 @@
+package org.swiftcache.cache;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryNotificationInfo;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Shrinks caches when the heap gets tight and grows them back when the
+ * pressure eases, so that caches give memory back before the JVM spends its
+ * time in long collections or runs out of memory.
+ * <p>
+ * Pressure is measured on the heap pools that support collection usage
+ * thresholds, typically the old generation: their usage right after a
+ * collection is what the application really retains. Once started, the
+ * governor sets a collection usage threshold on those pools and listens to
+ * the threshold notifications and to the notifications of every garbage
+ * collector, and re-evaluates the pressure on each of them.
+ * <p>
+ * Above the pressure threshold, every registered cache is shrunk by one
+ * step, a fraction of its current maximum size, but not below its floor.
+ * Below the relief threshold, every cache grows by one step, a fraction of
+ * its ceiling, but not above it. Between the two nothing changes, so sizes
+ * do not oscillate. The cache evicts through its eviction strategy, so the
+ * entries it gives up are the ones it values least. At most one step is
+ * taken per cooldown period, which gives the collector time to reclaim the
+ * evicted entries before the pressure is measured again.
+ * <p>
+ * Every resize is logged and reported to the listeners added with
+ * {@link #addListener(Consumer)}.
+ */
+public class MemoryGovernor implements AutoCloseable {
+
+    private static final Logger logger = Logger.getLogger(MemoryGovernor.class.getName());
+
+    private final double pressureThreshold;
+
+    private final double reliefThreshold;
+
+    private final double step;
+
+    private final long cooldownNanos;
+
+    private final Map<SwiftCache<?, ?>, Bounds> caches;
+
+    private final List<Consumer<ResizeEvent>> listeners;
+
+    private final List<NotificationEmitter> emitters;
+
+    private final List<MemoryPoolMXBean> pools;
+
+    private final NotificationListener notificationListener;
+
+    private long lastAdjustmentNanos;
+
+    private boolean adjusted;
+
+    /**
+     * Constructs a new MemoryGovernor. Call {@link #start()} to make it
+     * listen to the JVM.
+     *
+     * @param pressureThreshold the fraction of the heap in use after a collection above which caches shrink
+     * @param reliefThreshold the fraction of the heap in use after a collection below which caches grow back
+     * @param step the fraction by which a cache shrinks or grows per adjustment
+     * @param cooldownMillis the minimum time between two adjustments, in milliseconds
+     */
+    public MemoryGovernor(double pressureThreshold, double reliefThreshold, double step, long cooldownMillis) {
+        if (pressureThreshold <= 0 || pressureThreshold >= 1) {
+            throw new IllegalArgumentException("pressureThreshold must be between 0 and 1: " + pressureThreshold);
+        }
+        if (reliefThreshold < 0 || reliefThreshold >= pressureThreshold) {
+            throw new IllegalArgumentException("reliefThreshold must be between 0 and pressureThreshold: "
+                    + reliefThreshold);
+        }
+        if (step <= 0 || step >= 1) {
+            throw new IllegalArgumentException("step must be between 0 and 1: " + step);
+        }
+        if (cooldownMillis < 0) {
+            throw new IllegalArgumentException("cooldownMillis must not be negative: " + cooldownMillis);
+        }
+
+        this.pressureThreshold = pressureThreshold;
+        this.reliefThreshold = reliefThreshold;
+        this.step = step;
+        this.cooldownNanos = TimeUnit.MILLISECONDS.toNanos(cooldownMillis);
+        this.caches = new ConcurrentHashMap<>();
+        this.listeners = new CopyOnWriteArrayList<>();
+        this.emitters = new ArrayList<>();
+        this.pools = new ArrayList<>();
+        this.notificationListener = this::onNotification;
+    }
+
+    /**
+     * Puts a cache under the control of this governor. The cache is never
+     * shrunk below the floor nor grown above the ceiling.
+     *
+     * @param cache the cache to control
+     * @param floor the smallest maximum size the cache is shrunk to
+     * @param ceiling the largest maximum size the cache is grown to, typically its configured size
+     */
+    public void register(SwiftCache<?, ?> cache, long floor, long ceiling) {
+        if (floor < 1 || ceiling < floor) {
+            throw new IllegalArgumentException("floor must be positive and at most ceiling: " + floor
+                    + ", " + ceiling);
+        }
+
+        this.caches.put(cache, new Bounds(floor, ceiling));
+    }
+
+    /**
+     * Releases a cache from the control of this governor. Its maximum size
+     * stays where the governor left it.
+     *
+     * @param cache the cache to release
+     */
+    public void unregister(SwiftCache<?, ?> cache) {
+        this.caches.remove(cache);
+    }
+
+    /**
+     * Adds a listener notified of every resize made by this governor.
+     *
+     * @param listener the listener to add
+     */
+    public void addListener(Consumer<ResizeEvent> listener) {
+        this.listeners.add(listener);
+    }
+
+    /**
+     * Starts listening to the heap pools and garbage collectors of the JVM.
+     */
+    public synchronized void start() {
+        if (!this.emitters.isEmpty()) {
+            return;
+        }
+
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            long max = pool.getUsage().getMax();
+            if (pool.getType() == MemoryType.HEAP && pool.isCollectionUsageThresholdSupported() && max > 0) {
+                pool.setCollectionUsageThreshold((long) (max * this.pressureThreshold));
+                this.pools.add(pool);
+            }
+        }
+        listenTo(ManagementFactory.getMemoryMXBean());
+        for (GarbageCollectorMXBean collector : ManagementFactory.getGarbageCollectorMXBeans()) {
+            listenTo(collector);
+        }
+
+        logger.log(Level.INFO, "Memory governor started, listening to {0} sources", this.emitters.size());
+    }
+
+    private void listenTo(Object bean) {
+        if (bean instanceof NotificationEmitter) {
+            NotificationEmitter emitter = (NotificationEmitter) bean;
+            emitter.addNotificationListener(this.notificationListener, null, null);
+            this.emitters.add(emitter);
+        }
+    }
+
+    /**
+     * Stops listening to the JVM and clears the thresholds set on its heap
+     * pools. The caches keep their current sizes.
+     */
+    @Override
+    public synchronized void close() {
+        for (NotificationEmitter emitter : this.emitters) {
+            try {
+                emitter.removeNotificationListener(this.notificationListener);
+            } catch (ListenerNotFoundException e) {
+                // Already removed
+            }
+        }
+        this.emitters.clear();
+        for (MemoryPoolMXBean pool : this.pools) {
+            pool.setCollectionUsageThreshold(0);
+        }
+        this.pools.clear();
+
+        logger.log(Level.INFO, "Memory governor stopped");
+    }
+
+    private void onNotification(Notification notification, Object handback) {
+        try {
+            if (MemoryNotificationInfo.MEMORY_COLLECTION_THRESHOLD_EXCEEDED.equals(notification.getType())) {
+                evaluate(Math.max(this.pressureThreshold, heapUsage()));
+            } else {
+                evaluate(heapUsage());
+            }
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Memory governor failed to adjust the caches", e);
+        }
+    }
+
+    /**
+     * Returns the highest fraction of its maximum that a monitored heap pool
+     * had in use after the last collection.
+     *
+     * @return the heap usage after collection, between 0 and 1
+     */
+    public static double heapUsage() {
+        double usage = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() != MemoryType.HEAP || !pool.isCollectionUsageThresholdSupported()) {
+                continue;
+            }
+            MemoryUsage collected = pool.getCollectionUsage();
+            long max = pool.getUsage().getMax();
+            if (collected != null && max > 0) {
+                usage = Math.max(usage, (double) collected.getUsed() / max);
+            }
+        }
+        return usage;
+    }
+
+    /**
+     * Adjusts the registered caches to the specified heap usage. Called on
+     * every notification once started, and exposed for applications that
+     * measure memory pressure themselves.
+     *
+     * @param usage the fraction of the heap in use, between 0 and 1
+     */
+    public synchronized void evaluate(double usage) {
+        boolean pressure = usage >= this.pressureThreshold;
+        if (!pressure && usage > this.reliefThreshold) {
+            return;
+        }
+        long now = System.nanoTime();
+        if (this.adjusted && now - this.lastAdjustmentNanos < this.cooldownNanos) {
+            return;
+        }
+
+        boolean resized = false;
+        for (Map.Entry<SwiftCache<?, ?>, Bounds> entry : this.caches.entrySet()) {
+            SwiftCache<?, ?> cache = entry.getKey();
+            Bounds bounds = entry.getValue();
+            long current = cache.getMaxSize();
+            long target = pressure
+                    ? Math.max(bounds.floor, current - Math.max(1, (long) (current * this.step)))
+                    : Math.min(bounds.ceiling, current + Math.max(1, (long) (bounds.ceiling * this.step)));
+            if (target != current) {
+                cache.resize(target);
+                resized = true;
+                publish(new ResizeEvent(cache, current, target, usage));
+            }
+        }
+
+        if (resized) {
+            this.adjusted = true;
+            this.lastAdjustmentNanos = now;
+        }
+    }
+
+    private void publish(ResizeEvent event) {
+        logger.log(Level.INFO, "Heap usage {0}, cache resized from {1} to {2} entries",
+                new Object[]{event.getHeapUsage(), event.getPreviousMaxSize(), event.getNewMaxSize()});
+
+        for (Consumer<ResizeEvent> listener : this.listeners) {
+            try {
+                listener.accept(event);
+            } catch (RuntimeException e) {
+                logger.log(Level.WARNING, "Memory governor listener failed", e);
+            }
+        }
+    }
+
+    /**
+     * The smallest and largest maximum size of a registered cache.
+     */
+    private static final class Bounds {
+
+        private final long floor;
+
+        private final long ceiling;
+
+        Bounds(long floor, long ceiling) {
+            this.floor = floor;
+            this.ceiling = ceiling;
+        }
+    }
+
+    /**
+     * A resize of a cache made by the governor.
+     */
+    public static final class ResizeEvent {
+
+        private final SwiftCache<?, ?> cache;
+
+        private final long previousMaxSize;
+
+        private final long newMaxSize;
+
+        private final double heapUsage;
+
+        /**
+         * Constructs a new ResizeEvent.
+         *
+         * @param cache the resized cache
+         * @param previousMaxSize the maximum size before the resize
+         * @param newMaxSize the maximum size after the resize
+         * @param heapUsage the heap usage that caused the resize
+         */
+        public ResizeEvent(SwiftCache<?, ?> cache, long previousMaxSize, long newMaxSize, double heapUsage) {
+            this.cache = cache;
+            this.previousMaxSize = previousMaxSize;
+            this.newMaxSize = newMaxSize;
+            this.heapUsage = heapUsage;
+        }
+
+        /**
+         * Returns the resized cache.
+         *
+         * @return the cache
+         */
+        public SwiftCache<?, ?> getCache() {
+            return this.cache;
+        }
+
+        /**
+         * Returns the maximum size of the cache before the resize.
+         *
+         * @return the previous maximum size
+         */
+        public long getPreviousMaxSize() {
+            return this.previousMaxSize;
+        }
+
+        /**
+         * Returns the maximum size of the cache after the resize.
+         *
+         * @return the new maximum size
+         */
+        public long getNewMaxSize() {
+            return this.newMaxSize;
+        }
+
+        /**
+         * Returns whether the cache was shrunk rather than grown.
+         *
+         * @return true if the cache was shrunk
+         */
+        public boolean isShrink() {
+            return this.newMaxSize < this.previousMaxSize;
+        }
+
+        /**
+         * Returns the fraction of the heap in use that caused the resize.
+         *
+         * @return the heap usage, between 0 and 1
+         */
+        public double getHeapUsage() {
+            return this.heapUsage;
+        }
+    }
+}
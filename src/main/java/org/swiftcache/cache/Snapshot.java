@@ -0,0 +1,103 @@
+package org.swiftcache.cache;
+
+import java.util.Map;
+
+/**
+ * An immutable copy of the cached entries in an open-addressed hash table
+ * with linear probing. Keys and values sit in one array, side by side, so a
+ * lookup touches one contiguous run of slots. The table is never modified
+ * after construction, so it can be read by any number of threads without
+ * synchronization once it has been published through a volatile reference.
+ *
+ * @param <K> the type of keys in the snapshot
+ * @param <V> the type of values in the snapshot
+ */
+final class Snapshot<K, V> {
+
+    private final Object[] table;
+
+    private final int mask;
+
+    private final int size;
+
+    private final Object source;
+
+    private final long epoch;
+
+    /**
+     * Copies the specified entries into a new snapshot. The table is sized to
+     * at most half full, so probe sequences stay short.
+     *
+     * @param entries the entries to copy
+     * @param epoch the epoch of the entries, read before copying them
+     */
+    Snapshot(Map<K, V> entries, long epoch) {
+        int capacity = Integer.highestOneBit(Math.max(2, entries.size()) * 2 - 1) << 1;
+        Object[] slots = new Object[capacity * 2];
+        int slotMask = capacity - 1;
+        int count = 0;
+        for (Map.Entry<K, V> entry : entries.entrySet()) {
+            int index = spread(entry.getKey().hashCode()) & slotMask;
+            while (slots[index * 2] != null) {
+                index = (index + 1) & slotMask;
+            }
+            slots[index * 2] = entry.getKey();
+            slots[index * 2 + 1] = entry.getValue();
+            count++;
+        }
+
+        this.table = slots;
+        this.mask = slotMask;
+        this.size = count;
+        this.source = entries;
+        this.epoch = epoch;
+    }
+
+    /**
+     * Returns whether this snapshot was copied from the specified map at the
+     * specified epoch, in which case it holds no value replaced by a write
+     * that completed before the epoch was read.
+     *
+     * @param map the map the caller reads from
+     * @param epoch the epoch of the map read by the caller
+     * @return true if the snapshot is as fresh as the epoch
+     */
+    boolean isAt(Object map, long epoch) {
+        return this.source == map && this.epoch == epoch;
+    }
+
+    /**
+     * Returns the value of the specified key in this snapshot.
+     *
+     * @param key the key to look up
+     * @return the value of the key, or null if the snapshot does not contain it
+     */
+    @SuppressWarnings("unchecked")
+    V get(Object key) {
+        Object[] slots = this.table;
+        int index = spread(key.hashCode()) & this.mask;
+        Object candidate;
+        while ((candidate = slots[index * 2]) != null) {
+            if (candidate.equals(key)) {
+                return (V) slots[index * 2 + 1];
+            }
+            index = (index + 1) & this.mask;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the number of entries in this snapshot.
+     *
+     * @return the number of entries
+     */
+    int size() {
+        return this.size;
+    }
+
+    private static int spread(int hash) {
+        // Mixes every bit of the hash into the low bits the mask keeps
+        int h = (hash ^ (hash >>> 16)) * 0x85EBCA6B;
+        return h ^ (h >>> 13);
+    }
+}
@@ -3,21 +3,89 @@ package org.swiftcache.cache;
 import org.swiftcache.cacherepository.ICacheRepository;
 import org.swiftcache.evictionstrategy.IEvictionStrategy;
 import org.swiftcache.readingpolicy.IReadingPolicy;
+import org.swiftcache.readingpolicy.LoadCostListener;
+import org.swiftcache.utils.RepositoryExecutors;
 import org.swiftcache.utils.TriFunction;
+import org.swiftcache.utils.VersionedMap;
+import org.swiftcache.utils.Weigher;
 import org.swiftcache.writingpolicy.IWritingPolicy;
 
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
 import java.util.LinkedList;
+import java.util.List;
 import java.util.Map;
+import java.util.NavigableSet;
+import java.util.NoSuchElementException;
 import java.util.Queue;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.locks.ReadWriteLock;
 import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiPredicate;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 /**
  * A custom cache implementation that provides caching functionality with
  * eviction strategies, reading policies, and writing policies.
+ * <p>
+ * By default, a put that finds the cache full evicts an entry before it
+ * inserts. With background eviction, {@code maxSize} becomes a soft limit:
+ * puts insert without evicting, and a maintenance task evicts in batches
+ * until the cache is back down to {@code maxSize}. Only when the cache reaches
+ * its hard limit, because the task fell behind, does a put evict inline.
+ * <p>
+ * With a maximum weight, the cache is also bounded by the total weight of
+ * its entries, computed by a {@link Weigher} when each entry is written. A
+ * put evicts until the cache is back under the maximum weight, and the
+ * maintenance task does the same after loads and conditional writes.
+ * <p>
+ * Entries can be tagged when they are put, and {@link #invalidateTag(String)}
+ * then drops every entry carrying a tag at once.
+ * <p>
+ * With the ordered key index enabled, the keys are also kept sorted in a
+ * concurrent skip list, so {@link #range(Object, Object)} and
+ * {@link #prefix(String)} can walk a slice of the cache without copying it.
+ * <p>
+ * Every entry carries a version that changes with each write. The conditional
+ * operations {@link #putIfAbsent(Object, Object)},
+ * {@link #replace(Object, Object, Object)} and
+ * {@link #compareAndSet(Object, long, Object)} are atomic per entry. The
+ * entry is checked and written under the shared read lock, so failed
+ * attempts do not serialize with each other; a successful write then records
+ * the key with the eviction strategy under the write lock, like a put.
+ * <p>
+ * In snapshot mode, meant for small, read-mostly caches, reads are served
+ * from an immutable copy of the entries published through a volatile
+ * reference: a hit is a plain array lookup that takes no lock and skips the
+ * reading policy and the eviction strategy. Every write drops the snapshot,
+ * so readers fall back to the regular path and always see their own writes,
+ * and a new snapshot is built in the background, once for a burst of writes.
+ * Use {@link #putAll(ICacheRepository, Map)} to write many entries with a
+ * single rebuild. Values replaced by an asynchronous refresh of the reading
+ * policy only reach the snapshot with its next rebuild.
+ * <p>
+ * With the hot key cache enabled, every thread also keeps a tiny private
+ * copy of the entries it read last. A read served from there touches no
+ * shared memory other than the epoch of the cache map, which every write
+ * moves forward, so any write invalidates all copies at once. The copies
+ * pay off for a few very hot keys under a read-mostly load.
+ * <p>
+ * With weak or soft value references, the garbage collector may reclaim
+ * cached values. A reclaimed value reads as a miss straight away, and its
+ * entry is dropped from the map, the eviction strategy and the indexes on
+ * the next put or maintenance run, which a read of a reclaimed value
+ * schedules.
  *
  * @param <K> the type of keys maintained by this cache
  * @param <V> the type of cached values
@@ -26,11 +94,44 @@ public class SwiftCache<K, V> {
 
     private static final Logger logger = Logger.getLogger(SwiftCache.class.getName());
 
-    private final long maxSize;
+    /** The number of entries evicted by the maintenance task per write lock acquisition. */
+    private static final int EVICTION_BATCH_SIZE = 64;
 
-    private final Map<K, V> cacheMap;
+    private static final Executor maintenanceExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "swiftcache-maintenance");
+        thread.setDaemon(true);
+        return thread;
+    });
 
-    private final Queue<K> evictionQueue;
+    private volatile long maxSize;
+
+    private volatile long hardMaxSize;
+
+    private final long maxWeight;
+
+    private final Weigher<? super K, ? super V> weigher;
+
+    private final VersionedMap.ValueReferences valueReferences;
+
+    private final AtomicBoolean maintenanceScheduled;
+
+    private volatile VersionedMap<K, V> cacheMap;
+
+    private volatile Queue<K> evictionQueue;
+
+    private volatile TagIndex<K> tagIndex;
+
+    private final boolean orderedKeyIndex;
+
+    private volatile NavigableSet<K> keyIndex;
+
+    private final boolean snapshotReads;
+
+    private volatile Snapshot<K, V> snapshot;
+
+    private final AtomicBoolean snapshotScheduled;
+
+    private final ThreadLocal<HotKeyCache<K, V>> hotKeys;
 
     private final ReadWriteLock lock;
 
@@ -41,7 +142,10 @@ public class SwiftCache<K, V> {
     private final IReadingPolicy<K, V> readingPolicy;
 
     /**
-     * Constructs a new SwiftCache with the specified maximum size and policies.
+     * Constructs a new SwiftCache with the specified maximum size and policies,
+     * evicting inline when a put finds the cache full. An eviction strategy
+     * that is also a {@link LoadCostListener} is registered with the reading
+     * policy, so it learns how long loads take.
      *
      * @param maxSize the maximum number of entries the cache can hold
      * @param evictionStrategy the strategy to use for evicting entries
@@ -52,13 +156,86 @@ public class SwiftCache<K, V> {
                       IEvictionStrategy<K, V> evictionStrategy,
                       IWritingPolicy<K, V> writingPolicy,
                       IReadingPolicy<K, V> readingPolicy) {
-        this.maxSize = maxSize;
-        this.cacheMap = new ConcurrentHashMap<>((int) maxSize, 0.75f, 5);
+        this(maxSize, 0, evictionStrategy, writingPolicy, readingPolicy);
+    }
+
+    /**
+     * Constructs a new SwiftCache with background eviction. Puts evict inline
+     * only once the cache holds {@code hardMaxSize} entries; above
+     * {@code maxSize}, a maintenance task evicts instead. Background eviction
+     * is disabled if {@code hardMaxSize} is not greater than {@code maxSize}.
+     *
+     * @param maxSize the number of entries the maintenance task evicts down to
+     * @param hardMaxSize the maximum number of entries the cache can hold
+     * @param evictionStrategy the strategy to use for evicting entries
+     * @param writingPolicy the policy to use for writing entries
+     * @param readingPolicy the policy to use for reading entries
+     */
+    public SwiftCache(long maxSize, long hardMaxSize,
+                      IEvictionStrategy<K, V> evictionStrategy,
+                      IWritingPolicy<K, V> writingPolicy,
+                      IReadingPolicy<K, V> readingPolicy) {
+        this(backgroundEvictionConfig(maxSize, hardMaxSize), evictionStrategy, writingPolicy, readingPolicy);
+    }
+
+    /**
+     * Constructs a new SwiftCache with the sizes and optional features of the
+     * specified configuration. The policy names of the configuration are
+     * ignored in favor of the given policies.
+     *
+     * @param config the configuration for the cache
+     * @param evictionStrategy the strategy to use for evicting entries
+     * @param writingPolicy the policy to use for writing entries
+     * @param readingPolicy the policy to use for reading entries
+     */
+    public SwiftCache(SwiftCacheConfig config,
+                      IEvictionStrategy<K, V> evictionStrategy,
+                      IWritingPolicy<K, V> writingPolicy,
+                      IReadingPolicy<K, V> readingPolicy) {
+        this.maxSize = config.getMaxSize();
+        this.hardMaxSize = Math.max(this.maxSize, config.getHardMaxSize());
+        @SuppressWarnings("unchecked")
+        Weigher<? super K, ? super V> entryWeigher = (Weigher<? super K, ? super V>) config.getWeigher();
+        boolean weighted = config.getMaxWeight() > 0 && entryWeigher != null;
+        this.maxWeight = weighted ? config.getMaxWeight() : 0;
+        this.weigher = weighted ? entryWeigher : null;
+        this.valueReferences = valueReferencesOf(config.getValueReferences());
+        this.maintenanceScheduled = new AtomicBoolean();
+        this.cacheMap = newCacheMap();
         this.evictionQueue = new LinkedList<>();
+        this.tagIndex = new TagIndex<>();
+        this.orderedKeyIndex = config.isOrderedKeyIndex();
+        this.keyIndex = this.orderedKeyIndex ? new ConcurrentSkipListSet<>() : null;
+        this.snapshotReads = config.isSnapshotReads();
+        this.snapshotScheduled = new AtomicBoolean();
+        final int hotKeySlots = config.getHotKeyCacheSize();
+        this.hotKeys = hotKeySlots > 0 ? ThreadLocal.withInitial(() -> new HotKeyCache<>(hotKeySlots)) : null;
         this.lock = new ReentrantReadWriteLock();
         this.evictionStrategy = evictionStrategy;
         this.writingPolicy = writingPolicy;
         this.readingPolicy = readingPolicy;
+
+        if (evictionStrategy instanceof LoadCostListener) {
+            @SuppressWarnings("unchecked")
+            LoadCostListener<K, V> listener = (LoadCostListener<K, V>) evictionStrategy;
+            readingPolicy.setLoadCostListener(listener);
+        }
+    }
+
+    private static VersionedMap.ValueReferences valueReferencesOf(String name) {
+        if (SwiftCacheConfig.WEAK_VALUE_REFERENCES.equals(name)) {
+            return VersionedMap.ValueReferences.WEAK;
+        }
+        if (SwiftCacheConfig.SOFT_VALUE_REFERENCES.equals(name)) {
+            return VersionedMap.ValueReferences.SOFT;
+        }
+        return VersionedMap.ValueReferences.STRONG;
+    }
+
+    private static SwiftCacheConfig backgroundEvictionConfig(long maxSize, long hardMaxSize) {
+        SwiftCacheConfig config = new SwiftCacheConfig(maxSize, null, null, null);
+        config.setBackgroundEviction(hardMaxSize);
+        return config;
     }
 
     /**
@@ -69,21 +246,99 @@ public class SwiftCache<K, V> {
      * @return the value associated with the specified key, or null if not found
      */
     public V get(ICacheRepository<K, V> repository, K key) {
+        if (this.hotKeys == null) {
+            return getShared(repository, key);
+        }
+
+        // The epoch is read before the entry, so a write racing with the read invalidates the copy
+        VersionedMap<K, V> map = this.cacheMap;
+        long epoch = map.epoch();
+        HotKeyCache<K, V> local = this.hotKeys.get();
+        V value = local.get(map, epoch, key);
+        if (value != null) {
+            return value;
+        }
+
+        Snapshot<K, V> current = this.snapshot;
+        value = current != null ? current.get(key) : null;
+        if (value != null) {
+            // A write moves the epoch before it drops the snapshot, so an older snapshot may hold a replaced value
+            if (current.isAt(map, epoch)) {
+                local.put(map, epoch, key, value);
+            }
+            return value;
+        }
+
+        value = getLocked(repository, key);
+        if (value != null) {
+            local.put(map, epoch, key, value);
+        }
+        return value;
+    }
+
+    /**
+     * Retrieves an entry from the snapshot or the shared cache map, using the
+     * specified repository to fetch the value if not present.
+     *
+     * @param repository the repository to use for reading the value if not in cache
+     * @param key the key whose associated value is to be returned
+     * @return the value associated with the specified key, or null if not found
+     */
+    private V getShared(ICacheRepository<K, V> repository, K key) {
+        Snapshot<K, V> current = this.snapshot;
+        if (current != null) {
+            V cached = current.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        return getLocked(repository, key);
+    }
+
+    /**
+     * Retrieves an entry from the shared cache map under the read lock,
+     * through the reading policy and the eviction strategy.
+     *
+     * @param repository the repository to use for reading the value if not in cache
+     * @param key the key whose associated value is to be returned
+     * @return the value associated with the specified key, or null if not found
+     */
+    private V getLocked(ICacheRepository<K, V> repository, K key) {
         this.lock.readLock().lock();
         V value;
         try {
-            value = this.readingPolicy.read(this.cacheMap, key, repository);
-            this.evictionStrategy.updateQueue(key, this.evictionQueue);
+            VersionedMap<K, V> map = this.cacheMap;
+            long epoch = map.epoch();
+            value = this.readingPolicy.read(map, key, repository);
+            if (value != null) {
+                // Only keys that are actually cached are tracked for eviction
+                this.evictionStrategy.updateQueue(key, this.evictionQueue);
+                // A load by the reading policy moves the epoch, while a hit leaves the index alone
+                if (this.keyIndex != null && map.epoch() != epoch) {
+                    this.keyIndex.add(key);
+                }
+            }
 
             logger.log(Level.INFO, "Key {0} fetched", key);
         } finally {
             this.lock.readLock().unlock();
         }
+
+        if (this.snapshotReads && value != null) {
+            // Missing from the snapshot, possibly just loaded by the reading policy
+            scheduleSnapshotRebuild();
+        }
+        // Values loaded by the reading policy also count against the soft limit
+        checkSoftLimit();
         return value;
     }
 
     /**
-     * Inserts a new entry into the cache or updates an existing entry.
+     * Inserts a new entry into the cache or updates an existing entry. The
+     * repository write of the writing policy is awaited after the cache lock
+     * has been released, so a slow repository does not block other cache
+     * operations.
      *
      * @param repository the repository to use for writing the value
      * @param key the key with which the specified value is to be associated
@@ -91,20 +346,448 @@ public class SwiftCache<K, V> {
      * @return the previous value associated with the key, or null if there was no mapping for the key
      */
     public V put(ICacheRepository<K, V> repository, K key, V value) {
+        try {
+            return putAsync(repository, key, value).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+
+    /**
+     * Inserts a new entry into the cache or updates an existing entry, without
+     * waiting for the writing policy to finish writing to the repository. The
+     * entry is visible in the cache when this method returns. Any tags the
+     * entry had before are dropped.
+     *
+     * @param repository the repository to use for writing the value
+     * @param key the key with which the specified value is to be associated
+     * @param value the value to be associated with the specified key
+     * @return a future completed with the result of the write once the repository write has finished
+     */
+    public CompletableFuture<V> putAsync(ICacheRepository<K, V> repository, K key, V value) {
+        return putAsync(repository, key, value, new String[0]);
+    }
+
+    /**
+     * Inserts a new entry into the cache or updates an existing entry, and
+     * tags it. The tags replace any tags the entry had before. Waits for the
+     * writing policy like {@link #put(ICacheRepository, Object, Object)}.
+     *
+     * @param repository the repository to use for writing the value
+     * @param key the key with which the specified value is to be associated
+     * @param value the value to be associated with the specified key
+     * @param tags the tags of the entry
+     * @return the result of the write
+     */
+    public V put(ICacheRepository<K, V> repository, K key, V value, String... tags) {
+        try {
+            return putAsync(repository, key, value, tags).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
+
+    /**
+     * Inserts a new entry into the cache or updates an existing entry, and
+     * tags it, without waiting for the writing policy to finish writing to the
+     * repository. The tags replace any tags the entry had before.
+     *
+     * @param repository the repository to use for writing the value
+     * @param key the key with which the specified value is to be associated
+     * @param value the value to be associated with the specified key
+     * @param tags the tags of the entry
+     * @return a future completed with the result of the write once the repository write has finished
+     */
+    public CompletableFuture<V> putAsync(ICacheRepository<K, V> repository, K key, V value, String... tags) {
+        this.lock.writeLock().lock();
+        CompletableFuture<V> pendingWrite;
+        try {
+            pendingWrite = insert(repository, key, value, tags);
+            invalidateSnapshot();
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+
+        checkSoftLimit();
+        return pendingWrite;
+    }
+
+    /**
+     * Inserts or updates all the specified entries under a single
+     * acquisition of the write lock, and waits for the writing policy like
+     * {@link #put(ICacheRepository, Object, Object)}. Any tags the entries had
+     * before are dropped. In snapshot mode, the new snapshot is built once
+     * for the whole batch, before this method returns.
+     *
+     * @param repository the repository to use for writing the values
+     * @param entries the entries to insert
+     */
+    public void putAll(ICacheRepository<K, V> repository, Map<? extends K, ? extends V> entries) {
+        List<CompletableFuture<V>> pendingWrites = new ArrayList<>(entries.size());
         this.lock.writeLock().lock();
-        V newValue;
         try {
-            if (this.cacheMap.size() >= this.maxSize) {
-                this.evictionStrategy.evict(this.cacheMap, this.evictionQueue);
+            for (Map.Entry<? extends K, ? extends V> entry : entries.entrySet()) {
+                pendingWrites.add(insert(repository, entry.getKey(), entry.getValue()));
             }
-            newValue = this.writingPolicy.write(this.cacheMap, key, value, repository);
-            this.evictionStrategy.updateQueue(key, this.evictionQueue);
+            if (this.snapshotReads) {
+                publishSnapshot();
+            }
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+
+        checkSoftLimit();
+        try {
+            CompletableFuture.allOf(pendingWrites.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+        }
+    }
 
-            logger.log(Level.INFO, "Key {0} inserted", key);
+    /**
+     * Inserts one entry, evicting first if the cache is at its hard limit.
+     * Must be called with the write lock held.
+     *
+     * @param repository the repository to use for writing the value
+     * @param key the key with which the specified value is to be associated
+     * @param value the value to be associated with the specified key
+     * @param tags the tags of the entry
+     * @return a future completed with the result of the write once the repository write has finished
+     */
+    private CompletableFuture<V> insert(ICacheRepository<K, V> repository, K key, V value, String... tags) {
+        expungeCleared();
+        // Without background eviction the hard limit is maxSize itself
+        if (this.cacheMap.size() >= this.hardMaxSize) {
+            evictOne();
+        }
+        CompletableFuture<V> pendingWrite = this.writingPolicy.writeAsync(this.cacheMap, key, value, repository);
+        this.evictionStrategy.updateQueue(key, value, this.evictionQueue);
+        this.readingPolicy.onPut(key);
+        this.tagIndex.tag(key, tags);
+        if (this.keyIndex != null) {
+            this.keyIndex.add(key);
+        }
+        evictToMaxWeight();
+
+        logger.log(Level.INFO, "Key {0} inserted", key);
+
+        return pendingWrite;
+    }
+
+    /**
+     * Inserts the specified value into the cache if the key is not cached
+     * yet, atomically. The repository is not written.
+     *
+     * @param key the key with which the specified value is to be associated
+     * @param value the value to be associated with the specified key
+     * @return the value already cached for the key, or null if the value was inserted
+     */
+    public V putIfAbsent(K key, V value) {
+        V existing;
+        this.lock.readLock().lock();
+        try {
+            existing = this.cacheMap.putIfAbsent(key, value);
+            if (existing == null) {
+                invalidateSnapshot();
+            }
+        } finally {
+            this.lock.readLock().unlock();
+        }
+
+        if (existing == null) {
+            afterConditionalWrite(key);
+        }
+        checkSoftLimit();
+        return existing;
+    }
+
+    /**
+     * Replaces the cached value of the specified key if it is still the
+     * expected value, atomically. The repository is not written.
+     *
+     * @param key the key whose value is to be replaced
+     * @param oldValue the value expected to be cached for the key
+     * @param newValue the value to be associated with the key
+     * @return true if the value was replaced
+     */
+    public boolean replace(K key, V oldValue, V newValue) {
+        boolean replaced;
+        this.lock.readLock().lock();
+        try {
+            replaced = this.cacheMap.replace(key, oldValue, newValue);
+            if (replaced) {
+                invalidateSnapshot();
+            }
+        } finally {
+            this.lock.readLock().unlock();
+        }
+
+        if (replaced) {
+            afterConditionalWrite(key);
+        }
+        return replaced;
+    }
+
+    /**
+     * Returns the current version of the specified key, for use with
+     * {@link #compareAndSet(Object, long, Object)}. The version changes with
+     * every write to the key, including its removal with
+     * {@link #remove(ICacheRepository, Object)}, and absent keys have a
+     * version too. Evicting, invalidating or clearing a key does not move the
+     * version it has once absent, as its value is still valid in the
+     * repository.
+     *
+     * @param key the key to look up
+     * @return the version of the key
+     */
+    public long getVersion(K key) {
+        return this.cacheMap.version(key);
+    }
+
+    /**
+     * Sets the cached value of the specified key if the key still has the
+     * expected version, atomically. Works for absent keys too, which makes it
+     * possible to cache a computed value only if nothing was written in the
+     * meantime. The repository is not written.
+     *
+     * @param key the key whose value is to be set
+     * @param expectedVersion the version read with {@link #getVersion(Object)}
+     * @param newValue the value to be associated with the key
+     * @return true if the value was set
+     */
+    public boolean compareAndSet(K key, long expectedVersion, V newValue) {
+        boolean set;
+        this.lock.readLock().lock();
+        try {
+            set = this.cacheMap.compareAndSet(key, expectedVersion, newValue);
+            if (set) {
+                invalidateSnapshot();
+            }
+        } finally {
+            this.lock.readLock().unlock();
+        }
+
+        if (set) {
+            afterConditionalWrite(key);
+        }
+
+        checkSoftLimit();
+        return set;
+    }
+
+    /**
+     * Records a successful conditional write, like a put does, and evicts if
+     * the write took the cache past its hard limit or its maximum weight. The
+     * entry itself is written under the read lock, but the eviction
+     * strategies assume a single writer, so the key is recorded under the
+     * write lock. A key removed or evicted in between is not recorded. Must
+     * be called without holding the lock.
+     *
+     * @param key the key that was written
+     */
+    private void afterConditionalWrite(K key) {
+        this.lock.writeLock().lock();
+        try {
+            V value = this.cacheMap.get(key);
+            if (value == null) {
+                return;
+            }
+            this.evictionStrategy.updateQueue(key, value, this.evictionQueue);
+            this.readingPolicy.onPut(key);
+            if (this.keyIndex != null) {
+                this.keyIndex.add(key);
+            }
+            // Concurrent conditional inserts may each have taken the cache past its hard limit
+            while (this.cacheMap.size() > this.hardMaxSize) {
+                int before = this.cacheMap.size();
+                evictOne();
+                if (this.cacheMap.size() >= before) {
+                    // The strategy has nothing left to evict
+                    break;
+                }
+            }
+            evictToMaxWeight();
         } finally {
             this.lock.writeLock().unlock();
         }
-        return newValue;
+    }
+
+    /**
+     * Evicts entries until the cache is back under its maximum weight, if it
+     * has one. Must be called with the write lock held.
+     */
+    private void evictToMaxWeight() {
+        while (isOverWeight()) {
+            int before = this.cacheMap.size();
+            evictOne();
+            if (this.cacheMap.size() >= before) {
+                // The strategy has nothing left to evict
+                return;
+            }
+        }
+    }
+
+    private boolean isOverWeight() {
+        return this.maxWeight > 0 && this.cacheMap.weight() > this.maxWeight;
+    }
+
+    /**
+     * Drops the snapshot after a write and schedules a new one. Must be
+     * called with the read or write lock held, after the write; the snapshot
+     * is only rebuilt under the write lock, so it cannot miss the write.
+     */
+    private void invalidateSnapshot() {
+        if (this.snapshotReads) {
+            this.snapshot = null;
+            scheduleSnapshotRebuild();
+        }
+    }
+
+    /**
+     * Schedules a rebuild of the snapshot unless one is already scheduled.
+     * Writes made before the rebuild runs share it.
+     */
+    private void scheduleSnapshotRebuild() {
+        if (this.snapshotScheduled.compareAndSet(false, true)) {
+            maintenanceExecutor.execute(() -> {
+                // Cleared first, so a write made during the rebuild schedules the next one
+                this.snapshotScheduled.set(false);
+                this.lock.writeLock().lock();
+                try {
+                    publishSnapshot();
+                } catch (RuntimeException e) {
+                    logger.log(Level.WARNING, "Snapshot rebuild failed", e);
+                } finally {
+                    this.lock.writeLock().unlock();
+                }
+            });
+        }
+    }
+
+    /**
+     * Copies the cached entries into a new snapshot and publishes it. Must be
+     * called with the write lock held.
+     */
+    private void publishSnapshot() {
+        // The epoch is read before copying, so a write racing with the copy makes the snapshot look older
+        Snapshot<K, V> rebuilt = new Snapshot<>(this.cacheMap, this.cacheMap.epoch());
+        this.snapshot = rebuilt;
+
+        logger.log(Level.INFO, "Snapshot of {0} entries published", rebuilt.size());
+    }
+
+    /**
+     * Schedules background eviction if it is enabled and the cache is above
+     * its soft limit, or if the cache is above its maximum weight, which
+     * loads and conditional writes can take it past, or if a read found a
+     * value reclaimed by the garbage collector.
+     */
+    private void checkSoftLimit() {
+        if ((this.hardMaxSize > this.maxSize && this.cacheMap.size() > this.maxSize) || isOverWeight()
+                || this.cacheMap.hasClearedReads()) {
+            scheduleMaintenance();
+        }
+    }
+
+    private boolean isOverSoftLimit() {
+        return this.cacheMap.size() > this.maxSize || isOverWeight();
+    }
+
+    /**
+     * Schedules the maintenance task unless it is already scheduled.
+     */
+    private void scheduleMaintenance() {
+        if (this.maintenanceScheduled.compareAndSet(false, true)) {
+            maintenanceExecutor.execute(this::evictToMaxSize);
+        }
+    }
+
+    /**
+     * Drops the entries whose value the garbage collector has reclaimed, then
+     * evicts entries until the cache is back down to its soft limit and its
+     * maximum weight. The
+     * write lock is released after every batch, so puts and gets are only
+     * held up by one batch at a time.
+     */
+    private void evictToMaxSize() {
+        long evicted = 0;
+        try {
+            if (this.valueReferences != VersionedMap.ValueReferences.STRONG) {
+                this.lock.writeLock().lock();
+                try {
+                    expungeCleared();
+                } finally {
+                    this.lock.writeLock().unlock();
+                }
+            }
+            boolean progress = true;
+            while (progress && isOverSoftLimit()) {
+                this.lock.writeLock().lock();
+                try {
+                    for (int i = 0; i < EVICTION_BATCH_SIZE && isOverSoftLimit(); i++) {
+                        int before = this.cacheMap.size();
+                        evictOne();
+                        if (this.cacheMap.size() >= before) {
+                            // The strategy has nothing left to evict
+                            progress = false;
+                            break;
+                        }
+                        evicted++;
+                    }
+                } finally {
+                    this.lock.writeLock().unlock();
+                }
+            }
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Background eviction failed", e);
+        } finally {
+            this.maintenanceScheduled.set(false);
+        }
+
+        logger.log(Level.INFO, "Background eviction removed {0} entries", evicted);
+
+        // A put may have gone over the limit after the last check but before the flag was cleared
+        if (evicted > 0 && isOverSoftLimit()) {
+            scheduleMaintenance();
+        }
+    }
+
+    /**
+     * Evicts one entry chosen by the eviction strategy, lets the writing
+     * policy write it back and drops its tags. Must be called with the write
+     * lock held.
+     */
+    private void evictOne() {
+        K evictedKey = this.evictionStrategy.evict(this.cacheMap, this.evictionQueue);
+        if (evictedKey != null) {
+            invalidateSnapshot();
+            this.writingPolicy.onEvict(evictedKey);
+            this.tagIndex.untag(evictedKey);
+            if (this.keyIndex != null) {
+                this.keyIndex.remove(evictedKey);
+            }
+        }
+    }
+
+    /**
+     * Drops the entries whose value the garbage collector has reclaimed from
+     * the map, the eviction strategy and the indexes, and lets the writing
+     * policy treat them as evicted. Must be called with the write lock held.
+     */
+    private void expungeCleared() {
+        int expunged = this.cacheMap.expungeCleared(key -> {
+            this.evictionStrategy.remove(key, this.evictionQueue);
+            this.writingPolicy.onEvict(key);
+            this.tagIndex.untag(key);
+            if (this.keyIndex != null) {
+                this.keyIndex.remove(key);
+            }
+        });
+        if (expunged > 0) {
+            invalidateSnapshot();
+
+            logger.log(Level.INFO, "Expunged {0} reclaimed entries", expunged);
+        }
     }
 
     /**
@@ -116,9 +799,17 @@ public class SwiftCache<K, V> {
     public void remove(ICacheRepository<K, V> repository, K key) {
         this.lock.writeLock().lock();
         try {
-            this.cacheMap.remove(key);
-            this.evictionQueue.remove(key);
+            this.writingPolicy.onRemove(key);
+            // Deleted rather than removed, so a load of the key in progress does not bring the value back
+            this.cacheMap.delete(key);
+            this.evictionStrategy.remove(key, this.evictionQueue);
+            this.tagIndex.untag(key);
+            if (this.keyIndex != null) {
+                this.keyIndex.remove(key);
+            }
+            invalidateSnapshot();
             repository.remove(key);
+            this.readingPolicy.onRemove(key);
 
             logger.log(Level.INFO, "Key {0} removed", key);
         } finally {
@@ -126,6 +817,216 @@ public class SwiftCache<K, V> {
         }
     }
 
+    /**
+     * Removes every entry carrying the specified tag from the cache, in one
+     * pass under the write lock. The repository is left untouched, so the
+     * entries are loaded again on their next read. Values the writing policy
+     * has not written to the repository yet are handed back to it to write.
+     *
+     * @param tag the tag whose entries are to be invalidated
+     * @return the number of entries removed from the cache
+     */
+    public int invalidateTag(String tag) {
+        int invalidated = 0;
+        this.lock.writeLock().lock();
+        try {
+            for (K key : this.tagIndex.removeTag(tag)) {
+                if (this.cacheMap.remove(key) != null) {
+                    this.writingPolicy.onEvict(key);
+                    invalidateSnapshot();
+                    invalidated++;
+                }
+                this.evictionStrategy.remove(key, this.evictionQueue);
+                if (this.keyIndex != null) {
+                    this.keyIndex.remove(key);
+                }
+            }
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+
+        logger.log(Level.INFO, "Tag {0} invalidated, {1} entries removed", new Object[]{tag, invalidated});
+
+        return invalidated;
+    }
+
+    /**
+     * Returns the keys of the cached entries carrying the specified tag.
+     *
+     * @param tag the tag to look up
+     * @return an unmodifiable, live view of the keys carrying the tag
+     */
+    public Set<K> getTaggedKeys(String tag) {
+        return this.tagIndex.keys(tag);
+    }
+
+    /**
+     * Returns a read-only view of the cached entries. The view and its
+     * iterators and spliterators are weakly consistent: they are backed by
+     * the live table without holding the cache lock, never fail with a
+     * concurrent modification, and may or may not reflect changes made while
+     * they are in use. The spliterator splits across the table, so
+     * {@code entries().parallelStream()} scans it in parallel on the
+     * fork-join pool. The view stays on the current generation of the cache
+     * and does not see entries put after a {@link #clear()}.
+     *
+     * @return a read-only view of the cached entries
+     */
+    public Set<Map.Entry<K, V>> entries() {
+        return Collections.unmodifiableMap(this.cacheMap).entrySet();
+    }
+
+    /**
+     * Returns a read-only view of the cached keys, with the same consistency
+     * and splitting as {@link #entries()}.
+     *
+     * @return a read-only view of the cached keys
+     */
+    public Set<K> keys() {
+        return Collections.unmodifiableSet(this.cacheMap.keySet());
+    }
+
+    /**
+     * Returns a sequential stream over the cached entries. Call
+     * {@code parallel()} on it, or use {@code entries().parallelStream()},
+     * to scan the entries in parallel.
+     *
+     * @return a stream over the cached entries
+     */
+    public Stream<Map.Entry<K, V>> stream() {
+        return entries().stream();
+    }
+
+    /**
+     * Removes every cached entry matching the specified predicate from the
+     * cache, leaving the repository untouched. The entries are matched by a
+     * parallel scan of the table that does not hold the cache lock; only the
+     * removal of the matches takes the write lock. An entry whose value
+     * changed after it was matched is kept. Values the writing policy has not
+     * written to the repository yet are written back. If the cache is cleared
+     * during the scan, nothing is removed, since the matches are already gone.
+     *
+     * @param filter the predicate selecting the entries to remove
+     * @return the number of entries removed
+     */
+    public int removeIf(BiPredicate<? super K, ? super V> filter) {
+        VersionedMap<K, V> map = this.cacheMap;
+        List<Map.Entry<K, V>> matches = map.entrySet().parallelStream()
+                .filter(entry -> filter.test(entry.getKey(), entry.getValue()))
+                .map(entry -> new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), entry.getValue()))
+                .collect(Collectors.toList());
+
+        int removed = 0;
+        this.lock.writeLock().lock();
+        try {
+            if (this.cacheMap != map) {
+                // Cleared during the scan, so the matches belong to a generation that is no longer tracked
+                logger.log(Level.INFO, "Cache cleared while removing entries by predicate");
+                return 0;
+            }
+            for (Map.Entry<K, V> match : matches) {
+                K key = match.getKey();
+                if (map.remove(key, match.getValue())) {
+                    this.writingPolicy.onEvict(key);
+                    invalidateSnapshot();
+                    this.evictionStrategy.remove(key, this.evictionQueue);
+                    this.tagIndex.untag(key);
+                    if (this.keyIndex != null) {
+                        this.keyIndex.remove(key);
+                    }
+                    removed++;
+                }
+            }
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+
+        logger.log(Level.INFO, "{0} entries removed by predicate", removed);
+
+        return removed;
+    }
+
+    /**
+     * Returns the cached entries whose keys lie between the specified keys, in
+     * key order. The iterator is weakly consistent: it walks the live index
+     * without locking or copying, never fails with a concurrent modification,
+     * and may or may not reflect changes made while it is in use.
+     *
+     * @param fromKey the lowest key of the range, inclusive
+     * @param toKey the highest key of the range, exclusive
+     * @return an iterator over the entries of the range
+     * @throws IllegalStateException if the ordered key index is disabled
+     */
+    public Iterator<Map.Entry<K, V>> range(K fromKey, K toKey) {
+        return entriesOf(requireKeyIndex().subSet(fromKey, true, toKey, false).iterator(), null);
+    }
+
+    /**
+     * Returns the cached entries whose keys start with the specified prefix,
+     * in key order. Only applies to caches with {@link String} keys. The
+     * iterator is weakly consistent, like the one of
+     * {@link #range(Object, Object)}.
+     *
+     * @param prefix the prefix of the keys
+     * @return an iterator over the entries whose keys start with the prefix
+     * @throws IllegalStateException if the ordered key index is disabled
+     */
+    @SuppressWarnings("unchecked")
+    public Iterator<Map.Entry<K, V>> prefix(String prefix) {
+        NavigableSet<K> index = requireKeyIndex();
+        return entriesOf(index.tailSet((K) prefix, true).iterator(), prefix);
+    }
+
+    private NavigableSet<K> requireKeyIndex() {
+        NavigableSet<K> index = this.keyIndex;
+        if (index == null) {
+            throw new IllegalStateException("The ordered key index is disabled");
+        }
+        return index;
+    }
+
+    /**
+     * Wraps an iterator over indexed keys into an iterator over the cached
+     * entries, skipping keys whose entry has been removed in the meantime.
+     *
+     * @param keys the keys to look up, in order
+     * @param prefix the prefix at which to stop, or null to walk every key
+     * @return an iterator over the entries
+     */
+    private Iterator<Map.Entry<K, V>> entriesOf(final Iterator<K> keys, final String prefix) {
+        final Map<K, V> map = this.cacheMap;
+        return new Iterator<Map.Entry<K, V>>() {
+
+            private Map.Entry<K, V> next;
+
+            @Override
+            public boolean hasNext() {
+                while (this.next == null && keys.hasNext()) {
+                    K key = keys.next();
+                    if (prefix != null && !key.toString().startsWith(prefix)) {
+                        // Keys are sorted, so no later key can match either
+                        return false;
+                    }
+                    V value = map.get(key);
+                    if (value != null) {
+                        this.next = new AbstractMap.SimpleImmutableEntry<>(key, value);
+                    }
+                }
+                return this.next != null;
+            }
+
+            @Override
+            public Map.Entry<K, V> next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                Map.Entry<K, V> entry = this.next;
+                this.next = null;
+                return entry;
+            }
+        };
+    }
+
     /**
      * Executes an operation with the cache, utilizing the provided repository.
      *
@@ -164,16 +1065,120 @@ public class SwiftCache<K, V> {
     }
 
     /**
-     * Clears the cache, removing all entries.
+     * Returns the current maximum number of entries, which is the soft limit
+     * when background eviction is enabled.
+     *
+     * @return the maximum size
+     */
+    public long getMaxSize() {
+        return this.maxSize;
+    }
+
+    /**
+     * Changes the maximum number of entries, for example to give memory back
+     * under heap pressure. With background eviction, the hard limit moves by
+     * the same amount, so the gap between the limits is kept. When the cache
+     * shrinks, the entries above the new size are evicted by the maintenance
+     * task, in batches chosen by the eviction strategy, and puts evict inline
+     * meanwhile so that the cache does not grow any further.
+     *
+     * @param maxSize the new maximum number of entries, at least 1
+     */
+    public void resize(long maxSize) {
+        if (maxSize < 1) {
+            throw new IllegalArgumentException("maxSize must be positive: " + maxSize);
+        }
+
+        long previous;
+        this.lock.writeLock().lock();
+        try {
+            previous = this.maxSize;
+            this.hardMaxSize = maxSize + (this.hardMaxSize - previous);
+            this.maxSize = maxSize;
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+
+        logger.log(Level.INFO, "Cache resized from {0} to {1} entries", new Object[]{previous, maxSize});
+
+        if (this.cacheMap.size() > maxSize) {
+            scheduleMaintenance();
+        }
+    }
+
+    /**
+     * Returns the total weight of the cached entries, as computed by the
+     * weigher of the configuration. Like {@link #size()} it is exact once
+     * concurrent writes have completed.
+     *
+     * @return the total weight, or the number of entries if the cache has no maximum weight
+     */
+    public long weight() {
+        return this.cacheMap.weight();
+    }
+
+    /**
+     * Clears the cache, removing all entries. The cache switches to a fresh,
+     * empty map and eviction queue in constant time, so other operations are
+     * only held up for the swap. The old map is emptied in the background to
+     * release its entries even while a late asynchronous load still holds it;
+     * values such loads write there are never seen by readers. Values the
+     * writing policy has not written to the repository yet are flushed
+     * before the lock is taken, so the repository I/O does not hold up other
+     * operations; values written between that flush and the swap are flushed
+     * asynchronously.
      */
     public void clear() {
+        this.writingPolicy.flush().join();
+
+        Map<K, V> oldMap;
+        this.lock.writeLock().lock();
+        try {
+            CompletableFuture.runAsync(() -> this.writingPolicy.flush().join(), RepositoryExecutors.shared())
+                    .whenComplete((ignored, e) -> {
+                        if (e != null) {
+                            logger.log(Level.WARNING, "Flush of writes made during clear failed", e);
+                        }
+                    });
+            oldMap = this.cacheMap;
+            this.cacheMap = newCacheMap();
+            this.evictionQueue = new LinkedList<>();
+            this.tagIndex = new TagIndex<>();
+            if (this.orderedKeyIndex) {
+                this.keyIndex = new ConcurrentSkipListSet<>();
+            }
+            if (this.snapshotReads) {
+                this.snapshot = null;
+            }
+            this.evictionStrategy.clear(this.evictionQueue);
+        } finally {
+            this.lock.writeLock().unlock();
+        }
+
+        maintenanceExecutor.execute(oldMap::clear);
+
+        logger.log(Level.INFO, "Cache cleared");
+    }
+
+    /**
+     * Shuts the cache down, flushing the writing policy first so that no
+     * value written to the cache is lost, and then closing it. Writes made
+     * after the shutdown are no longer guaranteed to reach the repository.
+     */
+    public void shutdown() {
         this.lock.writeLock().lock();
         try {
-            this.cacheMap.clear();
-            this.evictionQueue.clear();
+            this.writingPolicy.close();
         } finally {
             this.lock.writeLock().unlock();
         }
+
+        logger.log(Level.INFO, "Cache shut down");
+    }
+
+    private VersionedMap<K, V> newCacheMap() {
+        // The table is allocated on the first insert, so creating the map is constant time
+        return new VersionedMap<>((int) this.maxSize, this.weigher, this.valueReferences);
     }
 
     /**
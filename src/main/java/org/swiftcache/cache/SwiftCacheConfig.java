@@ -1,5 +1,7 @@
 package org.swiftcache.cache;
 
+import org.swiftcache.utils.Weigher;
+
 /**
  * Configuration class for the SwiftCache, encapsulating settings such as
  * maximum size and policies for eviction, reading, and writing.
@@ -14,12 +16,60 @@ public class SwiftCacheConfig {
 
     private final String writePolicy;
 
+    private long negativeCacheTtlMillis;
+
+    private int maxNegativeEntries;
+
+    private String membershipFilter;
+
+    private long expectedKeys;
+
+    private double filterFalsePositiveRate;
+
+    private long writeBatchWindowMillis;
+
+    private int maxWriteBatchSize;
+
+    private long frequencyDecayInterval;
+
+    private int evictionSampleSize = 5;
+
+    private int evictionPoolSize = 16;
+
+    private long hardMaxSize;
+
+    private boolean orderedKeyIndex;
+
+    private long writeBackMaxAgeMillis;
+
+    private boolean snapshotReads;
+
+    private int hotKeyCacheSize;
+
+    private long maxWeight;
+
+    private Weigher<?, ?> weigher;
+
+    private String valueReferences;
+
     /** Constant for the Least Recently Used (LRU) eviction strategy. */
     public static final String LRU_EVICTION_STRATEGY = "LRU";
 
     /** Constant for the First In, First Out (FIFO) eviction strategy. */
     public static final String FIFO_EVICTION_STRATEGY = "FIFO";
 
+    /** Constant for the SIEVE eviction strategy, whose cache hits only set a visited bit. */
+    public static final String SIEVE_EVICTION_STRATEGY = "SIEVE";
+
+    /** Constant for the Least Frequently Used (LFU) eviction strategy. */
+    public static final String LFU_EVICTION_STRATEGY = "LFU";
+
+    /** Constant for the GreedyDual-Size-Frequency (GDSF) eviction strategy, which weighs load cost. */
+    public static final String GDSF_EVICTION_STRATEGY = "GDSF";
+
+    /** Constant for the sampled eviction strategy, which keeps no ordering of the entries. */
+    public static final String SAMPLED_EVICTION_STRATEGY = "Sampled";
+
     /** Constant for the Simple Read policy. */
     public static final String SIMPLE_READ_POLICY = "SimpleRead";
 
@@ -38,6 +88,21 @@ public class SwiftCacheConfig {
     /** Constant for the Write If Absent policy. */
     public static final String WRITE_IF_ABSENT_POLICY = "WriteIfAbsent";
 
+    /** Constant for the Write Back policy, which writes dirty entries on eviction or flush. */
+    public static final String WRITE_BACK_POLICY = "WriteBack";
+
+    /** Constant for the scalable Bloom filter guarding the repository. */
+    public static final String BLOOM_MEMBERSHIP_FILTER = "Bloom";
+
+    /** Constant for the cuckoo filter guarding the repository, which supports deletion. */
+    public static final String CUCKOO_MEMBERSHIP_FILTER = "Cuckoo";
+
+    /** Constant for values held through weak references, reclaimed once nothing else holds them. */
+    public static final String WEAK_VALUE_REFERENCES = "Weak";
+
+    /** Constant for values held through soft references, reclaimed when the heap runs short. */
+    public static final String SOFT_VALUE_REFERENCES = "Soft";
+
     /**
      * Constructs a new SwiftCacheConfig with the specified parameters.
      *
@@ -89,4 +154,342 @@ public class SwiftCacheConfig {
     public String getWritePolicy() {
         return this.writePolicy;
     }
+
+    /**
+     * Returns how long the Read Through policy remembers keys that are missing
+     * from the repository.
+     *
+     * @return the negative cache time to live in milliseconds, 0 if negative caching is disabled
+     */
+    public long getNegativeCacheTtlMillis() {
+        return this.negativeCacheTtlMillis;
+    }
+
+    /**
+     * Returns the maximum number of keys the Read Through policy remembers as
+     * missing from the repository.
+     *
+     * @return the maximum number of negative entries
+     */
+    public int getMaxNegativeEntries() {
+        return this.maxNegativeEntries;
+    }
+
+    /**
+     * Enables negative caching for the Read Through policy. Keys that the
+     * repository returns null for are remembered for the given time, are
+     * bounded separately from {@code maxSize}, and are forgotten as soon as a
+     * value is put for them. Negative caching stays disabled if either
+     * argument is not positive.
+     *
+     * @param ttlMillis how long a missing key is remembered, in milliseconds
+     * @param maxEntries the maximum number of missing keys remembered at once
+     */
+    public void setNegativeCaching(long ttlMillis, int maxEntries) {
+        this.negativeCacheTtlMillis = ttlMillis;
+        this.maxNegativeEntries = maxEntries;
+    }
+
+    /**
+     * Returns the membership filter guarding the repository of the Read
+     * Through policy.
+     *
+     * @return the membership filter name, or null if no filter is used
+     */
+    public String getMembershipFilter() {
+        return this.membershipFilter;
+    }
+
+    /**
+     * Returns the number of repository keys the membership filter is initially
+     * sized for.
+     *
+     * @return the expected number of keys
+     */
+    public long getExpectedKeys() {
+        return this.expectedKeys;
+    }
+
+    /**
+     * Returns the target false positive rate of the membership filter. Only
+     * used by the Bloom filter; the cuckoo filter's rate follows from its
+     * fingerprint size.
+     *
+     * @return the target false positive rate
+     */
+    public double getFilterFalsePositiveRate() {
+        return this.filterFalsePositiveRate;
+    }
+
+    /**
+     * Places a membership filter in front of the repository of the Read
+     * Through policy, so reads of keys that definitely do not exist skip the
+     * repository. The filter grows past the expected number of keys as needed.
+     *
+     * @param membershipFilter {@link #BLOOM_MEMBERSHIP_FILTER} or {@link #CUCKOO_MEMBERSHIP_FILTER}
+     * @param expectedKeys the number of repository keys the filter is initially sized for
+     * @param falsePositiveRate the target false positive rate of the Bloom filter
+     */
+    public void setMembershipFilter(String membershipFilter, long expectedKeys, double falsePositiveRate) {
+        this.membershipFilter = membershipFilter;
+        this.expectedKeys = expectedKeys;
+        this.filterFalsePositiveRate = falsePositiveRate;
+    }
+
+    /**
+     * Returns how long the Write Always policy collects concurrent writes into
+     * one batched repository write.
+     *
+     * @return the batch window in milliseconds, 0 if batching is disabled
+     */
+    public long getWriteBatchWindowMillis() {
+        return this.writeBatchWindowMillis;
+    }
+
+    /**
+     * Returns the number of distinct keys after which a write batch is
+     * committed before its window ends.
+     *
+     * @return the maximum batch size
+     */
+    public int getMaxWriteBatchSize() {
+        return this.maxWriteBatchSize;
+    }
+
+    /**
+     * Enables group commit for the Write Always policy. Puts issued within the
+     * window are merged into one batched repository write, which happens
+     * outside the cache lock. Batching stays disabled if either argument is
+     * not positive.
+     *
+     * @param windowMillis how long a batch collects writes, in milliseconds
+     * @param maxBatchSize the number of distinct keys after which a batch is committed early
+     */
+    public void setWriteBatching(long windowMillis, int maxBatchSize) {
+        this.writeBatchWindowMillis = windowMillis;
+        this.maxWriteBatchSize = maxBatchSize;
+    }
+
+    /**
+     * Returns the number of accesses after which the LFU eviction strategy
+     * halves all access frequencies.
+     *
+     * @return the decay interval, 0 if frequencies never decay
+     */
+    public long getFrequencyDecayInterval() {
+        return this.frequencyDecayInterval;
+    }
+
+    /**
+     * Sets the number of accesses after which the LFU eviction strategy
+     * halves all access frequencies, so that keys which used to be hot are
+     * eventually evicted. Frequencies never decay if the interval is 0.
+     *
+     * @param decayInterval the number of accesses between two halvings
+     */
+    public void setFrequencyDecayInterval(long decayInterval) {
+        this.frequencyDecayInterval = decayInterval;
+    }
+
+    /**
+     * Returns the number of random entries the sampled eviction strategy
+     * scores per eviction.
+     *
+     * @return the sample size
+     */
+    public int getEvictionSampleSize() {
+        return this.evictionSampleSize;
+    }
+
+    /**
+     * Returns the number of best candidates the sampled eviction strategy
+     * keeps between evictions.
+     *
+     * @return the pool size
+     */
+    public int getEvictionPoolSize() {
+        return this.evictionPoolSize;
+    }
+
+    /**
+     * Sets how the sampled eviction strategy picks its victims. Larger samples
+     * approximate the exact policy more closely, at a higher cost per
+     * eviction. The defaults are 5 and 16.
+     *
+     * @param sampleSize the number of random entries scored per eviction
+     * @param poolSize the number of best candidates kept between evictions
+     */
+    public void setEvictionSampling(int sampleSize, int poolSize) {
+        this.evictionSampleSize = sampleSize;
+        this.evictionPoolSize = poolSize;
+    }
+
+    /**
+     * Returns the hard limit on the number of entries when background
+     * eviction is enabled.
+     *
+     * @return the hard limit, or 0 if background eviction is disabled
+     */
+    public long getHardMaxSize() {
+        return this.hardMaxSize;
+    }
+
+    /**
+     * Enables background eviction. The maximum size becomes a soft limit
+     * that a maintenance task evicts down to, and puts only evict inline once
+     * the cache holds the hard limit. Background eviction stays disabled if
+     * the hard limit is not greater than the maximum size.
+     *
+     * @param hardMaxSize the maximum number of entries the cache can hold
+     */
+    public void setBackgroundEviction(long hardMaxSize) {
+        this.hardMaxSize = hardMaxSize;
+    }
+
+    /**
+     * Returns whether the cache keeps its keys in a sorted index for range
+     * and prefix scans.
+     *
+     * @return true if the ordered key index is enabled
+     */
+    public boolean isOrderedKeyIndex() {
+        return this.orderedKeyIndex;
+    }
+
+    /**
+     * Enables or disables the ordered key index, which keeps the keys sorted
+     * by their natural ordering so that ranges and prefixes of the cache can
+     * be scanned. The keys must be {@link Comparable}. Every insert, removal
+     * and eviction also updates the index, at a logarithmic cost.
+     *
+     * @param orderedKeyIndex true to enable the ordered key index
+     */
+    public void setOrderedKeyIndex(boolean orderedKeyIndex) {
+        this.orderedKeyIndex = orderedKeyIndex;
+    }
+
+    /**
+     * Returns how long the Write Back policy lets an entry stay dirty before
+     * writing it to the repository.
+     *
+     * @return the maximum age of a dirty entry in milliseconds, 0 if dirty entries are only written on eviction or flush
+     */
+    public long getWriteBackMaxAgeMillis() {
+        return this.writeBackMaxAgeMillis;
+    }
+
+    /**
+     * Sets how long the Write Back policy lets an entry stay dirty before
+     * writing it to the repository. With 0, the default, dirty entries are
+     * only written when they are evicted or the cache is flushed or shut down.
+     *
+     * @param maxAgeMillis the maximum age of a dirty entry in milliseconds
+     */
+    public void setWriteBackMaxAge(long maxAgeMillis) {
+        this.writeBackMaxAgeMillis = maxAgeMillis;
+    }
+
+    /**
+     * Returns whether the cache serves reads from an immutable snapshot.
+     *
+     * @return true if snapshot mode is enabled
+     */
+    public boolean isSnapshotReads() {
+        return this.snapshotReads;
+    }
+
+    /**
+     * Enables or disables snapshot mode, for small caches that are read far
+     * more often than they are written. Hits are served from an immutable
+     * copy of the entries without any locking or eviction bookkeeping, and
+     * every write copies the whole cache into a new snapshot in the
+     * background, so writes become linear in the size of the cache.
+     *
+     * @param snapshotReads true to enable snapshot mode
+     */
+    public void setSnapshotReads(boolean snapshotReads) {
+        this.snapshotReads = snapshotReads;
+    }
+
+    /**
+     * Returns the number of entries each thread keeps in its private hot key
+     * cache.
+     *
+     * @return the number of slots per thread, 0 if the hot key cache is disabled
+     */
+    public int getHotKeyCacheSize() {
+        return this.hotKeyCacheSize;
+    }
+
+    /**
+     * Enables the per-thread hot key cache in front of the shared cache. Each
+     * reading thread keeps up to the given number of recently read entries,
+     * rounded up to a power of two, and serves repeated reads of them without
+     * touching the shared map or the eviction strategy. Every write to the
+     * cache invalidates all copies, so this only helps read-mostly loads.
+     *
+     * @param slots the number of slots per thread, or 0 to disable the hot key cache
+     */
+    public void setHotKeyCache(int slots) {
+        this.hotKeyCacheSize = slots;
+    }
+
+    /**
+     * Returns the maximum total weight of the cached entries.
+     *
+     * @return the maximum weight, 0 if the cache is only bounded by its number of entries
+     */
+    public long getMaxWeight() {
+        return this.maxWeight;
+    }
+
+    /**
+     * Returns the weigher computing the weight of a cached entry.
+     *
+     * @return the weigher, or null if the cache is only bounded by its number of entries
+     */
+    public Weigher<?, ?> getWeigher() {
+        return this.weigher;
+    }
+
+    /**
+     * Bounds the cache by the total weight of its entries as well as by their
+     * number, for example by their size in bytes. The weight of an entry is
+     * computed once, when it is written. A put evicts until the cache is back
+     * under the maximum weight; values loaded by the reading policy are
+     * evicted for in the background. The weight bound stays disabled if the
+     * maximum weight is not positive or the weigher is null.
+     *
+     * @param maxWeight the maximum total weight of the cached entries
+     * @param weigher the weigher computing the weight of an entry, which must match the types of the cache
+     */
+    public void setMaxWeight(long maxWeight, Weigher<?, ?> weigher) {
+        this.maxWeight = maxWeight;
+        this.weigher = weigher;
+    }
+
+    /**
+     * Returns how the cached values are referenced.
+     *
+     * @return {@link #WEAK_VALUE_REFERENCES}, {@link #SOFT_VALUE_REFERENCES}, or null if values are held strongly
+     */
+    public String getValueReferences() {
+        return this.valueReferences;
+    }
+
+    /**
+     * Holds the cached values through weak or soft references, so that the
+     * garbage collector can reclaim them rather than run out of memory. A
+     * reclaimed value reads as a miss, and its entry is dropped from the
+     * cache and the eviction strategy during maintenance, as if it had been
+     * evicted. Snapshot reads, the hot key cache and write-back keep strong
+     * copies of the values they hold, which are only reclaimed once those
+     * copies are gone. Keys are always held strongly, since the eviction
+     * strategies and indexes hold them too.
+     *
+     * @param valueReferences {@link #WEAK_VALUE_REFERENCES}, {@link #SOFT_VALUE_REFERENCES}, or null to hold values strongly
+     */
+    public void setValueReferences(String valueReferences) {
+        this.valueReferences = valueReferences;
+    }
 }
@@ -0,0 +1,89 @@
+package org.swiftcache.cache;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A concurrent reverse index from tags to the cached keys carrying them. The
+ * tags of each key are indexed too, so untagging a key on removal or eviction
+ * only touches the tags of that key.
+ *
+ * @param <K> the type of keys being tagged
+ */
+final class TagIndex<K> {
+
+    private final Map<String, Set<K>> keysByTag = new ConcurrentHashMap<>();
+
+    private final Map<K, Set<String>> tagsByKey = new ConcurrentHashMap<>();
+
+    /**
+     * Replaces the tags of the specified key.
+     *
+     * @param key the key to tag
+     * @param tags the new tags of the key, possibly none
+     */
+    void tag(K key, String... tags) {
+        untag(key);
+        if (tags.length == 0) {
+            return;
+        }
+
+        Set<String> keyTags = ConcurrentHashMap.newKeySet(tags.length);
+        for (String tag : tags) {
+            keyTags.add(tag);
+            this.keysByTag.computeIfAbsent(tag, ignored -> ConcurrentHashMap.newKeySet()).add(key);
+        }
+        this.tagsByKey.put(key, keyTags);
+    }
+
+    /**
+     * Removes every tag of the specified key.
+     *
+     * @param key the key to untag
+     */
+    void untag(K key) {
+        if (this.tagsByKey.isEmpty()) {
+            return;
+        }
+
+        Set<String> keyTags = this.tagsByKey.remove(key);
+        if (keyTags == null) {
+            return;
+        }
+        for (String tag : keyTags) {
+            // Drop the tag once its last key is gone, so unused tags do not pile up
+            this.keysByTag.computeIfPresent(tag, (ignored, keys) -> keys.remove(key) && keys.isEmpty() ? null : keys);
+        }
+    }
+
+    /**
+     * Removes the specified tag and untags every key carrying it.
+     *
+     * @param tag the tag to remove
+     * @return the keys that carried the tag
+     */
+    Set<K> removeTag(String tag) {
+        Set<K> keys = this.keysByTag.remove(tag);
+        if (keys == null) {
+            return Collections.emptySet();
+        }
+
+        for (K key : keys) {
+            untag(key);
+        }
+        return keys;
+    }
+
+    /**
+     * Returns the keys currently carrying the specified tag.
+     *
+     * @param tag the tag to look up
+     * @return an unmodifiable view of the keys carrying the tag
+     */
+    Set<K> keys(String tag) {
+        Set<K> keys = this.keysByTag.get(tag);
+        return keys != null ? Collections.unmodifiableSet(keys) : Collections.<K>emptySet();
+    }
+}
@@ -0,0 +1,96 @@
+package org.swiftcache.cacherepository;
+
+import org.swiftcache.utils.CompactKey;
+import org.swiftcache.utils.TriFunction;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Adapts a repository with string keys to a cache keyed by
+ * {@link CompactKey}. Keys are decoded to strings only when the repository is
+ * called, that is on misses and writes, so hits never materialize the string.
+ *
+ * @param <V> the type of values maintained by this repository
+ */
+public class CompactKeyRepository<V> implements ICacheRepository<CompactKey, V> {
+
+    private final ICacheRepository<String, V> delegate;
+
+    /**
+     * Constructs a new CompactKeyRepository.
+     *
+     * @param delegate the repository with string keys to adapt
+     */
+    public CompactKeyRepository(ICacheRepository<String, V> delegate) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("delegate must not be null");
+        }
+
+        this.delegate = delegate;
+    }
+
+    /**
+     * Retrieves the value of the decoded key from the adapted repository.
+     *
+     * @param key the key whose associated value is to be returned
+     * @return the value associated with the specified key, or null if not found
+     */
+    @Override
+    public V get(CompactKey key) {
+        return this.delegate.get(key.toString());
+    }
+
+    /**
+     * Stores the value under the decoded key in the adapted repository.
+     *
+     * @param key the key with which the specified value is to be associated
+     * @param value the value to be associated with the specified key
+     */
+    @Override
+    public void put(CompactKey key, V value) {
+        this.delegate.put(key.toString(), value);
+    }
+
+    /**
+     * Stores all the values under their decoded keys in the adapted
+     * repository, in one batch.
+     *
+     * @param entries the entries to write
+     */
+    @Override
+    public void putAll(Map<? extends CompactKey, ? extends V> entries) {
+        Map<String, V> decoded = new LinkedHashMap<>();
+        for (Map.Entry<? extends CompactKey, ? extends V> entry : entries.entrySet()) {
+            decoded.put(entry.getKey().toString(), entry.getValue());
+        }
+        this.delegate.putAll(decoded);
+    }
+
+    /**
+     * Removes the decoded key from the adapted repository.
+     *
+     * @param key the key whose mapping is to be removed from the repository
+     */
+    @Override
+    public void remove(CompactKey key) {
+        this.delegate.remove(key.toString());
+    }
+
+    /**
+     * Executes the operation through the adapted repository, passing this
+     * repository and the compact key on to the operation.
+     *
+     * @param operation the operation to execute with the cache
+     * @param key the key to operate on
+     * @param value the value to operate with
+     * @param <R> the return type of the operation
+     * @return the result of the operation
+     */
+    @Override
+    public <R> R executeWithCache(TriFunction<ICacheRepository<CompactKey, V>, CompactKey, V, R> operation,
+                                  CompactKey key, V value) {
+        return this.delegate.executeWithCache((repository, decoded, current) -> operation.apply(this, key, current),
+                key.toString(), value);
+    }
+}
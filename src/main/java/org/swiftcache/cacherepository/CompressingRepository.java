@@ -0,0 +1,107 @@
+package org.swiftcache.cacherepository;
+
+import org.swiftcache.utils.TriFunction;
+import org.swiftcache.valuecodec.CompressedValue;
+import org.swiftcache.valuecodec.ValueCompressor;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Adapts a repository to a cache that stores its values compressed. Values
+ * loaded from the repository are compressed before the cache stores them,
+ * and values written to the repository are decompressed first, so the
+ * repository only ever sees plain values.
+ *
+ * @param <K> the type of keys maintained by this repository
+ * @param <V> the type of the plain values of the adapted repository
+ */
+public class CompressingRepository<K, V> implements ICacheRepository<K, CompressedValue<V>> {
+
+    private final ICacheRepository<K, V> delegate;
+
+    private final ValueCompressor<V> compressor;
+
+    /**
+     * Constructs a new CompressingRepository.
+     *
+     * @param delegate the repository with plain values to adapt
+     * @param compressor the compressor of the cached values
+     */
+    public CompressingRepository(ICacheRepository<K, V> delegate, ValueCompressor<V> compressor) {
+        if (delegate == null) {
+            throw new IllegalArgumentException("delegate must not be null");
+        }
+        if (compressor == null) {
+            throw new IllegalArgumentException("compressor must not be null");
+        }
+
+        this.delegate = delegate;
+        this.compressor = compressor;
+    }
+
+    /**
+     * Retrieves the value from the adapted repository and compresses it.
+     *
+     * @param key the key whose associated value is to be returned
+     * @return the compressed value, or null if not found
+     */
+    @Override
+    public CompressedValue<V> get(K key) {
+        V value = this.delegate.get(key);
+        return value != null ? this.compressor.compress(value) : null;
+    }
+
+    /**
+     * Decompresses the value and stores it in the adapted repository.
+     *
+     * @param key the key with which the specified value is to be associated
+     * @param value the compressed value
+     */
+    @Override
+    public void put(K key, CompressedValue<V> value) {
+        this.delegate.put(key, value.get());
+    }
+
+    /**
+     * Decompresses the values and stores them in the adapted repository, in
+     * one batch.
+     *
+     * @param entries the entries to write
+     */
+    @Override
+    public void putAll(Map<? extends K, ? extends CompressedValue<V>> entries) {
+        Map<K, V> decompressed = new LinkedHashMap<>();
+        for (Map.Entry<? extends K, ? extends CompressedValue<V>> entry : entries.entrySet()) {
+            decompressed.put(entry.getKey(), entry.getValue().get());
+        }
+        this.delegate.putAll(decompressed);
+    }
+
+    /**
+     * Removes the key from the adapted repository.
+     *
+     * @param key the key whose mapping is to be removed from the repository
+     */
+    @Override
+    public void remove(K key) {
+        this.delegate.remove(key);
+    }
+
+    /**
+     * Executes the operation through the adapted repository, passing this
+     * repository and the compressed value on to the operation.
+     *
+     * @param operation the operation to execute with the cache
+     * @param key the key to operate on
+     * @param value the value to operate with
+     * @param <R> the return type of the operation
+     * @return the result of the operation
+     */
+    @Override
+    public <R> R executeWithCache(TriFunction<ICacheRepository<K, CompressedValue<V>>, K, CompressedValue<V>, R> operation,
+                                  K key, CompressedValue<V> value) {
+        return this.delegate.executeWithCache((repository, plainKey, plain) -> operation.apply(this, plainKey, value),
+                key, value != null ? value.get() : null);
+    }
+}
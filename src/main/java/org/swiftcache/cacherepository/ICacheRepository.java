@@ -2,6 +2,8 @@ package org.swiftcache.cacherepository;
 
 import org.swiftcache.utils.TriFunction;
 
+import java.util.Map;
+
 /**
  * Interface representing a cache repository that provides methods for
  * basic cache operations such as retrieving, storing, and removing entries.
@@ -27,6 +29,20 @@ public interface ICacheRepository<K, V> {
      */
     void put(K key, V value);
 
+    /**
+     * Associates all the specified values with their keys in the repository.
+     * Repositories that support batched writes should override this method to
+     * write all entries in a single round-trip. The default implementation
+     * calls {@link #put(Object, Object)} for each entry.
+     *
+     * @param entries the entries to write
+     */
+    default void putAll(Map<? extends K, ? extends V> entries) {
+        for (Map.Entry<? extends K, ? extends V> entry : entries.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+
     /**
      * Removes the entry for the specified key from the repository.
      *
@@ -0,0 +1,250 @@
+package org.swiftcache.evictionstrategy;
+
+import org.swiftcache.readingpolicy.LoadCostListener;
+import org.swiftcache.utils.Weigher;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeSet;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * An implementation of the IEvictionStrategy interface that uses the
+ * GreedyDual-Size-Frequency (GDSF) eviction policy. Each entry has a priority
+ * of {@code clock + frequency * cost / size}. The entry with the lowest
+ * priority is evicted, and the clock is raised to that priority, so entries
+ * that have not been accessed for a long time eventually lose to new ones.
+ * <p>
+ * The cost of an entry is the time its last load from the repository took,
+ * which the strategy learns as a {@link LoadCostListener} of the reading
+ * policy. Entries that were put rather than loaded are given the mean
+ * observed load time. The size of an entry is computed by a {@link Weigher}
+ * when it is loaded or written, so loaded and put entries are weighed alike;
+ * without a weigher, every entry has a size of one.
+ * <p>
+ * The strategy keeps its own priority queue, so the eviction queue passed in
+ * by the cache is left untouched.
+ *
+ * @param <K> the type of keys maintained by this eviction strategy
+ * @param <V> the type of values maintained by this eviction strategy
+ */
+public class GDSFEvictionStrategy<K, V> implements IEvictionStrategy<K, V>, LoadCostListener<K, V> {
+
+    private static final Logger logger = Logger.getLogger(GDSFEvictionStrategy.class.getName());
+
+    private final Weigher<K, V> weigher;
+
+    private Map<K, Node<K>> nodes;
+
+    private TreeSet<Node<K>> queue;
+
+    private double clock;
+
+    private long sequence;
+
+    private double totalLoadNanos;
+
+    private long loads;
+
+    /**
+     * Constructs a new GDSFEvictionStrategy in which every entry has a size of one.
+     */
+    public GDSFEvictionStrategy() {
+        this(null);
+    }
+
+    /**
+     * Constructs a new GDSFEvictionStrategy that sizes loaded and written
+     * entries with the specified weigher.
+     *
+     * @param weigher the weigher computing the size of entries, or null for a size of one
+     */
+    public GDSFEvictionStrategy(Weigher<K, V> weigher) {
+        this.weigher = weigher;
+        this.nodes = new HashMap<>();
+        this.queue = new TreeSet<>((a, b) -> a.priority != b.priority
+                ? Double.compare(a.priority, b.priority)
+                : Long.compare(a.sequence, b.sequence));
+    }
+
+    /**
+     * Evicts the entry with the lowest priority and raises the clock to its
+     * priority. Keys no longer present in the cache map are dropped along the
+     * way without counting as the eviction.
+     *
+     * @param cacheMap the cache map containing the entries
+     * @param evictionQueue the queue used for eviction (unused by this strategy)
+     * @return the evicted key, or null if no tracked key was left in the cache map
+     */
+    @Override
+    public synchronized K evict(Map<K, V> cacheMap, Queue<K> evictionQueue) {
+        Node<K> node;
+        while ((node = this.queue.pollFirst()) != null) {
+            this.nodes.remove(node.key);
+            this.clock = node.priority;
+
+            if (cacheMap.remove(node.key) != null) {
+                logger.log(Level.INFO, "Key {0} evicted (GDSF)", node.key);
+                return node.key;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Records an access to the specified key and recomputes its priority from
+     * the current clock.
+     *
+     * @param key the key that was accessed
+     * @param evictionQueue the queue used for eviction (unused by this strategy)
+     */
+    @Override
+    public synchronized void updateQueue(K key, Queue<K> evictionQueue) {
+        Node<K> node = node(key);
+        if (node.queued) {
+            this.queue.remove(node);
+        } else {
+            logger.log(Level.INFO, "Key {0} added to eviction queue (GDSF)", key);
+        }
+
+        node.frequency++;
+        double cost = node.loadNanos >= 0 ? node.loadNanos : meanLoadNanos();
+        node.priority = this.clock + node.frequency * cost / node.size;
+        node.sequence = this.sequence++;
+        node.queued = true;
+        this.queue.add(node);
+    }
+
+    /**
+     * Records a write of the specified value, weighing it like a loaded value,
+     * and recomputes the priority of its key.
+     *
+     * @param key the key that was written
+     * @param value the value that was written
+     * @param evictionQueue the queue used for eviction (unused by this strategy)
+     */
+    @Override
+    public synchronized void updateQueue(K key, V value, Queue<K> evictionQueue) {
+        node(key).size = weigh(key, value);
+        updateQueue(key, evictionQueue);
+    }
+
+    /**
+     * Records the cost and size of a value just loaded from the repository.
+     * They are used from the access that follows the load on.
+     *
+     * @param key the key that was loaded
+     * @param value the value that was loaded
+     * @param loadNanos how long the repository took to return the value, in nanoseconds
+     */
+    @Override
+    public synchronized void onLoad(K key, V value, long loadNanos) {
+        Node<K> node = node(key);
+        // A load of zero nanoseconds would make the entry the first eviction candidate forever
+        node.loadNanos = Math.max(1, loadNanos);
+        node.size = weigh(key, value);
+        this.totalLoadNanos += node.loadNanos;
+        this.loads++;
+    }
+
+    /**
+     * Returns the node of the specified key, creating it if the key is not tracked yet.
+     *
+     * @param key the key to look up
+     * @return the node of the key
+     */
+    private Node<K> node(K key) {
+        Node<K> node = this.nodes.get(key);
+        if (node == null) {
+            node = new Node<>(key);
+            this.nodes.put(key, node);
+        }
+        return node;
+    }
+
+    /**
+     * Computes the size of an entry with the weigher.
+     *
+     * @param key the key of the entry
+     * @param value the value of the entry
+     * @return the size of the entry, at least one
+     */
+    private long weigh(K key, V value) {
+        return this.weigher != null ? Math.max(1, this.weigher.weigh(key, value)) : 1;
+    }
+
+    /**
+     * Stops tracking the specified key.
+     *
+     * @param key the key that was removed from the cache
+     * @param evictionQueue the queue used for eviction (unused by this strategy)
+     */
+    @Override
+    public synchronized void remove(K key, Queue<K> evictionQueue) {
+        Node<K> node = this.nodes.remove(key);
+        if (node != null && node.queued) {
+            this.queue.remove(node);
+        }
+    }
+
+    /**
+     * Stops tracking every key and resets the clock, in constant time. The
+     * observed load times are kept, since they describe the repository rather
+     * than the entries.
+     *
+     * @param evictionQueue the queue used for eviction (unused by this strategy)
+     */
+    @Override
+    public synchronized void clear(Queue<K> evictionQueue) {
+        this.nodes = new HashMap<>();
+        this.queue = new TreeSet<>(this.queue.comparator());
+        this.clock = 0;
+    }
+
+    /**
+     * Returns the current priority of the specified key.
+     *
+     * @param key the key to look up
+     * @return the priority of the key, or 0 if the key is not tracked
+     */
+    public synchronized double getPriority(K key) {
+        Node<K> node = this.nodes.get(key);
+        return node != null ? node.priority : 0;
+    }
+
+    /**
+     * Returns the mean time a load from the repository took.
+     *
+     * @return the mean load time in nanoseconds, or 1 if nothing has been loaded yet
+     */
+    public synchronized double meanLoadNanos() {
+        return this.loads == 0 ? 1 : this.totalLoadNanos / this.loads;
+    }
+
+    /**
+     * A tracked key with its access frequency, cost, size and priority.
+     */
+    private static final class Node<K> {
+
+        private final K key;
+
+        private long frequency;
+
+        private double loadNanos = -1;
+
+        private long size = 1;
+
+        private double priority;
+
+        private long sequence;
+
+        private boolean queued;
+
+        Node(K key) {
+            this.key = key;
+        }
+    }
+}
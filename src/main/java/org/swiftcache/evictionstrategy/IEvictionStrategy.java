@@ -13,13 +13,14 @@ import java.util.Queue;
 public interface IEvictionStrategy<K, V> {
 
     /**
-     * Evicts entries from the cache based on the specific eviction policy
+     * Evicts an entry from the cache based on the specific eviction policy
      * implemented by the strategy.
      *
      * @param cacheMap the cache map containing the entries
      * @param evictionQueue the queue used for eviction
+     * @return the evicted key, or null if nothing was evicted
      */
-    void evict(Map<K, V> cacheMap, Queue<K> evictionQueue);
+    K evict(Map<K, V> cacheMap, Queue<K> evictionQueue);
 
     /**
      * Updates the eviction queue based on the specific eviction policy
@@ -29,4 +30,39 @@ public interface IEvictionStrategy<K, V> {
      * @param evictionQueue the queue to update
      */
     void updateQueue(K key, Queue<K> evictionQueue);
+
+    /**
+     * Updates the eviction queue for a write of the specified value. The
+     * cache calls this instead of {@link #updateQueue(Object, Queue)} when it
+     * writes an entry, so strategies that size their entries can weigh it.
+     * The default implementation ignores the value.
+     *
+     * @param key the key that was written
+     * @param value the value that was written
+     * @param evictionQueue the queue to update
+     */
+    default void updateQueue(K key, V value, Queue<K> evictionQueue) {
+        updateQueue(key, evictionQueue);
+    }
+
+    /**
+     * Stops tracking the specified key, which has been removed from the cache.
+     * The default implementation removes the key from the eviction queue.
+     *
+     * @param key the key that was removed
+     * @param evictionQueue the queue used for eviction
+     */
+    default void remove(K key, Queue<K> evictionQueue) {
+        evictionQueue.remove(key);
+    }
+
+    /**
+     * Stops tracking every key, since the cache has been cleared. The default
+     * implementation clears the eviction queue.
+     *
+     * @param evictionQueue the queue used for eviction
+     */
+    default void clear(Queue<K> evictionQueue) {
+        evictionQueue.clear();
+    }
 }
@@ -0,0 +1,294 @@
+package org.swiftcache.evictionstrategy;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * An implementation of the IEvictionStrategy interface that uses the Least
+ * Frequently Used (LFU) eviction policy. This strategy evicts the entry with
+ * the fewest accesses, and the oldest such entry when several are tied.
+ * <p>
+ * Keys are grouped in buckets of equal frequency, and the buckets are kept in
+ * a list ordered by frequency. Recording an access moves a key to the next
+ * bucket and evicting takes the oldest key of the first bucket, so both are
+ * constant-time operations.
+ * <p>
+ * Optionally, all frequencies are halved after a fixed number of accesses.
+ * This ages out keys that used to be hot, so they cannot hold on to the cache
+ * forever. A halving pass is linear in the number of keys, which stays
+ * constant per access when the interval is at least the cache size.
+ * <p>
+ * The strategy keeps its own buckets, so the eviction queue passed in by the
+ * cache is left untouched.
+ *
+ * @param <K> the type of keys maintained by this eviction strategy
+ * @param <V> the type of values maintained by this eviction strategy
+ */
+public class LFUEvictionStrategy<K, V> implements IEvictionStrategy<K, V> {
+
+    private static final Logger logger = Logger.getLogger(LFUEvictionStrategy.class.getName());
+
+    private final long decayInterval;
+
+    private Map<K, Node<K>> nodes;
+
+    private Bucket<K> lowest;
+
+    private long accessesSinceDecay;
+
+    /**
+     * Constructs a new LFUEvictionStrategy that never decays frequencies.
+     */
+    public LFUEvictionStrategy() {
+        this(0);
+    }
+
+    /**
+     * Constructs a new LFUEvictionStrategy that halves all frequencies after
+     * the specified number of accesses.
+     *
+     * @param decayInterval the number of accesses between two halvings, or 0 to never decay
+     */
+    public LFUEvictionStrategy(long decayInterval) {
+        if (decayInterval < 0) {
+            throw new IllegalArgumentException("decayInterval must not be negative: " + decayInterval);
+        }
+
+        this.decayInterval = decayInterval;
+        this.nodes = new HashMap<>();
+    }
+
+    /**
+     * Evicts an entry from the cache based on the LFU policy. The oldest key
+     * of the lowest-frequency bucket is removed. Keys no longer present in the
+     * cache map are dropped along the way without counting as the eviction.
+     *
+     * @param cacheMap the cache map containing the entries
+     * @param evictionQueue the queue used for eviction (unused by this strategy)
+     * @return the evicted key, or null if no tracked key was left in the cache map
+     */
+    @Override
+    public synchronized K evict(Map<K, V> cacheMap, Queue<K> evictionQueue) {
+        while (this.lowest != null) {
+            Node<K> node = this.lowest.oldest;
+            unlink(node);
+            this.nodes.remove(node.key);
+
+            if (cacheMap.remove(node.key) != null) {
+                logger.log(Level.INFO, "Key {0} evicted (LFU)", node.key);
+                return node.key;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Records an access to the specified key based on the LFU policy. A new
+     * key starts with a frequency of one; a known key moves to the bucket of
+     * the next frequency.
+     *
+     * @param key the key that was accessed
+     * @param evictionQueue the queue used for eviction (unused by this strategy)
+     */
+    @Override
+    public synchronized void updateQueue(K key, Queue<K> evictionQueue) {
+        Node<K> node = this.nodes.get(key);
+        if (node == null) {
+            node = new Node<>(key);
+            this.nodes.put(key, node);
+            link(node, bucketAfter(null, 1));
+
+            logger.log(Level.INFO, "Key {0} added to eviction queue (LFU)", key);
+        } else {
+            Bucket<K> current = node.bucket;
+            Bucket<K> next = bucketAfter(current, current.frequency + 1);
+            unlink(node);
+            link(node, next);
+        }
+
+        if (this.decayInterval > 0 && ++this.accessesSinceDecay >= this.decayInterval) {
+            decay();
+        }
+    }
+
+    /**
+     * Stops tracking the specified key.
+     *
+     * @param key the key that was removed from the cache
+     * @param evictionQueue the queue used for eviction (unused by this strategy)
+     */
+    @Override
+    public synchronized void remove(K key, Queue<K> evictionQueue) {
+        Node<K> node = this.nodes.remove(key);
+        if (node != null) {
+            unlink(node);
+        }
+    }
+
+    /**
+     * Stops tracking every key. The tracked keys are dropped at once rather
+     * than one by one, so this takes constant time.
+     *
+     * @param evictionQueue the queue used for eviction (unused by this strategy)
+     */
+    @Override
+    public synchronized void clear(Queue<K> evictionQueue) {
+        this.nodes = new HashMap<>();
+        this.lowest = null;
+        this.accessesSinceDecay = 0;
+    }
+
+    /**
+     * Returns the current access frequency of the specified key.
+     *
+     * @param key the key to look up
+     * @return the frequency of the key, or 0 if the key is not tracked
+     */
+    public synchronized long getFrequency(K key) {
+        Node<K> node = this.nodes.get(key);
+        return node != null ? node.bucket.frequency : 0;
+    }
+
+    /**
+     * Halves the frequency of every key, keeping at least one. Buckets that
+     * end up with the same frequency are merged, older keys first.
+     */
+    private void decay() {
+        this.accessesSinceDecay = 0;
+
+        Bucket<K> bucket = this.lowest;
+        Bucket<K> previous = null;
+        while (bucket != null) {
+            Bucket<K> next = bucket.higher;
+            bucket.frequency = Math.max(1, bucket.frequency / 2);
+
+            if (previous != null && previous.frequency == bucket.frequency) {
+                // Keys of the lower original frequency go first, they were the better eviction candidates
+                for (Node<K> node = bucket.oldest; node != null; node = node.newer) {
+                    node.bucket = previous;
+                }
+                previous.newest.newer = bucket.oldest;
+                bucket.oldest.older = previous.newest;
+                previous.newest = bucket.newest;
+                previous.higher = next;
+                if (next != null) {
+                    next.lower = previous;
+                }
+            } else {
+                previous = bucket;
+            }
+            bucket = next;
+        }
+
+        logger.log(Level.INFO, "Frequencies halved (LFU)");
+    }
+
+    /**
+     * Returns the bucket of the specified frequency that directly follows the
+     * given bucket, creating it if needed.
+     *
+     * @param after the bucket to follow, or null for the start of the list
+     * @param frequency the frequency of the bucket
+     * @return the bucket of that frequency
+     */
+    private Bucket<K> bucketAfter(Bucket<K> after, long frequency) {
+        Bucket<K> next = after != null ? after.higher : this.lowest;
+        if (next != null && next.frequency == frequency) {
+            return next;
+        }
+
+        Bucket<K> bucket = new Bucket<>(frequency);
+        bucket.lower = after;
+        bucket.higher = next;
+        if (after != null) {
+            after.higher = bucket;
+        } else {
+            this.lowest = bucket;
+        }
+        if (next != null) {
+            next.lower = bucket;
+        }
+        return bucket;
+    }
+
+    private void link(Node<K> node, Bucket<K> bucket) {
+        node.bucket = bucket;
+        node.older = bucket.newest;
+        if (bucket.newest != null) {
+            bucket.newest.newer = node;
+        } else {
+            bucket.oldest = node;
+        }
+        bucket.newest = node;
+    }
+
+    private void unlink(Node<K> node) {
+        Bucket<K> bucket = node.bucket;
+        if (node.older != null) {
+            node.older.newer = node.newer;
+        } else {
+            bucket.oldest = node.newer;
+        }
+        if (node.newer != null) {
+            node.newer.older = node.older;
+        } else {
+            bucket.newest = node.older;
+        }
+        node.older = null;
+        node.newer = null;
+
+        if (bucket.oldest == null) {
+            // Drop the empty bucket from the frequency list
+            if (bucket.lower != null) {
+                bucket.lower.higher = bucket.higher;
+            } else {
+                this.lowest = bucket.higher;
+            }
+            if (bucket.higher != null) {
+                bucket.higher.lower = bucket.lower;
+            }
+        }
+    }
+
+    /**
+     * The keys sharing one access frequency, in the order they reached it.
+     */
+    private static final class Bucket<K> {
+
+        private long frequency;
+
+        private Node<K> oldest;
+
+        private Node<K> newest;
+
+        private Bucket<K> lower;
+
+        private Bucket<K> higher;
+
+        Bucket(long frequency) {
+            this.frequency = frequency;
+        }
+    }
+
+    /**
+     * A tracked key with its bucket and its neighbours within the bucket.
+     */
+    private static final class Node<K> {
+
+        private final K key;
+
+        private Bucket<K> bucket;
+
+        private Node<K> older;
+
+        private Node<K> newer;
+
+        Node(K key) {
+            this.key = key;
+        }
+    }
+}
@@ -23,9 +23,10 @@ public class LRUEvictionStrategy<K, V> implements IEvictionStrategy<K, V> {
      *
      * @param cacheMap the cache map containing the entries
      * @param evictionQueue the queue used for eviction
+     * @return the evicted key, or null if the queue was empty
      */
     @Override
-    public void evict(Map<K, V> cacheMap, Queue<K> evictionQueue) {
+    public K evict(Map<K, V> cacheMap, Queue<K> evictionQueue) {
         K evictedKey = evictionQueue.poll();
 
         if (evictedKey != null) {
@@ -33,6 +34,8 @@ public class LRUEvictionStrategy<K, V> implements IEvictionStrategy<K, V> {
 
             logger.log(Level.INFO, "Key {0} evicted (LRU)", evictedKey);
         }
+
+        return evictedKey;
     }
 
     /**
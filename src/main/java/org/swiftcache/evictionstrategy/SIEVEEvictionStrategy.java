@@ -0,0 +1,175 @@
+package org.swiftcache.evictionstrategy;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * An implementation of the IEvictionStrategy interface that uses the SIEVE
+ * eviction policy. Entries are kept in insertion order and carry a visited
+ * bit. A cache hit only sets that bit, so hits never reorder shared state and
+ * need no lock. On eviction, a hand sweeps from the oldest entry towards the
+ * newest, clearing visited bits as it goes, and evicts the first entry that
+ * has not been visited since the hand last passed it. The hand wraps around
+ * to the oldest entry when it reaches the newest one.
+ * <p>
+ * The strategy keeps its own list of entries, so the eviction queue passed in
+ * by the cache is left untouched.
+ *
+ * @param <K> the type of keys maintained by this eviction strategy
+ * @param <V> the type of values maintained by this eviction strategy
+ */
+public class SIEVEEvictionStrategy<K, V> implements IEvictionStrategy<K, V> {
+
+    private static final Logger logger = Logger.getLogger(SIEVEEvictionStrategy.class.getName());
+
+    private volatile Map<K, Node<K>> nodes;
+
+    private Node<K> newest;
+
+    private Node<K> oldest;
+
+    private Node<K> hand;
+
+    /**
+     * Constructs a new SIEVEEvictionStrategy.
+     */
+    public SIEVEEvictionStrategy() {
+        this.nodes = new ConcurrentHashMap<>();
+    }
+
+    /**
+     * Evicts an entry from the cache based on the SIEVE policy. The hand
+     * skips and clears visited entries, then evicts the first entry it finds
+     * unvisited. Entries no longer present in the cache map are dropped along
+     * the way without counting as the eviction.
+     *
+     * @param cacheMap the cache map containing the entries
+     * @param evictionQueue the queue used for eviction (unused by this strategy)
+     * @return the evicted key, or null if no tracked key was left in the cache map
+     */
+    @Override
+    public synchronized K evict(Map<K, V> cacheMap, Queue<K> evictionQueue) {
+        while (this.oldest != null) {
+            Node<K> node = this.hand != null ? this.hand : this.oldest;
+            while (node.visited) {
+                node.visited = false;
+                node = node.newer != null ? node.newer : this.oldest;
+            }
+
+            this.hand = node.newer;
+            unlink(node);
+            this.nodes.remove(node.key);
+
+            if (cacheMap.remove(node.key) != null) {
+                logger.log(Level.INFO, "Key {0} evicted (SIEVE)", node.key);
+                return node.key;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Updates the eviction state based on the SIEVE policy. A key already
+     * tracked only has its visited bit set; a new key is added as the newest
+     * entry.
+     *
+     * @param key the key to update
+     * @param evictionQueue the queue used for eviction (unused by this strategy)
+     */
+    @Override
+    public void updateQueue(K key, Queue<K> evictionQueue) {
+        Node<K> node = this.nodes.get(key);
+        if (node != null) {
+            node.visited = true;
+            return;
+        }
+
+        insert(key);
+    }
+
+    /**
+     * Stops tracking the specified key.
+     *
+     * @param key the key that was removed from the cache
+     * @param evictionQueue the queue used for eviction (unused by this strategy)
+     */
+    @Override
+    public synchronized void remove(K key, Queue<K> evictionQueue) {
+        Node<K> node = this.nodes.remove(key);
+        if (node != null) {
+            if (this.hand == node) {
+                this.hand = node.newer;
+            }
+            unlink(node);
+        }
+    }
+
+    /**
+     * Stops tracking every key. The tracked keys are dropped at once rather
+     * than one by one, so this takes constant time.
+     *
+     * @param evictionQueue the queue used for eviction (unused by this strategy)
+     */
+    @Override
+    public synchronized void clear(Queue<K> evictionQueue) {
+        this.nodes = new ConcurrentHashMap<>();
+        this.newest = null;
+        this.oldest = null;
+        this.hand = null;
+    }
+
+    private synchronized void insert(K key) {
+        if (this.nodes.containsKey(key)) {
+            return;
+        }
+
+        Node<K> node = new Node<>(key);
+        node.older = this.newest;
+        if (this.newest != null) {
+            this.newest.newer = node;
+        } else {
+            this.oldest = node;
+        }
+        this.newest = node;
+        this.nodes.put(key, node);
+
+        logger.log(Level.INFO, "Key {0} added to eviction queue (SIEVE)", key);
+    }
+
+    private void unlink(Node<K> node) {
+        if (node.older != null) {
+            node.older.newer = node.newer;
+        } else {
+            this.oldest = node.newer;
+        }
+        if (node.newer != null) {
+            node.newer.older = node.older;
+        } else {
+            this.newest = node.older;
+        }
+        node.older = null;
+        node.newer = null;
+    }
+
+    /**
+     * A tracked key with its visited bit and its neighbours in insertion order.
+     */
+    private static final class Node<K> {
+
+        private final K key;
+
+        private volatile boolean visited;
+
+        private Node<K> older;
+
+        private Node<K> newer;
+
+        Node(K key) {
+            this.key = key;
+        }
+    }
+}
@@ -0,0 +1,322 @@
+package org.swiftcache.evictionstrategy;
+
+import org.swiftcache.utils.Weigher;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * An implementation of the IEvictionStrategy interface that evicts by random
+ * sampling, in the style of Redis. No ordering of the entries is maintained.
+ * On eviction, a few random entries are sampled and merged into a small pool
+ * of the best candidates seen so far, and the candidate with the lowest
+ * priority according to a pluggable {@link Scorer} is evicted.
+ * <p>
+ * Each entry only carries its last access time and an access count, and a
+ * cache hit just updates these two fields, so hits need no lock. The counts
+ * are updated without synchronization and may lose a few concurrent
+ * increments, which only makes the scores slightly approximate.
+ * <p>
+ * The strategy keeps its own entries, so the eviction queue passed in by the
+ * cache is left untouched.
+ *
+ * @param <K> the type of keys maintained by this eviction strategy
+ * @param <V> the type of values maintained by this eviction strategy
+ */
+public class SampledEvictionStrategy<K, V> implements IEvictionStrategy<K, V> {
+
+    private static final Logger logger = Logger.getLogger(SampledEvictionStrategy.class.getName());
+
+    /** The default number of entries sampled per eviction, as in Redis. */
+    public static final int DEFAULT_SAMPLE_SIZE = 5;
+
+    /** The default number of candidates kept between evictions, as in Redis. */
+    public static final int DEFAULT_POOL_SIZE = 16;
+
+    private final int sampleSize;
+
+    private final int poolSize;
+
+    private final Scorer<K, V> scorer;
+
+    private volatile Map<K, Entry<K>> entries;
+
+    private List<Entry<K>> table;
+
+    private final List<Entry<K>> pool;
+
+    /**
+     * Constructs a new SampledEvictionStrategy that approximates LRU with the
+     * default sample and pool sizes.
+     */
+    public SampledEvictionStrategy() {
+        this(DEFAULT_SAMPLE_SIZE, DEFAULT_POOL_SIZE, idleTime());
+    }
+
+    /**
+     * Constructs a new SampledEvictionStrategy.
+     *
+     * @param sampleSize the number of random entries sampled per eviction
+     * @param poolSize the number of best candidates kept between evictions
+     * @param scorer the scorer ranking the candidates, lowest priority evicted first
+     */
+    public SampledEvictionStrategy(int sampleSize, int poolSize, Scorer<K, V> scorer) {
+        if (sampleSize <= 0) {
+            throw new IllegalArgumentException("sampleSize must be positive: " + sampleSize);
+        }
+        if (poolSize <= 0) {
+            throw new IllegalArgumentException("poolSize must be positive: " + poolSize);
+        }
+
+        this.sampleSize = sampleSize;
+        this.poolSize = poolSize;
+        this.scorer = scorer;
+        this.entries = new ConcurrentHashMap<>();
+        this.table = new ArrayList<>();
+        this.pool = new ArrayList<>(poolSize + sampleSize);
+    }
+
+    /**
+     * Returns a scorer that evicts the entry idle for the longest time,
+     * approximating LRU.
+     *
+     * @param <K> the type of keys being scored
+     * @param <V> the type of values being scored
+     * @return the idle time scorer
+     */
+    public static <K, V> Scorer<K, V> idleTime() {
+        return (key, value, idleNanos, frequency) -> -idleNanos;
+    }
+
+    /**
+     * Returns a scorer that evicts the entry accessed the fewest times,
+     * approximating LFU.
+     *
+     * @param <K> the type of keys being scored
+     * @param <V> the type of values being scored
+     * @return the frequency scorer
+     */
+    public static <K, V> Scorer<K, V> frequency() {
+        return (key, value, idleNanos, frequency) -> frequency;
+    }
+
+    /**
+     * Returns a scorer that evicts the heaviest entry first.
+     *
+     * @param weigher the weigher computing the size of an entry
+     * @param <K> the type of keys being scored
+     * @param <V> the type of values being scored
+     * @return the weight scorer
+     */
+    public static <K, V> Scorer<K, V> weight(Weigher<K, V> weigher) {
+        return (key, value, idleNanos, frequency) -> -weigher.weigh(key, value);
+    }
+
+    /**
+     * Evicts an entry from the cache by sampling. The sampled entries and the
+     * pooled candidates are scored, the lowest-priority one is evicted and the
+     * best of the rest are kept for the next eviction. Entries no longer
+     * present in the cache map are dropped along the way.
+     *
+     * @param cacheMap the cache map containing the entries
+     * @param evictionQueue the queue used for eviction (unused by this strategy)
+     * @return the evicted key, or null if no tracked key was left in the cache map
+     */
+    @Override
+    public synchronized K evict(Map<K, V> cacheMap, Queue<K> evictionQueue) {
+        while (!this.table.isEmpty()) {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            // A table no larger than the sample is considered whole
+            boolean exhaustive = this.table.size() <= this.sampleSize;
+            int samples = exhaustive ? this.table.size() : this.sampleSize;
+            for (int i = 0; i < samples; i++) {
+                Entry<K> sampled = this.table.get(exhaustive ? i : random.nextInt(this.table.size()));
+                if (!sampled.pooled) {
+                    sampled.pooled = true;
+                    this.pool.add(sampled);
+                }
+            }
+
+            long now = System.nanoTime();
+            Entry<K> victim = null;
+            for (int i = this.pool.size() - 1; i >= 0; i--) {
+                Entry<K> candidate = this.pool.get(i);
+                V value = candidate.index >= 0 ? cacheMap.get(candidate.key) : null;
+                if (value == null) {
+                    // Removed from the cache since it was pooled or sampled
+                    dropFromPool(i);
+                    untrack(candidate);
+                    continue;
+                }
+
+                candidate.priority = this.scorer.priority(candidate.key, value,
+                        now - candidate.lastAccessNanos, candidate.frequency);
+                if (victim == null || candidate.priority < victim.priority) {
+                    victim = candidate;
+                }
+            }
+
+            if (victim == null) {
+                continue;
+            }
+
+            this.pool.remove(victim);
+            victim.pooled = false;
+            untrack(victim);
+            trimPool();
+
+            if (cacheMap.remove(victim.key) != null) {
+                logger.log(Level.INFO, "Key {0} evicted (Sampled)", victim.key);
+                return victim.key;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Records an access to the specified key. A known key only has its access
+     * time and count updated; a new key is added to the sampling table.
+     *
+     * @param key the key that was accessed
+     * @param evictionQueue the queue used for eviction (unused by this strategy)
+     */
+    @Override
+    public void updateQueue(K key, Queue<K> evictionQueue) {
+        Entry<K> entry = this.entries.get(key);
+        if (entry != null) {
+            entry.lastAccessNanos = System.nanoTime();
+            entry.frequency++;
+            return;
+        }
+
+        insert(key);
+    }
+
+    /**
+     * Stops tracking the specified key.
+     *
+     * @param key the key that was removed from the cache
+     * @param evictionQueue the queue used for eviction (unused by this strategy)
+     */
+    @Override
+    public synchronized void remove(K key, Queue<K> evictionQueue) {
+        Entry<K> entry = this.entries.get(key);
+        if (entry != null) {
+            if (entry.pooled) {
+                this.pool.remove(entry);
+                entry.pooled = false;
+            }
+            untrack(entry);
+        }
+    }
+
+    /**
+     * Stops tracking every key. The tracked keys are dropped at once rather
+     * than one by one, so this takes constant time.
+     *
+     * @param evictionQueue the queue used for eviction (unused by this strategy)
+     */
+    @Override
+    public synchronized void clear(Queue<K> evictionQueue) {
+        this.entries = new ConcurrentHashMap<>();
+        this.table = new ArrayList<>();
+        this.pool.clear();
+    }
+
+    private synchronized void insert(K key) {
+        if (this.entries.containsKey(key)) {
+            return;
+        }
+
+        Entry<K> entry = new Entry<>(key, this.table.size());
+        this.table.add(entry);
+        this.entries.put(key, entry);
+
+        logger.log(Level.INFO, "Key {0} added to eviction queue (Sampled)", key);
+    }
+
+    private void untrack(Entry<K> entry) {
+        if (entry.index < 0) {
+            return;
+        }
+
+        // Swap the last entry into the freed slot to keep the table dense
+        Entry<K> last = this.table.remove(this.table.size() - 1);
+        if (last != entry) {
+            this.table.set(entry.index, last);
+            last.index = entry.index;
+        }
+        entry.index = -1;
+        this.entries.remove(entry.key, entry);
+    }
+
+    private void dropFromPool(int position) {
+        Entry<K> entry = this.pool.remove(position);
+        entry.pooled = false;
+    }
+
+    private void trimPool() {
+        if (this.pool.size() <= this.poolSize) {
+            return;
+        }
+
+        // Keep the lowest-priority candidates; their scores were computed during this eviction
+        this.pool.sort((a, b) -> Double.compare(a.priority, b.priority));
+        while (this.pool.size() > this.poolSize) {
+            dropFromPool(this.pool.size() - 1);
+        }
+    }
+
+    /**
+     * Ranks eviction candidates. The candidate with the lowest priority is
+     * evicted first.
+     *
+     * @param <K> the type of keys being scored
+     * @param <V> the type of values being scored
+     */
+    @FunctionalInterface
+    public interface Scorer<K, V> {
+
+        /**
+         * Returns the priority of a candidate entry.
+         *
+         * @param key the key of the entry
+         * @param value the value of the entry
+         * @param idleNanos the time since the last access to the entry, in nanoseconds
+         * @param frequency the number of accesses to the entry after the first one
+         * @return the priority of the entry
+         */
+        double priority(K key, V value, long idleNanos, long frequency);
+    }
+
+    /**
+     * A tracked key with its access statistics and its slot in the sampling table.
+     */
+    private static final class Entry<K> {
+
+        private final K key;
+
+        private volatile long lastAccessNanos;
+
+        private volatile long frequency;
+
+        private int index;
+
+        private boolean pooled;
+
+        private double priority;
+
+        Entry(K key, int index) {
+            this.key = key;
+            this.index = index;
+            this.lastAccessNanos = System.nanoTime();
+        }
+    }
+}
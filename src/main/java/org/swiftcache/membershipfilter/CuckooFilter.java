@@ -0,0 +1,296 @@
+package org.swiftcache.membershipfilter;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * A cuckoo filter, which stores a short fingerprint of every key in one of two
+ * candidate buckets. Unlike a Bloom filter it supports deletion of keys that
+ * were previously added.
+ * <p>
+ * Each table has buckets of four 16-bit fingerprints. When a table is too full
+ * to place a new fingerprint, a new table twice as large is appended, so the
+ * filter keeps growing with the key set instead of failing. Lookups check
+ * every table, which keeps the false positive rate roughly proportional to the
+ * number of tables.
+ *
+ * @param <K> the type of keys maintained by this filter
+ */
+public class CuckooFilter<K> implements IMembershipFilter<K> {
+
+    private static final int BUCKET_SIZE = 4;
+
+    private static final int FINGERPRINT_BITS = 16;
+
+    private static final int MAX_KICKS = 500;
+
+    private final List<Table> tables;
+
+    private long size;
+
+    /**
+     * Constructs a new CuckooFilter.
+     *
+     * @param expectedInsertions the number of keys the first table is sized for
+     */
+    public CuckooFilter(long expectedInsertions) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("expectedInsertions must be positive: " + expectedInsertions);
+        }
+
+        this.tables = new ArrayList<>();
+        // Cuckoo tables are reliably filled up to about 95%, leave some headroom above the expected size
+        this.tables.add(new Table(expectedInsertions * 100 / 95 / BUCKET_SIZE + 1));
+    }
+
+    /**
+     * Adds the specified key to the filter. Adding the same key twice stores
+     * two fingerprints, and it must then be removed twice.
+     *
+     * @param key the key to add
+     */
+    @Override
+    public synchronized void add(K key) {
+        long hash = FilterHashing.hash(key);
+        Table table = this.tables.get(this.tables.size() - 1);
+
+        if (!table.insert(hash)) {
+            table = new Table(table.bucketCount() * 2L);
+            this.tables.add(table);
+            table.insert(hash);
+        }
+        this.size++;
+    }
+
+    /**
+     * Returns whether the specified key might have been added to the filter.
+     *
+     * @param key the key to test
+     * @return false if the key was definitely never added, true if it might have been
+     */
+    @Override
+    public synchronized boolean mightContain(K key) {
+        long hash = FilterHashing.hash(key);
+        for (Table table : this.tables) {
+            if (table.contains(hash)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Removes one fingerprint of the specified key from the filter.
+     *
+     * @param key the key to remove, which must have been added before
+     * @return true if a fingerprint was removed
+     */
+    @Override
+    public synchronized boolean remove(K key) {
+        long hash = FilterHashing.hash(key);
+        for (Table table : this.tables) {
+            if (table.delete(hash)) {
+                this.size--;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns true, since a cuckoo filter deletes fingerprints.
+     *
+     * @return true
+     */
+    @Override
+    public boolean supportsRemoval() {
+        return true;
+    }
+
+    /**
+     * Returns the number of fingerprints held by the filter.
+     *
+     * @return the number of keys
+     */
+    @Override
+    public synchronized long size() {
+        return this.size;
+    }
+
+    /**
+     * Returns the probability that an absent key is reported as present. A
+     * lookup compares the key against every occupied slot of its two candidate
+     * buckets in every table, and each comparison matches by chance with
+     * probability 2<sup>-16</sup>.
+     *
+     * @return the expected false positive rate between 0 and 1
+     */
+    @Override
+    public synchronized double expectedFalsePositiveRate() {
+        double trueNegative = 1.0d;
+        for (Table table : this.tables) {
+            double comparedSlots = 2.0d * BUCKET_SIZE * table.loadFactor();
+            trueNegative *= Math.pow(1.0d - 1.0d / ((1 << FINGERPRINT_BITS) - 1), comparedSlots);
+        }
+        return 1.0d - trueNegative;
+    }
+
+    /**
+     * Returns the number of tables the filter has grown to.
+     *
+     * @return the number of tables
+     */
+    public synchronized int getTableCount() {
+        return this.tables.size();
+    }
+
+    /**
+     * A single cuckoo hash table of fingerprints using partial-key cuckoo
+     * hashing: the alternate bucket of a fingerprint is derived from the
+     * fingerprint alone, so entries can be relocated without the original key.
+     * A fingerprint that cannot be placed after the maximum number of kicks is
+     * parked in a single victim slot, and the table then reports itself full.
+     */
+    private static final class Table {
+
+        private final short[] slots;
+
+        private final int bucketMask;
+
+        private int occupied;
+
+        private short victimFingerprint;
+
+        private int victimBucket;
+
+        Table(long minimumBuckets) {
+            int buckets = 1;
+            while (buckets < minimumBuckets && buckets < (1 << 28)) {
+                buckets <<= 1;
+            }
+            this.slots = new short[buckets * BUCKET_SIZE];
+            this.bucketMask = buckets - 1;
+        }
+
+        int bucketCount() {
+            return this.bucketMask + 1;
+        }
+
+        double loadFactor() {
+            return (double) this.occupied / this.slots.length;
+        }
+
+        boolean insert(long hash) {
+            if (this.victimFingerprint != 0) {
+                return false;
+            }
+
+            short fingerprint = fingerprint(hash);
+            int first = firstBucket(hash);
+            int second = alternateBucket(first, fingerprint);
+
+            if (insertInto(first, fingerprint) || insertInto(second, fingerprint)) {
+                return true;
+            }
+
+            // Both buckets are full: evict a random resident and move it to its alternate bucket
+            int bucket = ThreadLocalRandom.current().nextBoolean() ? first : second;
+            for (int kick = 0; kick < MAX_KICKS; kick++) {
+                int slot = bucket * BUCKET_SIZE + ThreadLocalRandom.current().nextInt(BUCKET_SIZE);
+                short displaced = this.slots[slot];
+                this.slots[slot] = fingerprint;
+                fingerprint = displaced;
+
+                bucket = alternateBucket(bucket, fingerprint);
+                if (insertInto(bucket, fingerprint)) {
+                    return true;
+                }
+            }
+
+            this.victimFingerprint = fingerprint;
+            this.victimBucket = bucket;
+            return true;
+        }
+
+        boolean contains(long hash) {
+            short fingerprint = fingerprint(hash);
+            int first = firstBucket(hash);
+            int second = alternateBucket(first, fingerprint);
+            return indexOf(first, fingerprint) >= 0 || indexOf(second, fingerprint) >= 0
+                    || isVictim(fingerprint, first, second);
+        }
+
+        boolean delete(long hash) {
+            short fingerprint = fingerprint(hash);
+            int first = firstBucket(hash);
+            int second = alternateBucket(first, fingerprint);
+
+            int slot = indexOf(first, fingerprint);
+            if (slot < 0) {
+                slot = indexOf(second, fingerprint);
+            }
+            if (slot >= 0) {
+                this.slots[slot] = 0;
+                this.occupied--;
+                reinsertVictim();
+                return true;
+            }
+
+            if (isVictim(fingerprint, first, second)) {
+                this.victimFingerprint = 0;
+                return true;
+            }
+            return false;
+        }
+
+        private boolean isVictim(short fingerprint, int first, int second) {
+            return this.victimFingerprint == fingerprint
+                    && (this.victimBucket == first || this.victimBucket == second);
+        }
+
+        private void reinsertVictim() {
+            short fingerprint = this.victimFingerprint;
+            if (fingerprint != 0 && (insertInto(this.victimBucket, fingerprint)
+                    || insertInto(alternateBucket(this.victimBucket, fingerprint), fingerprint))) {
+                this.victimFingerprint = 0;
+            }
+        }
+
+        private boolean insertInto(int bucket, short fingerprint) {
+            int start = bucket * BUCKET_SIZE;
+            for (int slot = start; slot < start + BUCKET_SIZE; slot++) {
+                if (this.slots[slot] == 0) {
+                    this.slots[slot] = fingerprint;
+                    this.occupied++;
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private int indexOf(int bucket, short fingerprint) {
+            int start = bucket * BUCKET_SIZE;
+            for (int slot = start; slot < start + BUCKET_SIZE; slot++) {
+                if (this.slots[slot] == fingerprint) {
+                    return slot;
+                }
+            }
+            return -1;
+        }
+
+        private int firstBucket(long hash) {
+            return (int) hash & this.bucketMask;
+        }
+
+        private int alternateBucket(int bucket, short fingerprint) {
+            return (bucket ^ (int) FilterHashing.mix(fingerprint)) & this.bucketMask;
+        }
+
+        private static short fingerprint(long hash) {
+            short fingerprint = (short) (hash >>> (64 - FINGERPRINT_BITS));
+            // Zero marks an empty slot
+            return fingerprint == 0 ? 1 : fingerprint;
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package org.swiftcache.membershipfilter;
+
+import org.swiftcache.utils.CompactKey;
+
+/**
+ * Hashing helpers shared by the membership filters. Keys are reduced to a
+ * well-mixed 64-bit hash. Strings and other character sequences, longs and
+ * {@link CompactKey}s are hashed from their full content, so keys whose
+ * 32-bit hash codes collide still get distinct hashes. Other keys are hashed
+ * from {@link Object#hashCode()}, so keys with equal hash codes always share
+ * a hash, and a filter cannot tell them apart.
+ */
+final class FilterHashing {
+
+    private FilterHashing() {
+    }
+
+    /**
+     * Returns a 64-bit hash of the key with all bits well mixed.
+     *
+     * @param key the key to hash
+     * @return the mixed hash
+     */
+    static long hash(Object key) {
+        if (key instanceof CharSequence) {
+            return mix(hashChars((CharSequence) key));
+        }
+        if (key instanceof Long) {
+            return mix((Long) key * 0x9E3779B97F4A7C15L);
+        }
+        if (key instanceof CompactKey) {
+            return mix(((CompactKey) key).fingerprint());
+        }
+        long h = key.hashCode() * 0x9E3779B97F4A7C15L;
+        return mix(h ^ (h >>> 32));
+    }
+
+    /**
+     * Returns the 64-bit FNV-1a hash of the characters.
+     */
+    private static long hashChars(CharSequence chars) {
+        long h = 0xCBF29CE484222325L;
+        for (int i = 0; i < chars.length(); i++) {
+            h = (h ^ chars.charAt(i)) * 0x100000001B3L;
+        }
+        return h;
+    }
+
+    /**
+     * Applies the MurmurHash3 64-bit finalizer to the value.
+     *
+     * @param value the value to mix
+     * @return the mixed value
+     */
+    static long mix(long value) {
+        long h = value;
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
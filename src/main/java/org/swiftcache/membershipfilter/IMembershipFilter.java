@@ -0,0 +1,70 @@
+package org.swiftcache.membershipfilter;
+
+/**
+ * Interface representing a probabilistic set of keys that can tell with
+ * certainty that a key was never added, at the cost of occasionally claiming
+ * that an absent key might be present (a false positive).
+ * <p>
+ * A filter placed in front of a repository lets reads of keys that definitely
+ * do not exist skip the repository entirely. For that to be safe the filter
+ * must have seen every key present in the repository, either through bulk
+ * warm-up or through the writes made via the cache.
+ *
+ * @param <K> the type of keys maintained by this filter
+ */
+public interface IMembershipFilter<K> {
+
+    /**
+     * Adds the specified key to the filter.
+     *
+     * @param key the key to add
+     */
+    void add(K key);
+
+    /**
+     * Returns whether the specified key might have been added to the filter.
+     *
+     * @param key the key to test
+     * @return false if the key was definitely never added, true if it might have been
+     */
+    boolean mightContain(K key);
+
+    /**
+     * Removes the specified key from the filter, if the filter supports
+     * deletion. Only keys that were previously added may be removed, removing
+     * any other key can cause false negatives. The default implementation does
+     * not support deletion and keeps the key.
+     *
+     * @param key the key to remove
+     * @return true if the key was removed, false if it was not found or deletion is not supported
+     */
+    default boolean remove(K key) {
+        return false;
+    }
+
+    /**
+     * Returns whether {@link #remove(Object)} deletes keys. Callers of a
+     * deletable filter must pair every removal with a prior addition of the
+     * same key. The default implementation returns false.
+     *
+     * @return true if the filter supports deletion
+     */
+    default boolean supportsRemoval() {
+        return false;
+    }
+
+    /**
+     * Returns the number of keys currently held by the filter.
+     *
+     * @return the approximate number of keys
+     */
+    long size();
+
+    /**
+     * Returns the probability that {@link #mightContain(Object)} returns true
+     * for a key that was never added, given the keys currently held.
+     *
+     * @return the expected false positive rate between 0 and 1
+     */
+    double expectedFalsePositiveRate();
+}
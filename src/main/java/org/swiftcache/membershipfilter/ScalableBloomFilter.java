@@ -0,0 +1,208 @@
+package org.swiftcache.membershipfilter;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * A Bloom filter that grows as keys are added while keeping its overall false
+ * positive rate bounded (a scalable Bloom filter). The filter is made of
+ * slices: once the current slice holds the number of keys it was sized for, a
+ * new slice twice as large and with half the false positive rate is appended.
+ * The false positive rates of all slices form a geometric series, so their
+ * sum never exceeds the configured target.
+ * <p>
+ * Lookups and insertions are lock-free. Keys cannot be removed.
+ *
+ * @param <K> the type of keys maintained by this filter
+ */
+public class ScalableBloomFilter<K> implements IMembershipFilter<K> {
+
+    private static final double TIGHTENING_RATIO = 0.5d;
+
+    private static final int GROWTH_FACTOR = 2;
+
+    private final List<Slice> slices;
+
+    /**
+     * Constructs a new ScalableBloomFilter.
+     *
+     * @param expectedInsertions the number of keys the first slice is sized for
+     * @param falsePositiveRate the target false positive rate of the whole filter
+     */
+    public ScalableBloomFilter(long expectedInsertions, double falsePositiveRate) {
+        if (expectedInsertions <= 0) {
+            throw new IllegalArgumentException("expectedInsertions must be positive: " + expectedInsertions);
+        }
+        if (falsePositiveRate <= 0 || falsePositiveRate >= 1) {
+            throw new IllegalArgumentException("falsePositiveRate must be between 0 and 1: " + falsePositiveRate);
+        }
+
+        this.slices = new CopyOnWriteArrayList<>();
+        this.slices.add(new Slice(expectedInsertions, falsePositiveRate * (1 - TIGHTENING_RATIO)));
+    }
+
+    /**
+     * Adds the specified key to the filter, appending a new slice if the
+     * current one is full. Keys that might already be present are not added
+     * again, so they do not consume capacity.
+     *
+     * @param key the key to add
+     */
+    @Override
+    public void add(K key) {
+        long hash = FilterHashing.hash(key);
+        if (mightContain(hash)) {
+            return;
+        }
+
+        Slice slice = currentSlice();
+        if (slice.count.get() >= slice.capacity) {
+            slice = grow(slice);
+        }
+        slice.add(hash);
+    }
+
+    /**
+     * Returns whether the specified key might have been added to the filter.
+     *
+     * @param key the key to test
+     * @return false if the key was definitely never added, true if it might have been
+     */
+    @Override
+    public boolean mightContain(K key) {
+        return mightContain(FilterHashing.hash(key));
+    }
+
+    /**
+     * Returns the number of keys added to the filter.
+     *
+     * @return the number of keys
+     */
+    @Override
+    public long size() {
+        long size = 0;
+        for (Slice slice : this.slices) {
+            size += slice.count.get();
+        }
+        return size;
+    }
+
+    /**
+     * Returns the probability that an absent key is reported as present,
+     * computed from the number of keys actually held by each slice.
+     *
+     * @return the expected false positive rate between 0 and 1
+     */
+    @Override
+    public double expectedFalsePositiveRate() {
+        double trueNegative = 1.0d;
+        for (Slice slice : this.slices) {
+            trueNegative *= 1.0d - slice.falsePositiveRate();
+        }
+        return 1.0d - trueNegative;
+    }
+
+    /**
+     * Returns the number of slices the filter has grown to.
+     *
+     * @return the number of slices
+     */
+    public int getSliceCount() {
+        return this.slices.size();
+    }
+
+    private boolean mightContain(long hash) {
+        for (Slice slice : this.slices) {
+            if (slice.mightContain(hash)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private Slice currentSlice() {
+        return this.slices.get(this.slices.size() - 1);
+    }
+
+    private synchronized Slice grow(Slice full) {
+        Slice current = currentSlice();
+        if (current != full) {
+            // Another thread already appended a slice
+            return current;
+        }
+
+        Slice next = new Slice(full.capacity * GROWTH_FACTOR, full.targetFalsePositiveRate * TIGHTENING_RATIO);
+        this.slices.add(next);
+        return next;
+    }
+
+    /**
+     * A fixed-size Bloom filter sized for a number of keys and a false
+     * positive rate, using double hashing to derive its bit positions.
+     */
+    private static final class Slice {
+
+        private final long capacity;
+
+        private final double targetFalsePositiveRate;
+
+        private final long bitCount;
+
+        private final int hashCount;
+
+        private final AtomicLongArray bits;
+
+        private final AtomicLong count;
+
+        Slice(long capacity, double targetFalsePositiveRate) {
+            this.capacity = capacity;
+            this.targetFalsePositiveRate = targetFalsePositiveRate;
+
+            double ln2 = Math.log(2);
+            long optimalBits = (long) Math.ceil(-capacity * Math.log(targetFalsePositiveRate) / (ln2 * ln2));
+            this.bitCount = Math.max(64, (optimalBits + 63) & ~63L);
+            this.hashCount = Math.max(1, (int) Math.round((double) this.bitCount / capacity * ln2));
+            this.bits = new AtomicLongArray((int) (this.bitCount >>> 6));
+            this.count = new AtomicLong();
+        }
+
+        void add(long hash) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < this.hashCount; i++) {
+                long bit = index(h1 + i * h2);
+                int word = (int) (bit >>> 6);
+                long mask = 1L << bit;
+
+                long current;
+                do {
+                    current = this.bits.get(word);
+                } while ((current & mask) == 0 && !this.bits.compareAndSet(word, current, current | mask));
+            }
+            this.count.incrementAndGet();
+        }
+
+        boolean mightContain(long hash) {
+            int h1 = (int) hash;
+            int h2 = (int) (hash >>> 32);
+            for (int i = 0; i < this.hashCount; i++) {
+                long bit = index(h1 + i * h2);
+                if ((this.bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        double falsePositiveRate() {
+            double fill = 1.0d - Math.exp(-(double) this.hashCount * this.count.get() / this.bitCount);
+            return Math.pow(fill, this.hashCount);
+        }
+
+        private long index(int combinedHash) {
+            return (combinedHash & 0xFFFFFFFFL) % this.bitCount;
+        }
+    }
+}
@@ -24,4 +24,34 @@ public interface IReadingPolicy<K, V> {
      * @return the value associated with the specified key, or null if not found
      */
     V read(Map<K, V> cacheMap, K key, ICacheRepository<K, V> repository);
+
+    /**
+     * Notifies the policy that a value has been written to the cache for the
+     * specified key, so it can drop any state that no longer holds. The
+     * default implementation does nothing.
+     *
+     * @param key the key that was written
+     */
+    default void onPut(K key) {
+    }
+
+    /**
+     * Notifies the policy that the entry for the specified key has been
+     * removed from the cache and the repository. The default implementation
+     * does nothing.
+     *
+     * @param key the key that was removed
+     */
+    default void onRemove(K key) {
+    }
+
+    /**
+     * Registers a listener to be notified of every value this policy loads
+     * from the repository, along with how long the load took. The default
+     * implementation ignores the listener, for policies that never load.
+     *
+     * @param listener the listener to notify, or null to stop notifying
+     */
+    default void setLoadCostListener(LoadCostListener<K, V> listener) {
+    }
 }
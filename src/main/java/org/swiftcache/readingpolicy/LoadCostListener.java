@@ -0,0 +1,24 @@
+package org.swiftcache.readingpolicy;
+
+/**
+ * A listener notified by a reading policy each time it loads a value from the
+ * repository, with the time the load took. Eviction strategies implementing
+ * this interface are registered with the reading policy by the cache, so they
+ * can favor entries that are expensive to load again.
+ *
+ * @param <K> the type of keys being loaded
+ * @param <V> the type of values being loaded
+ */
+@FunctionalInterface
+public interface LoadCostListener<K, V> {
+
+    /**
+     * Called after a value has been loaded from the repository and stored in
+     * the cache map, before the access is recorded by the eviction strategy.
+     *
+     * @param key the key that was loaded
+     * @param value the value that was loaded
+     * @param loadNanos how long the repository took to return the value, in nanoseconds
+     */
+    void onLoad(K key, V value, long loadNanos);
+}
@@ -0,0 +1,89 @@
+package org.swiftcache.readingpolicy;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A small bounded table of keys that are known to be absent from the
+ * repository. Each key is remembered for a fixed time to live, and once the
+ * table is full the oldest key is discarded first.
+ * <p>
+ * The table is kept apart from the cache map so that negative entries never
+ * take capacity away from real values and never reach the eviction queue.
+ * Only the key and its expiry time are stored.
+ *
+ * @param <K> the type of keys maintained by this table
+ */
+final class NegativeCache<K> {
+
+    private final long ttlNanos;
+
+    private final Map<K, Long> expiries;
+
+    /**
+     * Constructs a new NegativeCache.
+     *
+     * @param ttlMillis how long a key is remembered as absent, in milliseconds
+     * @param maxEntries the maximum number of keys remembered at once
+     */
+    NegativeCache(long ttlMillis, final int maxEntries) {
+        this.ttlNanos = ttlMillis * 1_000_000L;
+        this.expiries = new LinkedHashMap<K, Long>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Long> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns whether the key is currently known to be absent. Expired keys
+     * are dropped on lookup.
+     *
+     * @param key the key to look up
+     * @return true if the key was recorded as absent and has not expired
+     */
+    synchronized boolean contains(K key) {
+        Long expiry = this.expiries.get(key);
+        if (expiry == null) {
+            return false;
+        }
+
+        if (System.nanoTime() - expiry >= 0) {
+            this.expiries.remove(key);
+            return false;
+        }
+
+        return true;
+    }
+
+    /**
+     * Records the key as absent for the configured time to live.
+     *
+     * @param key the key to record
+     */
+    synchronized void add(K key) {
+        // Re-inserting moves the key to the tail, so it becomes the last one to be discarded
+        this.expiries.remove(key);
+        this.expiries.put(key, System.nanoTime() + this.ttlNanos);
+    }
+
+    /**
+     * Forgets the key, typically because a value has been written for it.
+     *
+     * @param key the key to forget
+     */
+    synchronized void remove(K key) {
+        this.expiries.remove(key);
+    }
+
+    /**
+     * Returns the number of keys currently recorded, including expired keys
+     * that have not been looked up since they expired.
+     *
+     * @return the number of recorded keys
+     */
+    synchronized int size() {
+        return this.expiries.size();
+    }
+}
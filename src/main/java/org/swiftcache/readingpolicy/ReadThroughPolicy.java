@@ -1,8 +1,11 @@
 package org.swiftcache.readingpolicy;
 
 import org.swiftcache.cacherepository.ICacheRepository;
+import org.swiftcache.membershipfilter.IMembershipFilter;
+import org.swiftcache.utils.VersionedMap;
 
 import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -11,6 +14,26 @@ import java.util.logging.Logger;
  * policy. This policy attempts to read a value from the cache first, and if
  * the value is not present, it retrieves it from the underlying data source
  * (repository) and updates the cache.
+ * <p>
+ * Optionally, keys that the repository does not know are remembered for a
+ * short time (negative caching), so repeated lookups of missing keys do not
+ * reach the repository every time. A membership filter can also be placed in
+ * front of the repository, so keys that definitely do not exist never reach
+ * it at all. The filter learns keys from puts, loads and
+ * {@link #warmUp(Iterable)}, which must be given every key already present in
+ * the repository. A key is only added if the filter does not report it yet,
+ * so a key put many times holds a single fingerprint. With a filter that
+ * supports deletion, a removed key is deleted from the filter if the filter
+ * reports it. Like any deletable filter, this may take out the fingerprint of
+ * another key that shares it, which must then be read past the filter until
+ * it is put or loaded again: keys sharing a fingerprint are rare, as the
+ * filters hash strings, longs and {@code CompactKey}s from their content, but
+ * other keys whose hash codes collide always share one.
+ * <p>
+ * If a {@link LoadCostListener} is registered, every repository load is timed
+ * and reported to it. When the cache map is a {@link VersionedMap}, a loaded
+ * value is only cached if the key was not written or removed while it was
+ * being loaded, so a slow load never overwrites a newer put.
  *
  * @param <K> the type of keys maintained by this reading policy
  * @param <V> the type of values maintained by this reading policy
@@ -19,10 +42,58 @@ public class ReadThroughPolicy<K, V> implements IReadingPolicy<K, V> {
 
     private static final Logger logger = Logger.getLogger(ReadThroughPolicy.class.getName());
 
+    private final NegativeCache<K> negativeCache;
+
+    private final IMembershipFilter<K> membershipFilter;
+
+    private final LongAdder filteredLookups;
+
+    private final LongAdder filterFalsePositives;
+
+    private volatile LoadCostListener<K, V> loadCostListener;
+
+    /**
+     * Constructs a new ReadThroughPolicy without negative caching.
+     */
+    public ReadThroughPolicy() {
+        this(0, 0);
+    }
+
+    /**
+     * Constructs a new ReadThroughPolicy with negative caching. Negative
+     * caching is disabled if either argument is not positive.
+     *
+     * @param negativeCacheTtlMillis how long a key missing from the repository is remembered, in milliseconds
+     * @param maxNegativeEntries the maximum number of missing keys remembered at once
+     */
+    public ReadThroughPolicy(long negativeCacheTtlMillis, int maxNegativeEntries) {
+        this(negativeCacheTtlMillis, maxNegativeEntries, null);
+    }
+
+    /**
+     * Constructs a new ReadThroughPolicy with negative caching and a membership
+     * filter guarding the repository. Negative caching is disabled if either
+     * of its arguments is not positive.
+     *
+     * @param negativeCacheTtlMillis how long a key missing from the repository is remembered, in milliseconds
+     * @param maxNegativeEntries the maximum number of missing keys remembered at once
+     * @param membershipFilter the filter of keys present in the repository, or null for none
+     */
+    public ReadThroughPolicy(long negativeCacheTtlMillis, int maxNegativeEntries,
+                             IMembershipFilter<K> membershipFilter) {
+        this.negativeCache = negativeCacheTtlMillis > 0 && maxNegativeEntries > 0
+                ? new NegativeCache<>(negativeCacheTtlMillis, maxNegativeEntries)
+                : null;
+        this.membershipFilter = membershipFilter;
+        this.filteredLookups = new LongAdder();
+        this.filterFalsePositives = new LongAdder();
+    }
+
     /**
      * Reads the value associated with the specified key. If the value is not
      * found in the cache, it retrieves it from the specified repository and
-     * updates the cache.
+     * updates the cache. Keys recently found missing from the repository are
+     * answered with null without asking the repository again.
      *
      * @param cacheMap the cache map containing the entries
      * @param key the key whose associated value is to be read
@@ -34,12 +105,51 @@ public class ReadThroughPolicy<K, V> implements IReadingPolicy<K, V> {
         V value = cacheMap.get(key);
 
         if (value == null) {
+            if (this.negativeCache != null && this.negativeCache.contains(key)) {
+                logger.log(Level.INFO, "Negative hit for key: {0}", key);
+
+                return null;
+            }
+
+            if (this.membershipFilter != null && !this.membershipFilter.mightContain(key)) {
+                this.filteredLookups.increment();
+
+                logger.log(Level.INFO, "Key: {0} not in membership filter, data source skipped", key);
+
+                return null;
+            }
+
+            LoadCostListener<K, V> listener = this.loadCostListener;
+            long start = listener != null ? System.nanoTime() : 0;
+            long version = VersionedMap.versionOf(cacheMap, key);
             value = repository.get(key);
 
             if (value != null) {
-                cacheMap.put(key, value);
+                if (!VersionedMap.installIfUnchanged(cacheMap, key, version, value)) {
+                    // The key was written or deleted during the load, so the loaded value may be stale
+                    V current = cacheMap.get(key);
+
+                    logger.log(Level.INFO, "Key: {0} changed during load, loaded value not cached", key);
+
+                    return current != null ? current : value;
+                }
+                if (this.membershipFilter != null) {
+                    addToFilter(key);
+                }
+                if (listener != null) {
+                    listener.onLoad(key, value, System.nanoTime() - start);
+                }
 
                 logger.log(Level.INFO, "Read miss for key: {0}, fetched from data source", key);
+            } else {
+                if (this.membershipFilter != null) {
+                    this.filterFalsePositives.increment();
+                }
+                if (this.negativeCache != null) {
+                    this.negativeCache.add(key);
+
+                    logger.log(Level.INFO, "Key: {0} missing from data source, cached as absent", key);
+                }
             }
 
             return value;
@@ -49,4 +159,107 @@ public class ReadThroughPolicy<K, V> implements IReadingPolicy<K, V> {
 
         return value;
     }
+
+    /**
+     * Forgets that the key was missing from the repository, since a value
+     * has just been written for it.
+     *
+     * @param key the key that was written
+     */
+    @Override
+    public void onPut(K key) {
+        if (this.negativeCache != null) {
+            this.negativeCache.remove(key);
+        }
+        if (this.membershipFilter != null) {
+            addToFilter(key);
+        }
+    }
+
+    /**
+     * Removes the key from the membership filter, if the filter supports
+     * deletion and reports the key, since the key no longer exists in the
+     * repository.
+     *
+     * @param key the key that was removed
+     */
+    @Override
+    public void onRemove(K key) {
+        if (this.membershipFilter != null && this.membershipFilter.supportsRemoval()
+                && this.membershipFilter.mightContain(key)) {
+            this.membershipFilter.remove(key);
+        }
+    }
+
+    /**
+     * Registers a listener to be notified of every value loaded from the
+     * repository, with the time the load took.
+     *
+     * @param listener the listener to notify, or null to stop notifying
+     */
+    @Override
+    public void setLoadCostListener(LoadCostListener<K, V> listener) {
+        this.loadCostListener = listener;
+    }
+
+    /**
+     * Adds keys already present in the repository to the membership filter.
+     * Every key of the repository must be added before the policy serves
+     * reads, otherwise existing keys missing from the filter are reported as
+     * absent. Does nothing if the policy has no membership filter.
+     *
+     * @param keys the keys present in the repository
+     */
+    public void warmUp(Iterable<? extends K> keys) {
+        if (this.membershipFilter == null) {
+            return;
+        }
+
+        long count = 0;
+        for (K key : keys) {
+            addToFilter(key);
+            count++;
+        }
+
+        logger.log(Level.INFO, "Membership filter warmed up with {0} keys", count);
+    }
+
+    /**
+     * Returns the membership filter guarding the repository.
+     *
+     * @return the membership filter, or null if the policy has none
+     */
+    public IMembershipFilter<K> getMembershipFilter() {
+        return this.membershipFilter;
+    }
+
+    /**
+     * Returns the observed false positive rate of the membership filter: the
+     * fraction of lookups for keys missing from the repository that the
+     * filter failed to reject.
+     *
+     * @return the observed false positive rate, or 0 if no missing key has been looked up
+     */
+    public double getObservedFalsePositiveRate() {
+        long falsePositives = this.filterFalsePositives.sum();
+        long negatives = falsePositives + this.filteredLookups.sum();
+        return negatives == 0 ? 0.0d : (double) falsePositives / negatives;
+    }
+
+    private void addToFilter(K key) {
+        // A key the filter already reports needs no second fingerprint, which would outlive its removal
+        if (!this.membershipFilter.mightContain(key)) {
+            this.membershipFilter.add(key);
+        }
+    }
+
+    /**
+     * Returns the number of keys currently remembered as missing from the
+     * repository.
+     *
+     * @return the number of negative entries, or 0 if negative caching is disabled
+     */
+    public int getNegativeCacheSize() {
+        return this.negativeCache != null ? this.negativeCache.size() : 0;
+    }
 }
@@ -1,8 +1,11 @@
 package org.swiftcache.readingpolicy;
 
 import org.swiftcache.cacherepository.ICacheRepository;
+import org.swiftcache.utils.RepositoryExecutors;
+import org.swiftcache.utils.VersionedMap;
 
 import java.util.Map;
+import java.util.concurrent.Executor;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -10,7 +13,9 @@ import java.util.logging.Logger;
  * An implementation of the IReadingPolicy interface that uses the Refresh Ahead
  * policy. This policy retrieves a value from the cache and initiates an asynchronous
  * refresh of that value from the underlying data source (repository) to keep the cache
- * up-to-date.
+ * up-to-date. Refreshes run on the shared repository executor unless another
+ * executor is given. When the cache map is a {@link VersionedMap}, a refreshed
+ * value is dropped if the key was written or removed after it was read.
  *
  * @param <K> the type of keys maintained by this reading policy
  * @param <V> the type of values maintained by this reading policy
@@ -19,9 +24,29 @@ public class RefreshAheadPolicy<K, V> implements IReadingPolicy<K, V> {
 
     private static final Logger logger = Logger.getLogger(RefreshAheadPolicy.class.getName());
 
+    private final Executor executor;
+
+    /**
+     * Constructs a new RefreshAheadPolicy that refreshes values on the shared
+     * repository executor.
+     */
+    public RefreshAheadPolicy() {
+        this(null);
+    }
+
+    /**
+     * Constructs a new RefreshAheadPolicy that refreshes values on the
+     * specified executor.
+     *
+     * @param executor the executor running the refreshes, or null for the shared repository executor
+     */
+    public RefreshAheadPolicy(Executor executor) {
+        this.executor = executor != null ? executor : RepositoryExecutors.shared();
+    }
+
     /**
-     * Reads the value associated with the specified key from the cache. If the value is
-     * found, it initiates a background thread to refresh the value from the repository
+     * Reads the value associated with the specified key from the cache and
+     * initiates a background task to refresh the value from the repository
      * asynchronously.
      *
      * @param cacheMap the cache map containing the entries
@@ -31,15 +56,19 @@ public class RefreshAheadPolicy<K, V> implements IReadingPolicy<K, V> {
      */
     @Override
     public V read(final Map<K, V> cacheMap, final K key, final ICacheRepository<K, V> repository) {
+        final long version = VersionedMap.versionOf(cacheMap, key);
         V value = cacheMap.get(key);
 
-        // Start a background thread to refresh the value asynchronously
-        new Thread(() -> {
+        // Refresh the value asynchronously in the background
+        this.executor.execute(() -> {
             V freshValue = repository.get(key);
-            cacheMap.put(key, freshValue);
+            if (freshValue == null || !VersionedMap.installIfUnchanged(cacheMap, key, version, freshValue)) {
+                logger.log(Level.INFO, "Refresh of key: {0} discarded, key missing or changed meanwhile", key);
+                return;
+            }
 
             logger.log(Level.INFO, "Value for key: {0} refreshed in background", key);
-        }).start();
+        });
 
         return value;
     }
@@ -0,0 +1,212 @@
+package org.swiftcache.simulator;
+
+import org.swiftcache.cache.SwiftCacheConfig;
+import org.swiftcache.evictionstrategy.FIFOEvictionStrategy;
+import org.swiftcache.evictionstrategy.GDSFEvictionStrategy;
+import org.swiftcache.evictionstrategy.IEvictionStrategy;
+import org.swiftcache.evictionstrategy.LFUEvictionStrategy;
+import org.swiftcache.evictionstrategy.LRUEvictionStrategy;
+import org.swiftcache.evictionstrategy.SIEVEEvictionStrategy;
+import org.swiftcache.evictionstrategy.SampledEvictionStrategy;
+
+import java.io.BufferedInputStream;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Replays access traces against eviction strategies offline, so that the
+ * effect of a different strategy or {@code maxSize} can be measured before
+ * it is rolled out.
+ * <p>
+ * Every strategy is simulated at every requested capacity. The simulations are
+ * independent of each other and run in parallel. Each access follows the same
+ * steps as {@link org.swiftcache.cache.SwiftCache}: a hit updates the eviction
+ * queue, a miss evicts when the cache is full, inserts the key and then updates
+ * the eviction queue.
+ */
+public class CacheSimulator {
+
+    private static final Logger logger = Logger.getLogger(CacheSimulator.class.getName());
+
+    private final Map<String, Supplier<IEvictionStrategy<Long, Long>>> strategies;
+
+    private final long[] capacities;
+
+    private final int parallelism;
+
+    /**
+     * Constructs a new CacheSimulator that runs one simulation per strategy
+     * and capacity, using one thread per available processor.
+     *
+     * @param strategies the strategies to simulate, keyed by their display name
+     * @param capacities the cache capacities to simulate
+     */
+    public CacheSimulator(Map<String, Supplier<IEvictionStrategy<Long, Long>>> strategies, long... capacities) {
+        this(strategies, Runtime.getRuntime().availableProcessors(), capacities);
+    }
+
+    /**
+     * Constructs a new CacheSimulator that runs one simulation per strategy
+     * and capacity.
+     *
+     * @param strategies the strategies to simulate, keyed by their display name
+     * @param parallelism the maximum number of simulations running at the same time
+     * @param capacities the cache capacities to simulate
+     */
+    public CacheSimulator(Map<String, Supplier<IEvictionStrategy<Long, Long>>> strategies,
+                          int parallelism, long... capacities) {
+        if (parallelism <= 0) {
+            throw new IllegalArgumentException("parallelism must be positive: " + parallelism);
+        }
+        for (long capacity : capacities) {
+            if (capacity <= 0) {
+                throw new IllegalArgumentException("capacity must be positive: " + capacity);
+            }
+        }
+
+        this.strategies = new LinkedHashMap<>(strategies);
+        this.capacities = capacities.clone();
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Returns every eviction strategy shipped with SwiftCache, keyed by the
+     * name used in {@link SwiftCacheConfig}.
+     *
+     * @return the built-in strategies
+     */
+    public static Map<String, Supplier<IEvictionStrategy<Long, Long>>> builtInStrategies() {
+        Map<String, Supplier<IEvictionStrategy<Long, Long>>> strategies = new LinkedHashMap<>();
+        strategies.put(SwiftCacheConfig.FIFO_EVICTION_STRATEGY, FIFOEvictionStrategy::new);
+        strategies.put(SwiftCacheConfig.LRU_EVICTION_STRATEGY, LRUEvictionStrategy::new);
+        strategies.put(SwiftCacheConfig.SIEVE_EVICTION_STRATEGY, SIEVEEvictionStrategy::new);
+        strategies.put(SwiftCacheConfig.LFU_EVICTION_STRATEGY, LFUEvictionStrategy::new);
+        strategies.put(SwiftCacheConfig.GDSF_EVICTION_STRATEGY, GDSFEvictionStrategy::new);
+        strategies.put(SwiftCacheConfig.SAMPLED_EVICTION_STRATEGY, SampledEvictionStrategy::new);
+
+        return strategies;
+    }
+
+    /**
+     * Replays the trace against every strategy at every capacity.
+     *
+     * @param trace the keys to access, in order
+     * @return one result per strategy and capacity, grouped by strategy and
+     * ordered by capacity as given to the constructor
+     */
+    public List<SimulationResult> run(final long[] trace) {
+        ExecutorService executor = Executors.newFixedThreadPool(this.parallelism);
+        try {
+            List<Future<SimulationResult>> futures = new ArrayList<>();
+            for (final Map.Entry<String, Supplier<IEvictionStrategy<Long, Long>>> strategy : this.strategies.entrySet()) {
+                for (final long capacity : this.capacities) {
+                    futures.add(executor.submit(() ->
+                            simulate(strategy.getKey(), strategy.getValue().get(), capacity, trace)));
+                }
+            }
+
+            List<SimulationResult> results = new ArrayList<>(futures.size());
+            for (Future<SimulationResult> future : futures) {
+                results.add(future.get());
+            }
+            return results;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Simulation interrupted", e);
+        } catch (ExecutionException e) {
+            throw new IllegalStateException("Simulation failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    /**
+     * Replays the trace against a single strategy at a single capacity.
+     *
+     * @param name the display name of the strategy
+     * @param strategy a fresh instance of the strategy to simulate
+     * @param capacity the cache capacity
+     * @param trace the keys to access, in order
+     * @return the result of the simulation
+     */
+    public static SimulationResult simulate(String name, IEvictionStrategy<Long, Long> strategy,
+                                            long capacity, long[] trace) {
+        Map<Long, Long> cacheMap = new HashMap<>();
+        Queue<Long> evictionQueue = new LinkedList<>();
+        long hits = 0;
+
+        long start = System.nanoTime();
+        for (long access : trace) {
+            Long key = access;
+            if (cacheMap.containsKey(key)) {
+                hits++;
+            } else {
+                if (cacheMap.size() >= capacity) {
+                    strategy.evict(cacheMap, evictionQueue);
+                }
+                cacheMap.put(key, key);
+            }
+            strategy.updateQueue(key, evictionQueue);
+        }
+        long elapsedNanos = System.nanoTime() - start;
+
+        SimulationResult result = new SimulationResult(name, capacity, hits, trace.length - hits, elapsedNanos);
+        logger.log(Level.INFO, "Simulated {0}", result);
+
+        return result;
+    }
+
+    /**
+     * Command line entry point. Usage:
+     * <pre>
+     * CacheSimulator [--binary] &lt;trace-file&gt; &lt;capacity&gt;...
+     * </pre>
+     * Prints the hit ratio curve and the replay throughput of every built-in
+     * eviction strategy.
+     *
+     * @param args the command line arguments
+     * @throws IOException if the trace cannot be read
+     */
+    public static void main(String[] args) throws IOException {
+        boolean binary = args.length > 0 && "--binary".equals(args[0]);
+        int offset = binary ? 1 : 0;
+        if (args.length - offset < 2) {
+            System.err.println("Usage: CacheSimulator [--binary] <trace-file> <capacity>...");
+            System.exit(2);
+            return;
+        }
+
+        // Per-access logging of the strategies would dominate the measured throughput
+        Logger.getLogger("org.swiftcache").setLevel(Level.WARNING);
+
+        long[] trace;
+        try (InputStream inputStream = new BufferedInputStream(new FileInputStream(args[offset]))) {
+            trace = binary ? TraceReader.readBinary(inputStream) : TraceReader.readText(inputStream);
+        }
+
+        long[] capacities = new long[args.length - offset - 1];
+        for (int i = 0; i < capacities.length; i++) {
+            capacities[i] = Long.parseLong(args[offset + 1 + i]);
+        }
+
+        System.out.println("Replaying " + trace.length + " accesses");
+        for (SimulationResult result : new CacheSimulator(builtInStrategies(), capacities).run(trace)) {
+            System.out.println(result);
+        }
+    }
+}
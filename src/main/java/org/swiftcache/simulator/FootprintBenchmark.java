@@ -0,0 +1,186 @@
+package org.swiftcache.simulator;
+
+import org.swiftcache.cache.SwiftCache;
+import org.swiftcache.cache.SwiftCacheConfig;
+import org.swiftcache.cacherepository.ICacheRepository;
+import org.swiftcache.evictionstrategy.IEvictionStrategy;
+import org.swiftcache.evictionstrategy.LRUEvictionStrategy;
+import org.swiftcache.readingpolicy.SimpleReadPolicy;
+import org.swiftcache.utils.TriFunction;
+import org.swiftcache.utils.VersionedMap;
+import org.swiftcache.writingpolicy.WriteAlwaysPolicy;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Measures how many bytes of heap each cached entry costs, on top of its key
+ * and value, for the cache map alone and for caches with each built-in
+ * eviction strategy and optional feature.
+ * <p>
+ * Every configuration is filled with the same keys and values, which are
+ * allocated up front so they are not counted. The heap in use is measured
+ * after a full garbage collection before and after filling, so results are
+ * only meaningful with enough entries to rise above the noise of the
+ * collector, and on an otherwise idle JVM.
+ */
+public class FootprintBenchmark {
+
+    private static final int GC_ROUNDS = 4;
+
+    // Held on to, so the garbage collections of the benchmark do not reset its level
+    private static final Logger packageLogger = Logger.getLogger("org.swiftcache");
+
+    private final int entries;
+
+    private volatile Object retained;
+
+    /**
+     * Constructs a new FootprintBenchmark.
+     *
+     * @param entries the number of entries each configuration is filled with
+     */
+    public FootprintBenchmark(int entries) {
+        if (entries <= 0) {
+            throw new IllegalArgumentException("entries must be positive: " + entries);
+        }
+
+        this.entries = entries;
+    }
+
+    /**
+     * Measures every configuration.
+     *
+     * @return the bytes per entry of each configuration, keyed by its display name, in order
+     */
+    public Map<String, Double> run() {
+        final Long[] keys = new Long[this.entries];
+        final Long[] values = new Long[this.entries];
+        for (int i = 0; i < this.entries; i++) {
+            keys[i] = (long) i << 8; // Out of the range of the boxing cache
+            values[i] = (long) i << 8;
+        }
+
+        Map<String, Double> results = new LinkedHashMap<>();
+        results.put("VersionedMap", measure(() -> {
+            VersionedMap<Long, Long> map = new VersionedMap<>(this.entries);
+            for (int i = 0; i < keys.length; i++) {
+                map.put(keys[i], values[i]);
+            }
+            return map;
+        }));
+        results.put("VersionedMap (weighted)", measure(() -> {
+            VersionedMap<Long, Long> map = new VersionedMap<>(this.entries, (key, value) -> 1);
+            for (int i = 0; i < keys.length; i++) {
+                map.put(keys[i], values[i]);
+            }
+            return map;
+        }));
+
+        for (Map.Entry<String, Supplier<IEvictionStrategy<Long, Long>>> strategy
+                : CacheSimulator.builtInStrategies().entrySet()) {
+            results.put("SwiftCache " + strategy.getKey(), measure(() ->
+                    fill(new SwiftCacheConfig(this.entries, null, null, null), strategy.getValue().get(), keys, values)));
+        }
+
+        results.put("SwiftCache LRU, ordered key index", measure(() -> {
+            SwiftCacheConfig config = new SwiftCacheConfig(this.entries, null, null, null);
+            config.setOrderedKeyIndex(true);
+            return fill(config, new LRUEvictionStrategy<>(), keys, values);
+        }));
+        results.put("SwiftCache LRU, snapshot reads", measure(() -> {
+            SwiftCacheConfig config = new SwiftCacheConfig(this.entries, null, null, null);
+            config.setSnapshotReads(true);
+            return fill(config, new LRUEvictionStrategy<>(), keys, values);
+        }));
+
+        return results;
+    }
+
+    private SwiftCache<Long, Long> fill(SwiftCacheConfig config, IEvictionStrategy<Long, Long> strategy,
+                                        Long[] keys, Long[] values) {
+        SwiftCache<Long, Long> cache = new SwiftCache<>(config, strategy,
+                new WriteAlwaysPolicy<>(), new SimpleReadPolicy<>());
+        Map<Long, Long> batch = new LinkedHashMap<>();
+        for (int i = 0; i < keys.length; i++) {
+            batch.put(keys[i], values[i]);
+        }
+        cache.putAll(new NullRepository(), batch);
+        return cache;
+    }
+
+    /**
+     * Returns the heap retained by the structure the supplier builds,
+     * divided by the number of entries.
+     *
+     * @param builder builds and fills the structure to measure
+     * @return the bytes per entry
+     */
+    private double measure(Supplier<Object> builder) {
+        long before = usedMemory();
+        this.retained = builder.get();
+        long after = usedMemory();
+        this.retained = null;
+
+        return (double) (after - before) / this.entries;
+    }
+
+    private static long usedMemory() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < GC_ROUNDS; i++) {
+            System.gc();
+            try {
+                Thread.sleep(20);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Measures every configuration and prints the bytes per entry.
+     *
+     * @param args the number of entries, optional
+     */
+    public static void main(String[] args) {
+        int entries = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+
+        // Per-entry logging would leave garbage behind while measuring
+        packageLogger.setLevel(Level.WARNING);
+
+        System.out.println("Bytes per entry, excluding keys and values, with " + entries + " entries");
+        for (Map.Entry<String, Double> result : new FootprintBenchmark(entries).run().entrySet()) {
+            System.out.println(String.format("%-36s %8.1f", result.getKey(), result.getValue()));
+        }
+    }
+
+    /**
+     * A repository that stores nothing, so only the cache is measured.
+     */
+    private static final class NullRepository implements ICacheRepository<Long, Long> {
+
+        @Override
+        public Long get(Long key) {
+            return null;
+        }
+
+        @Override
+        public void put(Long key, Long value) {
+        }
+
+        @Override
+        public void remove(Long key) {
+        }
+
+        @Override
+        public <R> R executeWithCache(TriFunction<ICacheRepository<Long, Long>, Long, Long, R> operation,
+                                      Long key, Long value) {
+            return operation.apply(this, key, value);
+        }
+    }
+}
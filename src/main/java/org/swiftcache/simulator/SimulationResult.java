@@ -0,0 +1,105 @@
+package org.swiftcache.simulator;
+
+/**
+ * The outcome of replaying a trace against one eviction strategy at one
+ * cache capacity.
+ */
+public class SimulationResult {
+
+    private final String strategy;
+
+    private final long capacity;
+
+    private final long hits;
+
+    private final long misses;
+
+    private final long elapsedNanos;
+
+    /**
+     * Constructs a new SimulationResult.
+     *
+     * @param strategy the name of the simulated eviction strategy
+     * @param capacity the simulated cache capacity
+     * @param hits the number of accesses served from the cache
+     * @param misses the number of accesses that had to be loaded
+     * @param elapsedNanos the wall-clock time spent replaying the trace
+     */
+    public SimulationResult(String strategy, long capacity, long hits, long misses, long elapsedNanos) {
+        this.strategy = strategy;
+        this.capacity = capacity;
+        this.hits = hits;
+        this.misses = misses;
+        this.elapsedNanos = elapsedNanos;
+    }
+
+    /**
+     * Returns the name of the simulated eviction strategy.
+     *
+     * @return the strategy name
+     */
+    public String getStrategy() {
+        return this.strategy;
+    }
+
+    /**
+     * Returns the simulated cache capacity.
+     *
+     * @return the capacity
+     */
+    public long getCapacity() {
+        return this.capacity;
+    }
+
+    /**
+     * Returns the number of accesses served from the cache.
+     *
+     * @return the hit count
+     */
+    public long getHits() {
+        return this.hits;
+    }
+
+    /**
+     * Returns the number of accesses that missed the cache.
+     *
+     * @return the miss count
+     */
+    public long getMisses() {
+        return this.misses;
+    }
+
+    /**
+     * Returns the wall-clock time spent replaying the trace.
+     *
+     * @return the elapsed time in nanoseconds
+     */
+    public long getElapsedNanos() {
+        return this.elapsedNanos;
+    }
+
+    /**
+     * Returns the fraction of accesses served from the cache.
+     *
+     * @return the hit ratio between 0 and 1
+     */
+    public double getHitRatio() {
+        long accesses = this.hits + this.misses;
+        return accesses == 0 ? 0.0d : (double) this.hits / accesses;
+    }
+
+    /**
+     * Returns the replay throughput.
+     *
+     * @return the number of simulated accesses per second
+     */
+    public double getThroughput() {
+        return this.elapsedNanos == 0 ? 0.0d : (this.hits + this.misses) * 1_000_000_000.0d / this.elapsedNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("%-10s capacity=%-10d hitRatio=%.4f throughput=%.0f ops/s",
+                this.strategy, this.capacity, getHitRatio(), getThroughput());
+    }
+}
@@ -0,0 +1,150 @@
+package org.swiftcache.simulator;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Generates synthetic access traces for the {@link CacheSimulator}. Each
+ * generator models a workload shape that is known to separate eviction
+ * strategies from each other:
+ * <ul>
+ *     <li>{@link #zipf}: skewed popularity, the typical shape of web and database traffic.</li>
+ *     <li>{@link #loop}: a cyclic scan over a fixed working set, which defeats LRU
+ *     as soon as the loop is larger than the cache.</li>
+ *     <li>{@link #scan}: one-time keys that pollute recency-based caches.</li>
+ *     <li>{@link #shiftingHotSet}: a hot set that moves over time, which punishes
+ *     strategies that hold on to formerly popular keys.</li>
+ * </ul>
+ * All generators are deterministic for a given seed.
+ */
+public final class TraceGenerator {
+
+    private TraceGenerator() {
+    }
+
+    /**
+     * Generates a trace whose key popularity follows a Zipf distribution.
+     *
+     * @param length the number of accesses to generate
+     * @param items the number of distinct keys
+     * @param exponent the skew of the distribution, typically between 0.6 and 1.2
+     * @param seed the seed of the random generator
+     * @return the generated trace
+     */
+    public static long[] zipf(int length, int items, double exponent, long seed) {
+        requirePositive(items, "items");
+
+        double[] cumulative = new double[items];
+        double sum = 0;
+        for (int rank = 0; rank < items; rank++) {
+            sum += 1.0d / Math.pow(rank + 1, exponent);
+            cumulative[rank] = sum;
+        }
+
+        Random random = new Random(seed);
+        long[] trace = new long[length];
+        for (int i = 0; i < length; i++) {
+            int rank = Arrays.binarySearch(cumulative, random.nextDouble() * sum);
+            trace[i] = rank >= 0 ? rank : Math.min(-rank - 1, items - 1);
+        }
+
+        return trace;
+    }
+
+    /**
+     * Generates a trace that repeatedly walks the same keys in the same order.
+     *
+     * @param length the number of accesses to generate
+     * @param loopSize the number of distinct keys in the loop
+     * @return the generated trace
+     */
+    public static long[] loop(int length, int loopSize) {
+        requirePositive(loopSize, "loopSize");
+
+        long[] trace = new long[length];
+        for (int i = 0; i < length; i++) {
+            trace[i] = i % loopSize;
+        }
+
+        return trace;
+    }
+
+    /**
+     * Generates a trace of keys that are each accessed exactly once.
+     *
+     * @param length the number of accesses to generate
+     * @param firstKey the first key of the scan
+     * @return the generated trace
+     */
+    public static long[] scan(int length, long firstKey) {
+        long[] trace = new long[length];
+        for (int i = 0; i < length; i++) {
+            trace[i] = firstKey + i;
+        }
+
+        return trace;
+    }
+
+    /**
+     * Generates a trace where a fraction of the accesses targets a small hot
+     * set that moves to fresh keys at a fixed interval. The remaining accesses
+     * are spread uniformly over the whole key space.
+     *
+     * @param length the number of accesses to generate
+     * @param hotSetSize the number of keys in the hot set
+     * @param universe the number of distinct keys outside the hot set
+     * @param hotFraction the fraction of accesses that target the hot set
+     * @param shiftInterval the number of accesses after which the hot set moves
+     * @param seed the seed of the random generator
+     * @return the generated trace
+     */
+    public static long[] shiftingHotSet(int length, int hotSetSize, int universe,
+                                        double hotFraction, int shiftInterval, long seed) {
+        requirePositive(hotSetSize, "hotSetSize");
+        requirePositive(universe, "universe");
+        requirePositive(shiftInterval, "shiftInterval");
+
+        Random random = new Random(seed);
+        long[] trace = new long[length];
+        for (int i = 0; i < length; i++) {
+            if (random.nextDouble() < hotFraction) {
+                // Hot keys are placed after the cold universe so that every shift brings new keys
+                long hotBase = universe + (long) (i / shiftInterval) * hotSetSize;
+                trace[i] = hotBase + random.nextInt(hotSetSize);
+            } else {
+                trace[i] = random.nextInt(universe);
+            }
+        }
+
+        return trace;
+    }
+
+    /**
+     * Concatenates several traces into a single one, which is useful to model
+     * phase changes such as a scan in the middle of a Zipf workload.
+     *
+     * @param traces the traces to concatenate in order
+     * @return the concatenated trace
+     */
+    public static long[] concat(long[]... traces) {
+        int length = 0;
+        for (long[] trace : traces) {
+            length += trace.length;
+        }
+
+        long[] result = new long[length];
+        int offset = 0;
+        for (long[] trace : traces) {
+            System.arraycopy(trace, 0, result, offset, trace.length);
+            offset += trace.length;
+        }
+
+        return result;
+    }
+
+    private static void requirePositive(int value, String name) {
+        if (value <= 0) {
+            throw new IllegalArgumentException(name + " must be positive: " + value);
+        }
+    }
+}
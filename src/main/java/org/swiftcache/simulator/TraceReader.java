@@ -0,0 +1,138 @@
+package org.swiftcache.simulator;
+
+import java.io.BufferedReader;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reads cache access traces into a compact array of numeric keys that can be
+ * replayed by the {@link CacheSimulator}.
+ * <p>
+ * Two formats are supported:
+ * <ul>
+ *     <li>Text: one key per line. Blank lines and lines starting with {@code #}
+ *     are ignored. Only the first whitespace- or comma-separated token of a line is used,
+ *     so traces with trailing columns (timestamps, sizes) can be read as-is.
+ *     Numeric keys are used directly, any other key is mapped to a stable id.</li>
+ *     <li>Binary: a sequence of big-endian 64-bit keys.</li>
+ * </ul>
+ */
+public final class TraceReader {
+
+    private static final int INITIAL_CAPACITY = 1 << 16;
+
+    private TraceReader() {
+    }
+
+    /**
+     * Reads a text trace with one key per line.
+     *
+     * @param reader the reader to consume, it is not closed by this method
+     * @return the keys of the trace in access order
+     * @throws IOException if the trace cannot be read
+     */
+    public static long[] readText(Reader reader) throws IOException {
+        BufferedReader bufferedReader = new BufferedReader(reader);
+        Map<String, Long> symbolicKeys = new HashMap<>();
+        long[] trace = new long[INITIAL_CAPACITY];
+        int length = 0;
+
+        String line;
+        while ((line = bufferedReader.readLine()) != null) {
+            String token = firstToken(line);
+            if (token == null) {
+                continue;
+            }
+
+            if (length == trace.length) {
+                trace = Arrays.copyOf(trace, length << 1);
+            }
+            trace[length++] = toKey(token, symbolicKeys);
+        }
+
+        return Arrays.copyOf(trace, length);
+    }
+
+    /**
+     * Reads a text trace with one key per line from a UTF-8 encoded stream.
+     *
+     * @param inputStream the stream to consume, it is not closed by this method
+     * @return the keys of the trace in access order
+     * @throws IOException if the trace cannot be read
+     */
+    public static long[] readText(InputStream inputStream) throws IOException {
+        return readText(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Reads a binary trace made of big-endian 64-bit keys.
+     *
+     * @param inputStream the stream to consume, it is not closed by this method
+     * @return the keys of the trace in access order
+     * @throws IOException if the trace cannot be read or ends in the middle of a key
+     */
+    public static long[] readBinary(InputStream inputStream) throws IOException {
+        DataInputStream dataInputStream = new DataInputStream(inputStream);
+        long[] trace = new long[INITIAL_CAPACITY];
+        int length = 0;
+
+        while (true) {
+            int first = dataInputStream.read();
+            if (first < 0) {
+                break;
+            }
+
+            long key = ((long) first << 56);
+            try {
+                for (int shift = 48; shift >= 0; shift -= 8) {
+                    key |= ((long) dataInputStream.readUnsignedByte()) << shift;
+                }
+            } catch (EOFException e) {
+                throw new IOException("Truncated binary trace after " + length + " keys", e);
+            }
+
+            if (length == trace.length) {
+                trace = Arrays.copyOf(trace, length << 1);
+            }
+            trace[length++] = key;
+        }
+
+        return Arrays.copyOf(trace, length);
+    }
+
+    private static String firstToken(String line) {
+        String trimmed = line.trim();
+        if (trimmed.isEmpty() || trimmed.charAt(0) == '#') {
+            return null;
+        }
+
+        int end = 0;
+        while (end < trimmed.length() && !Character.isWhitespace(trimmed.charAt(end)) && trimmed.charAt(end) != ',') {
+            end++;
+        }
+
+        return trimmed.substring(0, end);
+    }
+
+    private static long toKey(String token, Map<String, Long> symbolicKeys) {
+        try {
+            return Long.parseLong(token);
+        } catch (NumberFormatException e) {
+            Long key = symbolicKeys.get(token);
+            if (key == null) {
+                // Symbolic keys are numbered downwards from -1, away from the usual non-negative ids
+                key = -1L - symbolicKeys.size();
+                symbolicKeys.put(token, key);
+            }
+            return key;
+        }
+    }
+}
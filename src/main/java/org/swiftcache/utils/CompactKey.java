@@ -0,0 +1,205 @@
+package org.swiftcache.utils;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * A compact, immutable form of a string key, for caches whose keys are long
+ * strings such as URLs or composite identifiers. The key is held as its UTF-8
+ * bytes together with a 64-bit fingerprint of those bytes, computed once on
+ * construction.
+ * <p>
+ * Hash tables index the key by its fingerprint: {@link #hashCode()} is derived
+ * from it without touching the bytes, and {@link #equals(Object)} compares the
+ * fingerprints first, so the bytes are only compared on a hit or a rare
+ * fingerprint collision. A collision can therefore never return the entry of
+ * another key.
+ * <p>
+ * A compact key of n ASCII characters takes about n + 40 bytes of heap,
+ * against n + 40 for a {@code String} with compact strings and 2n + 40 on
+ * JVMs without them, such as Java 8. A key built with {@link #wrap(byte[])}
+ * shares the bytes it is given, so the key of an entry can live in the same
+ * array as other data about it, such as its encoded value.
+ */
+public final class CompactKey implements Comparable<CompactKey> {
+
+    private static final long PRIME_1 = 0x9E3779B185EBCA87L;
+
+    private static final long PRIME_2 = 0xC2B2AE3D27D4EB4FL;
+
+    private final byte[] utf8;
+
+    private final long fingerprint;
+
+    private CompactKey(byte[] utf8) {
+        this.utf8 = utf8;
+        this.fingerprint = fingerprint(utf8);
+    }
+
+    /**
+     * Returns the compact form of the specified string.
+     *
+     * @param key the string key
+     * @return the compact key
+     */
+    public static CompactKey of(String key) {
+        if (key == null) {
+            throw new IllegalArgumentException("key must not be null");
+        }
+
+        return new CompactKey(key.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Returns a compact key backed by the specified UTF-8 bytes, without
+     * copying them. The caller must not modify the array afterwards.
+     *
+     * @param utf8 the UTF-8 encoding of the key
+     * @return the compact key
+     */
+    public static CompactKey wrap(byte[] utf8) {
+        if (utf8 == null) {
+            throw new IllegalArgumentException("utf8 must not be null");
+        }
+
+        return new CompactKey(utf8);
+    }
+
+    /**
+     * Returns the 64-bit fingerprint of the key.
+     *
+     * @return the fingerprint
+     */
+    public long fingerprint() {
+        return this.fingerprint;
+    }
+
+    /**
+     * Returns the length of the UTF-8 encoding of the key.
+     *
+     * @return the number of bytes
+     */
+    public int length() {
+        return this.utf8.length;
+    }
+
+    /**
+     * Writes the UTF-8 encoding of the key to the specified buffer.
+     *
+     * @param buffer the buffer to write to, with at least {@link #length()} bytes remaining
+     */
+    public void writeTo(ByteBuffer buffer) {
+        buffer.put(this.utf8);
+    }
+
+    /**
+     * Returns a copy of the UTF-8 encoding of the key.
+     *
+     * @return the bytes of the key
+     */
+    public byte[] toBytes() {
+        return this.utf8.clone();
+    }
+
+    /**
+     * Returns whether the key starts with the specified prefix.
+     *
+     * @param prefix the prefix to test
+     * @return true if the bytes of the key start with the bytes of the prefix
+     */
+    public boolean startsWith(CompactKey prefix) {
+        byte[] other = prefix.utf8;
+        if (other.length > this.utf8.length) {
+            return false;
+        }
+        for (int i = 0; i < other.length; i++) {
+            if (this.utf8[i] != other[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Compares the keys by their UTF-8 bytes, as unsigned values. For keys
+     * without supplementary characters this is the order of the strings.
+     *
+     * @param other the key to compare to
+     * @return a negative number, zero, or a positive number as this key is less than,
+     *         equal to, or greater than the other
+     */
+    @Override
+    public int compareTo(CompactKey other) {
+        byte[] a = this.utf8;
+        byte[] b = other.utf8;
+        int length = Math.min(a.length, b.length);
+        for (int i = 0; i < length; i++) {
+            int difference = (a[i] & 0xFF) - (b[i] & 0xFF);
+            if (difference != 0) {
+                return difference;
+            }
+        }
+        return a.length - b.length;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CompactKey)) {
+            return false;
+        }
+        CompactKey other = (CompactKey) o;
+        return this.fingerprint == other.fingerprint && Arrays.equals(this.utf8, other.utf8);
+    }
+
+    @Override
+    public int hashCode() {
+        return (int) (this.fingerprint ^ (this.fingerprint >>> 32));
+    }
+
+    /**
+     * Decodes the key back to a string.
+     *
+     * @return the string key
+     */
+    @Override
+    public String toString() {
+        return new String(this.utf8, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Hashes the bytes eight at a time, then applies the MurmurHash3 64-bit
+     * finalizer, so every byte affects every bit of the result.
+     *
+     * @param bytes the bytes to hash
+     * @return the fingerprint of the bytes
+     */
+    private static long fingerprint(byte[] bytes) {
+        long h = bytes.length * PRIME_1;
+        int i = 0;
+        for (; i + 8 <= bytes.length; i += 8) {
+            long word = (bytes[i] & 0xFFL)
+                    | (bytes[i + 1] & 0xFFL) << 8
+                    | (bytes[i + 2] & 0xFFL) << 16
+                    | (bytes[i + 3] & 0xFFL) << 24
+                    | (bytes[i + 4] & 0xFFL) << 32
+                    | (bytes[i + 5] & 0xFFL) << 40
+                    | (bytes[i + 6] & 0xFFL) << 48
+                    | (bytes[i + 7] & 0xFFL) << 56;
+            h = Long.rotateLeft(h ^ word * PRIME_2, 31) * PRIME_1;
+        }
+        for (; i < bytes.length; i++) {
+            h = Long.rotateLeft(h ^ (bytes[i] & 0xFFL) * PRIME_1, 11) * PRIME_2;
+        }
+
+        h ^= h >>> 33;
+        h *= 0xFF51AFD7ED558CCDL;
+        h ^= h >>> 33;
+        h *= 0xC4CEB9FE1A85EC53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,425 @@
+package org.swiftcache.utils;
+
+import java.lang.instrument.Instrumentation;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * A {@link Weigher} that estimates the heap retained by an entry, in bytes,
+ * by walking the object graph of its key and value, so that caches can be
+ * bounded in bytes without a weigher written for every value type.
+ * <p>
+ * The shallow size of each object comes from {@link Instrumentation} when the
+ * SwiftCache jar is loaded as an agent ({@code -javaagent:swiftcache.jar}) or
+ * an application agent hands its instrumentation to {@link #install}.
+ * Otherwise it is estimated from the layout of the class, assuming a HotSpot
+ * JVM: an object header, the instance fields of the class and its
+ * superclasses, and padding to 8 bytes. Layouts, including the fields to
+ * follow, are computed once per class and cached.
+ * <p>
+ * An object shared by the key and value is counted once. Enum constants and
+ * classes are not counted, as they are not retained by the entry. Arrays and
+ * collections longer than the sample size are estimated from evenly spread
+ * elements, so the graphs walked for large values stay bounded; collections
+ * that can only be iterated are estimated from their first elements. Objects
+ * of JDK classes whose fields reflection cannot open are counted shallowly,
+ * except for strings, collections and maps, which are measured through their
+ * public API with a typical overhead per element. The fields that a subclass
+ * of such a JDK class declares itself are still followed. A walk visits at most 1024 times
+ * the sample size objects and ignores the rest of very deep graphs. Class
+ * loaders and threads are never followed.
+ *
+ * @param <K> the type of keys being weighed
+ * @param <V> the type of values being weighed
+ */
+public class DeepSizeWeigher<K, V> implements Weigher<K, V> {
+
+    private static final Logger logger = Logger.getLogger(DeepSizeWeigher.class.getName());
+
+    private static final int DEFAULT_SAMPLE_SIZE = 64;
+
+    /** Bounds the objects visited per walk to this many times the sample size. */
+    private static final int OBJECTS_PER_SAMPLE = 1024;
+
+    private static final boolean COMPRESSED_REFERENCES = !"32".equals(System.getProperty("sun.arch.data.model"))
+            && Runtime.getRuntime().maxMemory() < 32L * 1024 * 1024 * 1024;
+
+    private static final int REFERENCE_SIZE = COMPRESSED_REFERENCES || is32Bit() ? 4 : 8;
+
+    private static final int OBJECT_HEADER = is32Bit() ? 8 : COMPRESSED_REFERENCES ? 12 : 16;
+
+    private static final int ARRAY_HEADER = is32Bit() ? 12 : COMPRESSED_REFERENCES ? 16 : 24;
+
+    /** The node of a hash map or linked list, which holds a hash or links and the element. */
+    private static final long NODE_SIZE = align(OBJECT_HEADER + 4 + 3L * REFERENCE_SIZE);
+
+    private static final boolean COMPACT_STRINGS = hasField(String.class, "coder");
+
+    private static volatile Instrumentation instrumentation;
+
+    private static final ClassValue<Layout> layouts = new ClassValue<Layout>() {
+        @Override
+        protected Layout computeValue(Class<?> type) {
+            return new Layout(type);
+        }
+    };
+
+    private final int sampleSize;
+
+    private final int maxObjects;
+
+    /**
+     * Constructs a new DeepSizeWeigher that samples arrays and collections of
+     * more than 64 elements.
+     */
+    public DeepSizeWeigher() {
+        this(DEFAULT_SAMPLE_SIZE);
+    }
+
+    /**
+     * Constructs a new DeepSizeWeigher with the specified sample size.
+     *
+     * @param sampleSize the number of elements of an array or collection walked at most,
+     *                   which also bounds the objects visited per walk
+     */
+    public DeepSizeWeigher(int sampleSize) {
+        if (sampleSize < 1) {
+            throw new IllegalArgumentException("sampleSize must be positive: " + sampleSize);
+        }
+
+        this.sampleSize = sampleSize;
+        this.maxObjects = sampleSize * OBJECTS_PER_SAMPLE;
+    }
+
+    /**
+     * Called by the JVM when the jar is loaded with {@code -javaagent}.
+     *
+     * @param arguments the agent arguments, ignored
+     * @param inst the instrumentation of the JVM
+     */
+    public static void premain(String arguments, Instrumentation inst) {
+        install(inst);
+    }
+
+    /**
+     * Called by the JVM when the jar is attached as an agent at run time.
+     *
+     * @param arguments the agent arguments, ignored
+     * @param inst the instrumentation of the JVM
+     */
+    public static void agentmain(String arguments, Instrumentation inst) {
+        install(inst);
+    }
+
+    /**
+     * Makes every DeepSizeWeigher measure shallow sizes with the specified
+     * instrumentation instead of estimating them.
+     *
+     * @param inst the instrumentation of the JVM
+     */
+    public static void install(Instrumentation inst) {
+        instrumentation = inst;
+
+        logger.log(Level.INFO, "Deep size weigher using instrumentation");
+    }
+
+    /**
+     * Returns whether shallow sizes are measured with instrumentation.
+     *
+     * @return true if an agent installed its instrumentation
+     */
+    public static boolean isInstrumented() {
+        return instrumentation != null;
+    }
+
+    /**
+     * Returns the estimated bytes retained by the key and value of an entry.
+     *
+     * @param key the key of the entry
+     * @param value the value of the entry
+     * @return the estimated size in bytes, at least 1
+     */
+    @Override
+    public long weigh(K key, V value) {
+        Walk walk = new Walk();
+        walk.add(key, 1);
+        walk.add(value, 1);
+        return Math.max(1, Math.round(walk.run()));
+    }
+
+    /**
+     * Returns the estimated bytes retained by the specified object.
+     *
+     * @param root the object to measure
+     * @return the estimated size in bytes, 0 for null
+     */
+    public long sizeOf(Object root) {
+        Walk walk = new Walk();
+        walk.add(root, 1);
+        return Math.round(walk.run());
+    }
+
+    private static long shallowSize(Object object, Layout layout) {
+        Instrumentation inst = instrumentation;
+        if (inst != null) {
+            return inst.getObjectSize(object);
+        }
+        if (layout.componentSize > 0) {
+            return align(ARRAY_HEADER + (long) layout.componentSize * Array.getLength(object));
+        }
+        return layout.shallowSize;
+    }
+
+    private static long stringSize(String string, Layout layout) {
+        int length = string.length();
+        int bytesPerChar = 2;
+        if (COMPACT_STRINGS) {
+            bytesPerChar = 1;
+            for (int i = 0; i < length; i++) {
+                if (string.charAt(i) > 0xFF) {
+                    bytesPerChar = 2;
+                    break;
+                }
+            }
+        }
+        return shallowSize(string, layout) + align(ARRAY_HEADER + (long) bytesPerChar * length);
+    }
+
+    private static long align(long size) {
+        return (size + 7) & ~7L;
+    }
+
+    private static boolean is32Bit() {
+        return "32".equals(System.getProperty("sun.arch.data.model"));
+    }
+
+    private static boolean hasField(Class<?> type, String name) {
+        try {
+            type.getDeclaredField(name);
+            return true;
+        } catch (NoSuchFieldException e) {
+            return false;
+        }
+    }
+
+    private static int primitiveSize(Class<?> type) {
+        if (type == long.class || type == double.class) {
+            return 8;
+        }
+        if (type == int.class || type == float.class) {
+            return 4;
+        }
+        if (type == short.class || type == char.class) {
+            return 2;
+        }
+        return 1;
+    }
+
+    /**
+     * One walk of an object graph. Each pending object carries the factor
+     * its size is multiplied by, which is above 1 for the elements standing
+     * in for a sampled array or collection.
+     */
+    private final class Walk {
+
+        private final Set<Object> visited = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        private final Deque<Object> pending = new ArrayDeque<>();
+
+        private final Deque<Double> factors = new ArrayDeque<>();
+
+        private double size;
+
+        void add(Object object, double factor) {
+            if (object != null && !(object instanceof Class) && !(object instanceof Enum)
+                    && !(object instanceof ClassLoader) && !(object instanceof Thread)
+                    && this.visited.size() < DeepSizeWeigher.this.maxObjects && this.visited.add(object)) {
+                this.pending.push(object);
+                this.factors.push(factor);
+            }
+        }
+
+        double run() {
+            while (!this.pending.isEmpty()) {
+                Object object = this.pending.pop();
+                double factor = this.factors.pop();
+                this.size += factor * visit(object, factor);
+            }
+            return this.size;
+        }
+
+        /**
+         * Queues the objects referenced by the specified object and returns
+         * its own size.
+         */
+        private long visit(Object object, double factor) {
+            Layout layout = layouts.get(object.getClass());
+            if (object instanceof String) {
+                return stringSize((String) object, layout);
+            }
+            if (layout.elementArray) {
+                visitArray((Object[]) object, factor);
+                return shallowSize(object, layout);
+            }
+            if (layout.componentSize > 0) {
+                return shallowSize(object, layout);
+            }
+
+            for (Field field : layout.references) {
+                try {
+                    add(field.get(object), factor);
+                } catch (IllegalAccessException e) {
+                    // Cannot happen, the field was made accessible when the layout was built
+                }
+            }
+            if (layout.opaque) {
+                return shallowSize(object, layout) + visitOpaque(object, factor);
+            }
+            return shallowSize(object, layout);
+        }
+
+        private void visitArray(Object[] array, double factor) {
+            int length = array.length;
+            if (length <= DeepSizeWeigher.this.sampleSize) {
+                for (Object element : array) {
+                    add(element, factor);
+                }
+                return;
+            }
+
+            int stride = length / DeepSizeWeigher.this.sampleSize;
+            double sampleFactor = factor * length / DeepSizeWeigher.this.sampleSize;
+            for (int i = 0; i < DeepSizeWeigher.this.sampleSize; i++) {
+                add(array[i * stride], sampleFactor);
+            }
+        }
+
+        /**
+         * Measures a collection or map whose fields cannot be read, through
+         * its public API. Returns the estimated size of its internal nodes or
+         * slots, and queues a sample of its elements.
+         */
+        private long visitOpaque(Object object, double factor) {
+            Iterator<?> elements;
+            int count;
+            long overheadPerElement;
+            if (object instanceof Map) {
+                Map<?, ?> map = (Map<?, ?>) object;
+                elements = map.entrySet().iterator();
+                count = map.size();
+                // A node per entry and a table slot, with the table at most three quarters full
+                overheadPerElement = NODE_SIZE + REFERENCE_SIZE * 4 / 3;
+            } else if (object instanceof Collection) {
+                Collection<?> collection = (Collection<?>) object;
+                elements = collection.iterator();
+                count = collection.size();
+                overheadPerElement = object instanceof List && !(object instanceof LinkedList)
+                        ? REFERENCE_SIZE : object instanceof Set ? NODE_SIZE + REFERENCE_SIZE * 4 / 3 : NODE_SIZE;
+            } else {
+                return 0;
+            }
+
+            int walked = Math.min(count, DeepSizeWeigher.this.sampleSize);
+            int stride = walked == 0 ? 1 : count / walked;
+            double sampleFactor = walked == 0 ? factor : factor * count / walked;
+            try {
+                if (object instanceof List && object instanceof RandomAccess) {
+                    List<?> list = (List<?>) object;
+                    for (int i = 0; i < walked; i++) {
+                        add(list.get(i * stride), sampleFactor);
+                    }
+                } else {
+                    // Reaching elements spread over the collection would step through all of them
+                    for (int i = 0; i < walked && elements.hasNext(); i++) {
+                        Object element = elements.next();
+                        if (element instanceof Map.Entry) {
+                            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) element;
+                            add(entry.getKey(), sampleFactor);
+                            add(entry.getValue(), sampleFactor);
+                        } else {
+                            add(element, sampleFactor);
+                        }
+                    }
+                }
+            } catch (RuntimeException e) {
+                // Concurrently modified, the elements walked so far stand for the rest
+            }
+            return overheadPerElement * count;
+        }
+    }
+
+    /**
+     * What the walk needs to know about a class: the estimated size of its
+     * instances, the reference fields to follow, and how to treat arrays and
+     * classes whose fields cannot be opened. A class is opaque when some of
+     * its fields cannot be opened; the fields that can are still followed.
+     */
+    private static final class Layout {
+
+        private final long shallowSize;
+
+        private final Field[] references;
+
+        private final int componentSize;
+
+        private final boolean elementArray;
+
+        private final boolean opaque;
+
+        Layout(Class<?> type) {
+            if (type.isArray()) {
+                Class<?> component = type.getComponentType();
+                this.componentSize = component.isPrimitive() ? primitiveSize(component) : REFERENCE_SIZE;
+                this.elementArray = !component.isPrimitive();
+                this.shallowSize = 0;
+                this.references = new Field[0];
+                this.opaque = false;
+                return;
+            }
+
+            long fieldBytes = 0;
+            List<Field> referenceFields = new ArrayList<>();
+            boolean accessible = true;
+            for (Class<?> c = type; c != null; c = c.getSuperclass()) {
+                for (Field field : c.getDeclaredFields()) {
+                    if (Modifier.isStatic(field.getModifiers())) {
+                        continue;
+                    }
+                    if (field.getType().isPrimitive()) {
+                        fieldBytes += primitiveSize(field.getType());
+                        continue;
+                    }
+                    fieldBytes += REFERENCE_SIZE;
+                    try {
+                        field.setAccessible(true);
+                        referenceFields.add(field);
+                    } catch (RuntimeException e) {
+                        // Fields of JDK classes are closed to reflection on Java 9 and later
+                        accessible = false;
+                    }
+                }
+            }
+
+            this.shallowSize = align(OBJECT_HEADER + fieldBytes);
+            this.componentSize = 0;
+            this.elementArray = false;
+            this.opaque = !accessible;
+            this.references = referenceFields.toArray(new Field[0]);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+package org.swiftcache.utils;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Provides the executor that runs blocking repository calls off the caller's
+ * thread: asynchronous loads, refresh-ahead reloads and write-behind flushes.
+ * <p>
+ * On JDK 21 and later, every task runs on its own virtual thread, so a blocked
+ * repository call only parks a virtual thread and hundreds of thousands of
+ * calls can be in flight without exhausting platform threads. On older JDKs,
+ * tasks run on a bounded pool of daemon platform threads and excess tasks
+ * wait in the pool's queue.
+ * <p>
+ * The virtual-thread executor is looked up reflectively so the library keeps
+ * targeting Java 8. The behaviour can be tuned with system properties:
+ * <ul>
+ *     <li>{@code swiftcache.virtualThreads=false} forces the bounded pool even
+ *     when virtual threads are available.</li>
+ *     <li>{@code swiftcache.repositoryThreads} sets the size of the bounded
+ *     pool, by default four threads per available processor.</li>
+ * </ul>
+ */
+public final class RepositoryExecutors {
+
+    private static final Logger logger = Logger.getLogger(RepositoryExecutors.class.getName());
+
+    /** System property that disables virtual threads when set to false. */
+    public static final String VIRTUAL_THREADS_PROPERTY = "swiftcache.virtualThreads";
+
+    /** System property that sets the number of threads of the bounded pool. */
+    public static final String POOL_SIZE_PROPERTY = "swiftcache.repositoryThreads";
+
+    private static final ExecutorService SHARED = create();
+
+    private RepositoryExecutors() {
+    }
+
+    /**
+     * Returns the executor shared by all policies that have not been given an
+     * executor of their own. Its threads are daemon threads, so it never keeps
+     * the JVM alive and does not need to be shut down.
+     *
+     * @return the shared repository executor
+     */
+    public static ExecutorService shared() {
+        return SHARED;
+    }
+
+    /**
+     * Returns whether the shared executor runs tasks on virtual threads.
+     *
+     * @return true if virtual threads are in use
+     */
+    public static boolean usesVirtualThreads() {
+        return !(SHARED instanceof ThreadPoolExecutor);
+    }
+
+    /**
+     * Creates a new bounded pool of daemon platform threads. Tasks submitted
+     * while all threads are busy are queued.
+     *
+     * @param threads the number of threads of the pool
+     * @return the new executor
+     */
+    public static ExecutorService newBoundedPool(int threads) {
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), new DaemonThreadFactory());
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    private static ExecutorService create() {
+        if (!"false".equalsIgnoreCase(System.getProperty(VIRTUAL_THREADS_PROPERTY))) {
+            ExecutorService virtualThreadExecutor = newVirtualThreadPerTaskExecutor();
+            if (virtualThreadExecutor != null) {
+                logger.log(Level.INFO, "Repository calls run on virtual threads");
+                return virtualThreadExecutor;
+            }
+        }
+
+        int threads = Integer.getInteger(POOL_SIZE_PROPERTY, 4 * Runtime.getRuntime().availableProcessors());
+        logger.log(Level.INFO, "Repository calls run on a pool of {0} platform threads", threads);
+        return newBoundedPool(threads);
+    }
+
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            Method factory = java.util.concurrent.Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) factory.invoke(null);
+        } catch (ReflectiveOperationException | RuntimeException e) {
+            // Virtual threads need JDK 21, or JDK 19-20 with preview features enabled
+            return null;
+        }
+    }
+
+    /**
+     * Creates named daemon threads for the bounded pool.
+     */
+    private static final class DaemonThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger sequence = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "swiftcache-repository-" + this.sequence.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
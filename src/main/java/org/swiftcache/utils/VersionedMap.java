@@ -0,0 +1,919 @@
+package org.swiftcache.utils;
+
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.SoftReference;
+import java.lang.ref.WeakReference;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/**
+ * A concurrent map that stamps every entry with a version, so that callers
+ * can make a write conditional on the entry not having changed since they
+ * looked at it (see {@link #compareAndSet(Object, long, Object)}).
+ * <p>
+ * Every write gives the entry a new version, drawn from a counter shared by
+ * the whole map, so a version is never reused and a changed entry can never
+ * look unchanged. Absent keys have a version too: deleting a key with
+ * {@link #delete(Object)} stamps one of a fixed number of removal stripes,
+ * and an absent key's version is the stamp of its stripe. A key that is put
+ * and deleted again while a caller is not looking therefore does not look
+ * unchanged either. Keys sharing a stripe may see their absent version move
+ * without a change of their own, which only makes a conditional write fail
+ * spuriously. Other removals, such as {@link #remove(Object)} and
+ * {@link #clear()}, leave the stripes alone: they drop entries that are
+ * still valid, the evictions of a full cache among them, and stamping on
+ * each of them would keep failing the conditional writes of unrelated keys.
+ * <p>
+ * Entries are stored as small immutable nodes, specialized by the features
+ * the map is configured with: a plain node only holds the value and its
+ * version, and a weight is only stored when the map has a {@link Weigher}.
+ * The weight of an entry is computed once, when it is written, and the map
+ * keeps the total weight of its entries up to date (see {@link #weight()}).
+ * <p>
+ * Values can be held through weak or soft references instead (see
+ * {@link ValueReferences}), so that the garbage collector may reclaim them.
+ * The node is then the reference itself, which keeps its key, so a collected
+ * value costs no more than a strongly held one. A cleared value reads as
+ * absent straight away, but its entry stays in the table, and counts towards
+ * its size and weight, until {@link #expungeCleared(Consumer)} drains it from
+ * the reference queue.
+ * <p>
+ * The map also has an epoch, which moves forward after every completed write
+ * to any key (see {@link #epoch()}), for callers that keep copies of entries
+ * and need a cheap way to tell that they may be stale.
+ * <p>
+ * Like {@link ConcurrentHashMap}, the map does not allow null keys or values,
+ * and its views are weakly consistent.
+ *
+ * @param <K> the type of keys maintained by this map
+ * @param <V> the type of mapped values
+ */
+public class VersionedMap<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V> {
+
+    private static final int REMOVAL_STRIPES = 64;
+
+    private final ConcurrentHashMap<K, Node<V>> table;
+
+    private final AtomicLong clock;
+
+    private final AtomicLong epoch;
+
+    private final Weigher<? super K, ? super V> weigher;
+
+    private final AtomicLong weight;
+
+    private final AtomicLongArray removals;
+
+    private final ValueReferences references;
+
+    private final ReferenceQueue<V> queue;
+
+    private volatile boolean clearedRead;
+
+    private Set<Map.Entry<K, V>> entrySet;
+
+    private Set<K> keySet;
+
+    /**
+     * Constructs a new, empty VersionedMap.
+     *
+     * @param initialCapacity the number of entries the map is sized for
+     */
+    public VersionedMap(int initialCapacity) {
+        this(initialCapacity, null);
+    }
+
+    /**
+     * Constructs a new, empty VersionedMap that weighs its entries with the
+     * specified weigher.
+     *
+     * @param initialCapacity the number of entries the map is sized for
+     * @param weigher the weigher computing the weight of an entry, or null to count entries
+     */
+    public VersionedMap(int initialCapacity, Weigher<? super K, ? super V> weigher) {
+        this(initialCapacity, weigher, ValueReferences.STRONG);
+    }
+
+    /**
+     * Constructs a new, empty VersionedMap that weighs its entries with the
+     * specified weigher and holds its values through the specified kind of
+     * reference.
+     *
+     * @param initialCapacity the number of entries the map is sized for
+     * @param weigher the weigher computing the weight of an entry, or null to count entries
+     * @param references how the values are referenced
+     */
+    public VersionedMap(int initialCapacity, Weigher<? super K, ? super V> weigher, ValueReferences references) {
+        this.table = new ConcurrentHashMap<>(initialCapacity, 0.75f, 5);
+        this.clock = new AtomicLong();
+        this.epoch = new AtomicLong();
+        this.weigher = weigher;
+        this.weight = weigher != null ? new AtomicLong() : null;
+        this.removals = new AtomicLongArray(REMOVAL_STRIPES);
+        this.references = references;
+        this.queue = references != ValueReferences.STRONG ? new ReferenceQueue<>() : null;
+    }
+
+    /**
+     * How the values of a map are referenced.
+     */
+    public enum ValueReferences {
+
+        /** Values are held strongly and stay until removed. */
+        STRONG,
+
+        /** Values are held weakly and are reclaimed once nothing else holds them. */
+        WEAK,
+
+        /** Values are held softly and are reclaimed when the heap runs short. */
+        SOFT
+    }
+
+    /**
+     * Returns the version of the specified key, if the map is a VersionedMap.
+     * Lets callers holding a plain {@link Map} use versions when available.
+     *
+     * @param map the map to look the key up in
+     * @param key the key to look up
+     * @return the version of the key, or 0 if the map is not versioned
+     */
+    public static long versionOf(Map<?, ?> map, Object key) {
+        return map instanceof VersionedMap ? ((VersionedMap<?, ?>) map).version(key) : 0;
+    }
+
+    /**
+     * Installs a value if its key has not changed since the specified version
+     * was read with {@link #versionOf(Map, Object)}. A map that is not a
+     * VersionedMap gets the value unconditionally.
+     *
+     * @param map the map to install the value in
+     * @param key the key of the value
+     * @param version the version the key had when the value was computed
+     * @param value the value to install
+     * @param <K> the type of keys maintained by the map
+     * @param <V> the type of mapped values
+     * @return true if the value was installed
+     */
+    public static <K, V> boolean installIfUnchanged(Map<K, V> map, K key, long version, V value) {
+        if (map instanceof VersionedMap) {
+            return ((VersionedMap<K, V>) map).compareAndSet(key, version, value);
+        }
+
+        map.put(key, value);
+        return true;
+    }
+
+    /**
+     * Returns the current version of the specified key. The version changes
+     * with every write to the key, including its deletion. Other removals
+     * leave the key with the absent version of its stripe.
+     *
+     * @param key the key to look up
+     * @return the version of the key
+     */
+    public long version(Object key) {
+        Node<V> current = this.table.get(key);
+        return current != null ? current.version() : this.removals.get(stripe(key));
+    }
+
+    /**
+     * Returns the epoch of the map. The epoch moves forward after every write
+     * to the map has completed, so a copy of an entry read after reading the
+     * epoch is up to date as long as the epoch has not moved.
+     *
+     * @return the epoch of the map
+     */
+    public long epoch() {
+        return this.epoch.get();
+    }
+
+    /**
+     * Returns the total weight of the entries. Like {@link #size()}, the
+     * total may miss writes that are still in progress.
+     *
+     * @return the total weight of the entries, or their number if the map has no weigher
+     */
+    public long weight() {
+        return this.weight != null ? this.weight.get() : this.table.size();
+    }
+
+    /**
+     * Sets the value of the specified key if the key still has the expected
+     * version. Works for absent keys too, with the version read while the key
+     * was absent.
+     *
+     * @param key the key to set
+     * @param expectedVersion the version the key must still have
+     * @param value the new value
+     * @return true if the value was set
+     */
+    public boolean compareAndSet(K key, final long expectedVersion, V value) {
+        final Node<V> replacement = node(key, value);
+        final AtomicReference<Node<V>> replaced = new AtomicReference<>();
+        // compute only locks the key's bin, and an absent key's stripe is stamped before any deletion completes
+        Node<V> result = this.table.compute(key, (k, current) -> {
+            long version = current != null ? current.version() : this.removals.get(stripe(k));
+            if (version != expectedVersion) {
+                return current;
+            }
+            replaced.set(current);
+            return replacement;
+        });
+        return result == replacement && written(replaced.get(), replacement);
+    }
+
+    /**
+     * Removes the entries whose value the garbage collector has cleared,
+     * passing the key of each removed entry to the specified action. Does
+     * nothing when the values are held strongly.
+     *
+     * @param action the action called with the key of every removed entry
+     * @return the number of removed entries
+     */
+    public int expungeCleared(Consumer<? super K> action) {
+        if (this.queue == null) {
+            return 0;
+        }
+
+        this.clearedRead = false;
+        int expunged = 0;
+        Reference<? extends V> reference;
+        while ((reference = this.queue.poll()) != null) {
+            @SuppressWarnings("unchecked")
+            Node<V> node = (Node<V>) reference;
+            K key = keyOf(reference);
+            // The entry may have been written again since its value was cleared
+            if (this.table.get(key) != node) {
+                continue;
+            }
+            if (this.table.remove(key, node)) {
+                written(node, null);
+                expunged++;
+                action.accept(key);
+            }
+        }
+        return expunged;
+    }
+
+    /**
+     * Returns whether a read found a cleared value since the last call to
+     * {@link #expungeCleared(Consumer)}, a hint that the map has entries to
+     * expunge.
+     *
+     * @return true if a cleared value was read
+     */
+    public boolean hasClearedReads() {
+        return this.clearedRead;
+    }
+
+    @Override
+    public V get(Object key) {
+        Node<V> node = this.table.get(key);
+        if (node == null) {
+            return null;
+        }
+        V value = node.value();
+        if (value == null) {
+            this.clearedRead = true;
+        }
+        return value;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public int size() {
+        return this.table.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return this.table.isEmpty();
+    }
+
+    @Override
+    public V put(K key, V value) {
+        Node<V> added = node(key, value);
+        Node<V> previous = this.table.put(key, added);
+        written(previous, added);
+        return valueOf(previous);
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        Node<V> added = node(key, value);
+        while (true) {
+            Node<V> existing = this.table.putIfAbsent(key, added);
+            if (existing == null) {
+                written(null, added);
+                return null;
+            }
+            V current = existing.value();
+            if (current != null) {
+                return current;
+            }
+            // A cleared value is absent, so it is replaced
+            if (this.table.replace(key, existing, added)) {
+                written(existing, added);
+                return null;
+            }
+        }
+    }
+
+    /**
+     * Removes the specified key and moves its absent version forward, so
+     * that a value computed before the removal, such as a value being loaded
+     * from a repository the key is being deleted from, cannot be installed
+     * afterwards with {@link #compareAndSet(Object, long, Object)}.
+     *
+     * @param key the key to delete
+     * @return the previous value of the key, or null if it had none
+     */
+    public V delete(Object key) {
+        stampRemoval(key);
+        return remove(key);
+    }
+
+    @Override
+    public V remove(Object key) {
+        Node<V> removed = this.table.remove(key);
+        if (removed != null) {
+            written(removed, null);
+        }
+        return valueOf(removed);
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        while (true) {
+            Node<V> current = this.table.get(key);
+            V currentValue = valueOf(current);
+            if (currentValue == null || !currentValue.equals(value)) {
+                return false;
+            }
+            if (this.table.remove(key, current)) {
+                return written(current, null);
+            }
+        }
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        while (true) {
+            Node<V> current = this.table.get(key);
+            V currentValue = valueOf(current);
+            if (currentValue == null || !currentValue.equals(oldValue)) {
+                return false;
+            }
+            Node<V> added = node(key, newValue);
+            if (this.table.replace(key, current, added)) {
+                return written(current, added);
+            }
+        }
+    }
+
+    @Override
+    public V replace(K key, V value) {
+        while (true) {
+            Node<V> current = this.table.get(key);
+            V previous = valueOf(current);
+            if (previous == null) {
+                return null;
+            }
+            Node<V> added = node(key, value);
+            if (this.table.replace(key, current, added)) {
+                written(current, added);
+                return previous;
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        if (this.weight == null) {
+            this.table.clear();
+            written(null, null);
+            return;
+        }
+
+        // Removed one by one, so the total weight stays exact under concurrent writes
+        for (Map.Entry<K, Node<V>> entry : this.table.entrySet()) {
+            if (this.table.remove(entry.getKey(), entry.getValue())) {
+                written(entry.getValue(), null);
+            }
+        }
+    }
+
+    @Override
+    public Set<Map.Entry<K, V>> entrySet() {
+        Set<Map.Entry<K, V>> entries = this.entrySet;
+        if (entries == null) {
+            entries = new EntrySet();
+            this.entrySet = entries;
+        }
+        return entries;
+    }
+
+    @Override
+    public Set<K> keySet() {
+        Set<K> keys = this.keySet;
+        if (keys == null) {
+            keys = new KeySet();
+            this.keySet = keys;
+        }
+        return keys;
+    }
+
+    /**
+     * Creates the node of a new value, with the fields the map needs.
+     *
+     * @param key the key of the value
+     * @param value the value
+     * @return the node holding the value
+     */
+    private Node<V> node(K key, V value) {
+        long version = this.clock.incrementAndGet();
+        switch (this.references) {
+            case WEAK:
+                return this.weigher == null
+                        ? new WeakValue<>(key, value, version, this.queue)
+                        : new WeightedWeakValue<>(key, value, version, this.weigher.weigh(key, value), this.queue);
+            case SOFT:
+                return this.weigher == null
+                        ? new SoftValue<>(key, value, version, this.queue)
+                        : new WeightedSoftValue<>(key, value, version, this.weigher.weigh(key, value), this.queue);
+            default:
+                return this.weigher == null
+                        ? new Versioned<>(value, version)
+                        : new Weighted<>(value, version, this.weigher.weigh(key, value));
+        }
+    }
+
+    /**
+     * Accounts for a completed write: moves the epoch forward and updates
+     * the total weight.
+     *
+     * @param removed the node the write removed or replaced, or null
+     * @param added the node the write added, or null
+     * @return true, so successful writes can return it
+     */
+    private boolean written(Node<V> removed, Node<V> added) {
+        if (this.weight != null) {
+            long delta = weightOf(added) - weightOf(removed);
+            if (delta != 0) {
+                this.weight.addAndGet(delta);
+            }
+        }
+        this.epoch.incrementAndGet();
+        return true;
+    }
+
+    private static long weightOf(Node<?> node) {
+        return node != null ? node.weight() : 0;
+    }
+
+    private void stampRemoval(Object key) {
+        // Stamped before removing, so the key never looks absent with the version it had before its last put
+        this.removals.accumulateAndGet(stripe(key), this.clock.incrementAndGet(), Math::max);
+    }
+
+    private static int stripe(Object key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & (REMOVAL_STRIPES - 1);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <K> K keyOf(Reference<?> reference) {
+        return reference instanceof WeakValue
+                ? ((WeakValue<K, ?>) reference).key
+                : ((SoftValue<K, ?>) reference).key;
+    }
+
+    private static <V> V valueOf(Node<V> node) {
+        return node != null ? node.value() : null;
+    }
+
+    /**
+     * A value with the version it was written with, as stored in the table.
+     * The value of a node held through a reference is null once the garbage
+     * collector has cleared it.
+     *
+     * @param <V> the type of the value
+     */
+    private interface Node<V> {
+
+        V value();
+
+        long version();
+
+        long weight();
+    }
+
+    /**
+     * A value with the version it was written with. This is the node of maps
+     * without a weigher: a header, a reference and a long, 24 bytes with
+     * compressed references.
+     */
+    private static class Versioned<V> implements Node<V> {
+
+        private final V value;
+
+        private final long version;
+
+        Versioned(V value, long version) {
+            if (value == null) {
+                throw new NullPointerException("value");
+            }
+            this.value = value;
+            this.version = version;
+        }
+
+        @Override
+        public V value() {
+            return this.value;
+        }
+
+        @Override
+        public long version() {
+            return this.version;
+        }
+
+        @Override
+        public long weight() {
+            return 0;
+        }
+    }
+
+    /**
+     * A value with its version and the weight computed when it was written.
+     * Only maps with a weigher use it, so the weight costs nothing elsewhere.
+     */
+    private static final class Weighted<V> extends Versioned<V> {
+
+        private final long weight;
+
+        Weighted(V value, long version, long weight) {
+            super(value, version);
+            this.weight = weight;
+        }
+
+        @Override
+        public long weight() {
+            return this.weight;
+        }
+    }
+
+    /**
+     * A value held through a weak reference. The node is the reference
+     * itself, so holding a value weakly costs one object per entry, and it
+     * keeps its key so that the map can find the entry once it is enqueued.
+     */
+    private static class WeakValue<K, V> extends WeakReference<V> implements Node<V> {
+
+        private final K key;
+
+        private final long version;
+
+        WeakValue(K key, V value, long version, ReferenceQueue<? super V> queue) {
+            super(requireValue(value), queue);
+            this.key = key;
+            this.version = version;
+        }
+
+        @Override
+        public V value() {
+            return get();
+        }
+
+        @Override
+        public long version() {
+            return this.version;
+        }
+
+        @Override
+        public long weight() {
+            return 0;
+        }
+    }
+
+    /**
+     * A weakly held value with the weight computed when it was written.
+     */
+    private static final class WeightedWeakValue<K, V> extends WeakValue<K, V> {
+
+        private final long weight;
+
+        WeightedWeakValue(K key, V value, long version, long weight, ReferenceQueue<? super V> queue) {
+            super(key, value, version, queue);
+            this.weight = weight;
+        }
+
+        @Override
+        public long weight() {
+            return this.weight;
+        }
+    }
+
+    /**
+     * A value held through a soft reference, cleared only when the heap runs
+     * short. Like {@link WeakValue}, the node is the reference itself.
+     */
+    private static class SoftValue<K, V> extends SoftReference<V> implements Node<V> {
+
+        private final K key;
+
+        private final long version;
+
+        SoftValue(K key, V value, long version, ReferenceQueue<? super V> queue) {
+            super(requireValue(value), queue);
+            this.key = key;
+            this.version = version;
+        }
+
+        @Override
+        public V value() {
+            return get();
+        }
+
+        @Override
+        public long version() {
+            return this.version;
+        }
+
+        @Override
+        public long weight() {
+            return 0;
+        }
+    }
+
+    /**
+     * A softly held value with the weight computed when it was written.
+     */
+    private static final class WeightedSoftValue<K, V> extends SoftValue<K, V> {
+
+        private final long weight;
+
+        WeightedSoftValue(K key, V value, long version, long weight, ReferenceQueue<? super V> queue) {
+            super(key, value, version, queue);
+            this.weight = weight;
+        }
+
+        @Override
+        public long weight() {
+            return this.weight;
+        }
+    }
+
+    private static <V> V requireValue(V value) {
+        if (value == null) {
+            throw new NullPointerException("value");
+        }
+        return value;
+    }
+
+    /**
+     * The entries of the map, backed by the entries of the underlying table.
+     * Entries whose value has been cleared are skipped. Removing through the
+     * view goes through the map.
+     */
+    private final class EntrySet extends AbstractSet<Map.Entry<K, V>> {
+
+        @Override
+        public Iterator<Map.Entry<K, V>> iterator() {
+            return new LiveIterator<>(WriteThroughEntry::new);
+        }
+
+        @Override
+        public Spliterator<Map.Entry<K, V>> spliterator() {
+            return new LiveSpliterator<>(table.entrySet().spliterator(), WriteThroughEntry::new);
+        }
+
+        @Override
+        public int size() {
+            return table.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+            V value = get(entry.getKey());
+            return value != null && value.equals(entry.getValue());
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (!(o instanceof Map.Entry)) {
+                return false;
+            }
+            Map.Entry<?, ?> entry = (Map.Entry<?, ?>) o;
+            return VersionedMap.this.remove(entry.getKey(), entry.getValue());
+        }
+
+        @Override
+        public void clear() {
+            VersionedMap.this.clear();
+        }
+    }
+
+    /**
+     * The keys of the map, backed by the entries of the underlying table.
+     * Keys whose value has been cleared are skipped. Removing through the
+     * view goes through the map.
+     */
+    private final class KeySet extends AbstractSet<K> {
+
+        @Override
+        public Iterator<K> iterator() {
+            return new LiveIterator<>((key, value) -> key);
+        }
+
+        @Override
+        public Spliterator<K> spliterator() {
+            if (references == ValueReferences.STRONG) {
+                return table.keySet().spliterator();
+            }
+            return new LiveSpliterator<>(table.entrySet().spliterator(), (key, value) -> key);
+        }
+
+        @Override
+        public int size() {
+            return table.size();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return containsKey(o);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            return VersionedMap.this.remove(o) != null;
+        }
+
+        @Override
+        public void clear() {
+            VersionedMap.this.clear();
+        }
+    }
+
+    /**
+     * Iterates over the entries of the underlying table whose value has not
+     * been cleared, mapping each to an element of a view. Removing goes
+     * through the map.
+     *
+     * @param <T> the type of the elements of the view
+     */
+    private final class LiveIterator<T> implements Iterator<T> {
+
+        private final Iterator<Map.Entry<K, Node<V>>> entries;
+
+        private final BiFunction<K, V, T> mapper;
+
+        private K nextKey;
+
+        private V nextValue;
+
+        private K lastKey;
+
+        LiveIterator(BiFunction<K, V, T> mapper) {
+            this.entries = table.entrySet().iterator();
+            this.mapper = mapper;
+            advance();
+        }
+
+        private void advance() {
+            while (this.entries.hasNext()) {
+                Map.Entry<K, Node<V>> entry = this.entries.next();
+                V value = entry.getValue().value();
+                if (value != null) {
+                    this.nextKey = entry.getKey();
+                    this.nextValue = value;
+                    return;
+                }
+            }
+            this.nextKey = null;
+            this.nextValue = null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return this.nextKey != null;
+        }
+
+        @Override
+        public T next() {
+            if (this.nextKey == null) {
+                throw new NoSuchElementException();
+            }
+            T element = this.mapper.apply(this.nextKey, this.nextValue);
+            this.lastKey = this.nextKey;
+            advance();
+            return element;
+        }
+
+        @Override
+        public void remove() {
+            if (this.lastKey == null) {
+                throw new IllegalStateException();
+            }
+            VersionedMap.this.remove(this.lastKey);
+            this.lastKey = null;
+        }
+    }
+
+    /**
+     * A snapshot of an entry whose value writes through to the map.
+     */
+    private final class WriteThroughEntry extends AbstractMap.SimpleEntry<K, V> {
+
+        private static final long serialVersionUID = 1L;
+
+        WriteThroughEntry(K key, V value) {
+            super(key, value);
+        }
+
+        @Override
+        public V setValue(V value) {
+            put(getKey(), value);
+            return super.setValue(value);
+        }
+    }
+
+    /**
+     * Splits like the spliterator of the underlying table and unwraps the
+     * versioned values, skipping cleared ones, so parallel streams divide the
+     * table evenly.
+     *
+     * @param <T> the type of the elements of the view
+     */
+    private final class LiveSpliterator<T> implements Spliterator<T> {
+
+        private final Spliterator<Map.Entry<K, Node<V>>> entries;
+
+        private final BiFunction<K, V, T> mapper;
+
+        private boolean advanced;
+
+        LiveSpliterator(Spliterator<Map.Entry<K, Node<V>>> entries, BiFunction<K, V, T> mapper) {
+            this.entries = entries;
+            this.mapper = mapper;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            this.advanced = false;
+            while (!this.advanced && this.entries.tryAdvance(entry -> accept(entry, action))) {
+                // Skips the entries whose value has been cleared
+            }
+            return this.advanced;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            this.entries.forEachRemaining(entry -> accept(entry, action));
+        }
+
+        private void accept(Map.Entry<K, Node<V>> entry, Consumer<? super T> action) {
+            V value = entry.getValue().value();
+            if (value != null) {
+                this.advanced = true;
+                action.accept(this.mapper.apply(entry.getKey(), value));
+            }
+        }
+
+        @Override
+        public Spliterator<T> trySplit() {
+            Spliterator<Map.Entry<K, Node<V>>> split = this.entries.trySplit();
+            return split != null ? new LiveSpliterator<>(split, this.mapper) : null;
+        }
+
+        @Override
+        public long estimateSize() {
+            return this.entries.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return this.entries.characteristics();
+        }
+    }
+}
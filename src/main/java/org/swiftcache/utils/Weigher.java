@@ -0,0 +1,21 @@
+package org.swiftcache.utils;
+
+/**
+ * A functional interface computing the size of a cache entry, in whatever
+ * unit the caller compares sizes with (bytes, elements, ...).
+ *
+ * @param <K> the type of keys being weighed
+ * @param <V> the type of values being weighed
+ */
+@FunctionalInterface
+public interface Weigher<K, V> {
+
+    /**
+     * Returns the size of the specified entry. The size must be positive.
+     *
+     * @param key the key of the entry
+     * @param value the value of the entry
+     * @return the size of the entry
+     */
+    long weigh(K key, V value);
+}
@@ -0,0 +1,99 @@
+package org.swiftcache.valuecodec;
+
+import java.util.Arrays;
+
+/**
+ * A cached value in the form produced by a {@link ValueCompressor}: the
+ * compressed bytes of the value, or its plain bytes if it was below the
+ * compression threshold or did not compress. The value is only decoded when
+ * {@link #get()} is called.
+ * <p>
+ * Two compressed values are equal if they hold the same bytes, which for
+ * values produced by the same compressor means they decode to equal bytes.
+ *
+ * @param <V> the type of the value
+ */
+public final class CompressedValue<V> {
+
+    private final ValueCompressor<V> compressor;
+
+    private final byte[] data;
+
+    private final int rawLength;
+
+    /**
+     * Constructs a new CompressedValue.
+     *
+     * @param compressor the compressor that produced the value and decodes it
+     * @param data the stored bytes
+     * @param rawLength the length of the encoded value before compression
+     */
+    CompressedValue(ValueCompressor<V> compressor, byte[] data, int rawLength) {
+        this.compressor = compressor;
+        this.data = data;
+        this.rawLength = rawLength;
+    }
+
+    /**
+     * Decompresses and decodes the value.
+     *
+     * @return the value
+     */
+    public V get() {
+        return this.compressor.decompress(this);
+    }
+
+    /**
+     * Returns whether the stored bytes are compressed. A value is only
+     * stored compressed if that makes it smaller.
+     *
+     * @return true if the value is stored compressed
+     */
+    public boolean isCompressed() {
+        return this.data.length < this.rawLength;
+    }
+
+    /**
+     * Returns the number of bytes stored for the value.
+     *
+     * @return the stored length
+     */
+    public int storedLength() {
+        return this.data.length;
+    }
+
+    /**
+     * Returns the length of the encoded value before compression.
+     *
+     * @return the raw length
+     */
+    public int rawLength() {
+        return this.rawLength;
+    }
+
+    byte[] data() {
+        return this.data;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof CompressedValue)) {
+            return false;
+        }
+        CompressedValue<?> other = (CompressedValue<?>) o;
+        return this.rawLength == other.rawLength && Arrays.equals(this.data, other.data);
+    }
+
+    @Override
+    public int hashCode() {
+        return 31 * this.rawLength + Arrays.hashCode(this.data);
+    }
+
+    @Override
+    public String toString() {
+        return "CompressedValue[" + this.data.length + " of " + this.rawLength + " bytes]";
+    }
+}
@@ -0,0 +1,123 @@
+package org.swiftcache.valuecodec;
+
+/**
+ * A snapshot of the work done by a {@link ValueCompressor}.
+ */
+public class CompressionStats {
+
+    private final long values;
+
+    private final long compressedValues;
+
+    private final long rawBytes;
+
+    private final long storedBytes;
+
+    private final long compressNanos;
+
+    private final long decompressions;
+
+    private final long decompressNanos;
+
+    /**
+     * Constructs a new CompressionStats.
+     *
+     * @param values the number of values encoded
+     * @param compressedValues the number of values stored compressed
+     * @param rawBytes the total length of the encoded values before compression
+     * @param storedBytes the total length of the values as stored
+     * @param compressNanos the time spent encoding and compressing values
+     * @param decompressions the number of values decoded
+     * @param decompressNanos the time spent decompressing and decoding values
+     */
+    public CompressionStats(long values, long compressedValues, long rawBytes, long storedBytes,
+                            long compressNanos, long decompressions, long decompressNanos) {
+        this.values = values;
+        this.compressedValues = compressedValues;
+        this.rawBytes = rawBytes;
+        this.storedBytes = storedBytes;
+        this.compressNanos = compressNanos;
+        this.decompressions = decompressions;
+        this.decompressNanos = decompressNanos;
+    }
+
+    /**
+     * Returns the number of values encoded.
+     *
+     * @return the value count
+     */
+    public long getValues() {
+        return this.values;
+    }
+
+    /**
+     * Returns the number of values stored compressed. The others were below
+     * the threshold or did not compress.
+     *
+     * @return the compressed value count
+     */
+    public long getCompressedValues() {
+        return this.compressedValues;
+    }
+
+    /**
+     * Returns the total length of the encoded values before compression.
+     *
+     * @return the raw bytes
+     */
+    public long getRawBytes() {
+        return this.rawBytes;
+    }
+
+    /**
+     * Returns the total length of the values as stored.
+     *
+     * @return the stored bytes
+     */
+    public long getStoredBytes() {
+        return this.storedBytes;
+    }
+
+    /**
+     * Returns how many raw bytes each stored byte holds, over all values.
+     *
+     * @return the compression ratio, 1 if no value has been encoded
+     */
+    public double getCompressionRatio() {
+        return this.storedBytes == 0 ? 1.0 : (double) this.rawBytes / this.storedBytes;
+    }
+
+    /**
+     * Returns the time spent encoding and compressing values.
+     *
+     * @return the compression time in nanoseconds
+     */
+    public long getCompressNanos() {
+        return this.compressNanos;
+    }
+
+    /**
+     * Returns the number of values decoded.
+     *
+     * @return the decompression count
+     */
+    public long getDecompressions() {
+        return this.decompressions;
+    }
+
+    /**
+     * Returns the time spent decompressing and decoding values.
+     *
+     * @return the decompression time in nanoseconds
+     */
+    public long getDecompressNanos() {
+        return this.decompressNanos;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CompressionStats[values=%d, compressed=%d, ratio=%.2f, compressNanos=%d, "
+                        + "decompressions=%d, decompressNanos=%d]", this.values, this.compressedValues,
+                getCompressionRatio(), this.compressNanos, this.decompressions, this.decompressNanos);
+    }
+}
@@ -0,0 +1,310 @@
+package org.swiftcache.valuecodec;
+
+import java.util.Arrays;
+
+/**
+ * A pure Java compressor for the LZ4 block format, favoring speed over
+ * ratio like the reference implementation's fast mode. Data is encoded as a
+ * sequence of literal runs and back references of at least
+ * {@value #MIN_MATCH} bytes at most 64 KiB back, found with a single-probe
+ * hash table.
+ * <p>
+ * A dictionary acts as data that precedes the input: back references may
+ * point into it, so small values that share content with the dictionary
+ * compress well even though they are too short to repeat themselves. The
+ * same dictionary must be passed to {@link #decompress(byte[], int, byte[])}.
+ * A {@link Dictionary} hashes its positions once, so compressing many values
+ * with it does not rehash it for each one.
+ */
+public final class LZ4Compressor {
+
+    /** The shortest back reference. */
+    static final int MIN_MATCH = 4;
+
+    /** The largest distance of a back reference, and the largest useful dictionary. */
+    public static final int MAX_DISTANCE = 65535;
+
+    private static final int LAST_LITERALS = 5;
+
+    private static final int MF_LIMIT = 12;
+
+    private static final int HASH_BITS = 12;
+
+    private static final int SKIP_TRIGGER = 6;
+
+    private LZ4Compressor() {
+    }
+
+    /**
+     * Returns the largest size the compressed form of an input can have.
+     *
+     * @param length the length of the input
+     * @return the worst-case compressed length
+     */
+    public static int maxCompressedLength(int length) {
+        return length + length / 255 + 16;
+    }
+
+    /**
+     * Compresses the input into an LZ4 block.
+     *
+     * @param input the bytes to compress
+     * @param dictionary the dictionary, or an empty array; only its last {@value #MAX_DISTANCE} bytes are used
+     * @return the compressed block
+     */
+    public static byte[] compress(byte[] input, byte[] dictionary) {
+        return compress(input, new Dictionary(dictionary));
+    }
+
+    /**
+     * Compresses the input into an LZ4 block, with back references into a
+     * prepared dictionary.
+     *
+     * @param input the bytes to compress
+     * @param dictionary the dictionary
+     * @return the compressed block
+     */
+    public static byte[] compress(byte[] input, Dictionary dictionary) {
+        byte[] dictionaryBytes = dictionary.bytes;
+        int dictionaryLength = dictionaryBytes.length;
+        byte[] output = new byte[maxCompressedLength(input.length)];
+        int op = 0;
+        int anchor = 0;
+        int end = input.length;
+
+        if (end > MF_LIMIT) {
+            // Positions in the input are stored plus one, so the zeroed table starts out empty
+            int[] table = new int[1 << HASH_BITS];
+            int matchLimit = end - LAST_LITERALS;
+            int matchStartLimit = end - MF_LIMIT;
+            int ip = 0;
+            int searches = 1 << SKIP_TRIGGER;
+            while (ip < matchStartLimit) {
+                int sequence = readInt(input, ip);
+                int h = hash(sequence);
+                int ref = table[h] - 1;
+                table[h] = ip + 1;
+                int dictionaryRef = dictionary.table[h];
+
+                int offset;
+                int matchLength;
+                if (ref >= 0 && ip - ref <= MAX_DISTANCE && readInt(input, ref) == sequence) {
+                    while (ip > anchor && ref > 0 && input[ip - 1] == input[ref - 1]) {
+                        ip--;
+                        ref--;
+                    }
+                    matchLength = MIN_MATCH;
+                    while (ip + matchLength < matchLimit && input[ref + matchLength] == input[ip + matchLength]) {
+                        matchLength++;
+                    }
+                    offset = ip - ref;
+                } else if (dictionaryRef >= 0 && ip + dictionaryLength - dictionaryRef <= MAX_DISTANCE
+                        && readInt(dictionaryBytes, dictionaryRef) == sequence) {
+                    while (ip > anchor && dictionaryRef > 0 && input[ip - 1] == dictionaryBytes[dictionaryRef - 1]) {
+                        ip--;
+                        dictionaryRef--;
+                    }
+                    matchLength = dictionaryMatchLength(dictionaryBytes, dictionaryRef, input, ip, matchLimit);
+                    offset = ip + dictionaryLength - dictionaryRef;
+                } else {
+                    // Stretches of incompressible data are skipped over faster and faster
+                    ip += searches++ >>> SKIP_TRIGGER;
+                    continue;
+                }
+                searches = 1 << SKIP_TRIGGER;
+
+                op = writeSequence(input, anchor, ip - anchor, offset, matchLength, output, op);
+                ip += matchLength;
+                anchor = ip;
+            }
+        }
+
+        op = writeLiterals(input, anchor, end - anchor, 0, output, op);
+        return Arrays.copyOf(output, op);
+    }
+
+    /**
+     * Decompresses an LZ4 block.
+     *
+     * @param block the compressed block
+     * @param length the length of the original input
+     * @param dictionary the dictionary the block was compressed with, or an empty array
+     * @return the original input
+     * @throws IllegalArgumentException if the block is corrupt or does not decompress to the given length
+     */
+    public static byte[] decompress(byte[] block, int length, byte[] dictionary) {
+        int dictionaryLength = Math.min(dictionary.length, MAX_DISTANCE);
+        byte[] output = new byte[length];
+
+        int ip = 0;
+        int op = 0;
+        try {
+            while (true) {
+                int token = block[ip++] & 0xFF;
+                int literalLength = token >>> 4;
+                if (literalLength == 15) {
+                    int b;
+                    do {
+                        b = block[ip++] & 0xFF;
+                        literalLength += b;
+                    } while (b == 255);
+                }
+                System.arraycopy(block, ip, output, op, literalLength);
+                ip += literalLength;
+                op += literalLength;
+                if (ip == block.length) {
+                    break;
+                }
+
+                int offset = (block[ip] & 0xFF) | (block[ip + 1] & 0xFF) << 8;
+                ip += 2;
+                int matchLength = token & 0x0F;
+                if (matchLength == 15) {
+                    int b;
+                    do {
+                        b = block[ip++] & 0xFF;
+                        matchLength += b;
+                    } while (b == 255);
+                }
+                matchLength += MIN_MATCH;
+
+                int ref = op - offset;
+                if (offset == 0 || ref < -dictionaryLength || op + matchLength > length) {
+                    throw new IllegalArgumentException("Corrupt LZ4 block at offset " + ip);
+                }
+                if (ref < 0) {
+                    // The match starts in the dictionary, which precedes the output, and may run on into the output
+                    int fromDictionary = Math.min(-ref, matchLength);
+                    System.arraycopy(dictionary, dictionary.length + ref, output, op, fromDictionary);
+                    op += fromDictionary;
+                    matchLength -= fromDictionary;
+                    ref = 0;
+                }
+                if (op - ref >= matchLength) {
+                    System.arraycopy(output, ref, output, op, matchLength);
+                } else {
+                    // The match overlaps the bytes it produces
+                    for (int i = 0; i < matchLength; i++) {
+                        output[op + i] = output[ref + i];
+                    }
+                }
+                op += matchLength;
+            }
+        } catch (IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("Corrupt LZ4 block", e);
+        }
+
+        if (op != length) {
+            throw new IllegalArgumentException("LZ4 block decompressed to " + op + " bytes, expected " + length);
+        }
+        return output;
+    }
+
+    /**
+     * Decompresses an LZ4 block compressed with a prepared dictionary.
+     *
+     * @param block the compressed block
+     * @param length the length of the original input
+     * @param dictionary the dictionary the block was compressed with
+     * @return the original input
+     * @throws IllegalArgumentException if the block is corrupt or does not decompress to the given length
+     */
+    public static byte[] decompress(byte[] block, int length, Dictionary dictionary) {
+        return decompress(block, length, dictionary.bytes);
+    }
+
+    /**
+     * Returns the length of a match that starts in the dictionary. As the
+     * dictionary precedes the input, a match that reaches its end goes on
+     * with the first bytes of the input.
+     */
+    private static int dictionaryMatchLength(byte[] dictionary, int ref, byte[] input, int ip, int matchLimit) {
+        int matchLength = MIN_MATCH;
+        while (ip + matchLength < matchLimit && ref + matchLength < dictionary.length
+                && dictionary[ref + matchLength] == input[ip + matchLength]) {
+            matchLength++;
+        }
+        if (ref + matchLength == dictionary.length) {
+            for (int i = 0; ip + matchLength < matchLimit && input[i] == input[ip + matchLength]; i++) {
+                matchLength++;
+            }
+        }
+        return matchLength;
+    }
+
+    private static int writeSequence(byte[] window, int literalStart, int literalLength,
+                                     int offset, int matchLength, byte[] output, int op) {
+        op = writeLiterals(window, literalStart, literalLength, Math.min(matchLength - MIN_MATCH, 15), output, op);
+        output[op++] = (byte) offset;
+        output[op++] = (byte) (offset >>> 8);
+        if (matchLength - MIN_MATCH >= 15) {
+            op = writeLength(matchLength - MIN_MATCH - 15, output, op);
+        }
+        return op;
+    }
+
+    private static int writeLiterals(byte[] window, int start, int length, int matchNibble, byte[] output, int op) {
+        output[op++] = (byte) (Math.min(length, 15) << 4 | matchNibble);
+        if (length >= 15) {
+            op = writeLength(length - 15, output, op);
+        }
+        System.arraycopy(window, start, output, op, length);
+        return op + length;
+    }
+
+    private static int writeLength(int remaining, byte[] output, int op) {
+        while (remaining >= 255) {
+            output[op++] = (byte) 255;
+            remaining -= 255;
+        }
+        output[op++] = (byte) remaining;
+        return op;
+    }
+
+    private static int readInt(byte[] bytes, int index) {
+        return (bytes[index] & 0xFF)
+                | (bytes[index + 1] & 0xFF) << 8
+                | (bytes[index + 2] & 0xFF) << 16
+                | (bytes[index + 3] & 0xFF) << 24;
+    }
+
+    private static int hash(int sequence) {
+        return (sequence * -1640531535) >>> (32 - HASH_BITS);
+    }
+
+    /**
+     * A dictionary prepared for compression: its last {@value LZ4Compressor#MAX_DISTANCE}
+     * bytes and the hash table of their positions, computed once. Instances
+     * are immutable and can be shared by threads.
+     */
+    public static final class Dictionary {
+
+        private final byte[] bytes;
+
+        private final int[] table;
+
+        /**
+         * Constructs a new Dictionary.
+         *
+         * @param dictionary the dictionary bytes, or an empty array; only the last {@value LZ4Compressor#MAX_DISTANCE} are used
+         */
+        public Dictionary(byte[] dictionary) {
+            int length = Math.min(dictionary.length, MAX_DISTANCE);
+            this.bytes = Arrays.copyOfRange(dictionary, dictionary.length - length, dictionary.length);
+            this.table = new int[1 << HASH_BITS];
+            Arrays.fill(this.table, -1);
+            for (int i = 0; i + MIN_MATCH <= length; i++) {
+                this.table[hash(readInt(this.bytes, i))] = i;
+            }
+        }
+
+        /**
+         * Returns the length of the dictionary, at most {@value LZ4Compressor#MAX_DISTANCE}.
+         *
+         * @return the number of dictionary bytes
+         */
+        public int length() {
+            return this.bytes.length;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package org.swiftcache.valuecodec;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Converts cached values to bytes and back, so that a
+ * {@link ValueCompressor} can compress them.
+ *
+ * @param <V> the type of values converted by this codec
+ */
+public interface ValueCodec<V> {
+
+    /**
+     * Converts the specified value to bytes.
+     *
+     * @param value the value to convert
+     * @return the bytes of the value
+     */
+    byte[] encode(V value);
+
+    /**
+     * Converts bytes produced by {@link #encode(Object)} back to a value.
+     *
+     * @param bytes the bytes of the value
+     * @return the value
+     */
+    V decode(byte[] bytes);
+
+    /**
+     * Returns a codec for strings, which encodes them in UTF-8.
+     *
+     * @return the string codec
+     */
+    static ValueCodec<String> utf8() {
+        return new ValueCodec<String>() {
+
+            @Override
+            public byte[] encode(String value) {
+                return value.getBytes(StandardCharsets.UTF_8);
+            }
+
+            @Override
+            public String decode(byte[] bytes) {
+                return new String(bytes, StandardCharsets.UTF_8);
+            }
+        };
+    }
+
+    /**
+     * Returns a codec for values that already are bytes, which passes them
+     * through without copying. Arrays must not be modified once cached.
+     *
+     * @return the byte array codec
+     */
+    static ValueCodec<byte[]> bytes() {
+        return new ValueCodec<byte[]>() {
+
+            @Override
+            public byte[] encode(byte[] value) {
+                return value;
+            }
+
+            @Override
+            public byte[] decode(byte[] bytes) {
+                return bytes;
+            }
+        };
+    }
+}
@@ -0,0 +1,156 @@
+package org.swiftcache.valuecodec;
+
+import org.swiftcache.utils.Weigher;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Compresses cached values with {@link LZ4Compressor}, so that more of them
+ * fit in a cache bounded by weight. Values are encoded to bytes by a
+ * {@link ValueCodec}; those at least as long as the threshold are
+ * compressed, and kept compressed only if that makes them smaller. Shorter
+ * values are stored as they are, since the compressor would spend time on
+ * them without gaining anything.
+ * <p>
+ * A dictionary lets small values compress well: it is typically a few
+ * representative values, or the field names and boilerplate they share,
+ * concatenated. Every value compressed with a dictionary must be decoded
+ * with the same one, so a changed dictionary needs a new compressor and a
+ * new cache.
+ * <p>
+ * The compressor counts the bytes before and after compression and the time
+ * spent in the codec, see {@link #getStats()}. A compressor is thread-safe.
+ *
+ * @param <V> the type of values compressed by this compressor
+ */
+public class ValueCompressor<V> {
+
+    private static final byte[] NO_DICTIONARY = new byte[0];
+
+    private final ValueCodec<V> codec;
+
+    private final int threshold;
+
+    private final LZ4Compressor.Dictionary dictionary;
+
+    private final LongAdder values;
+
+    private final LongAdder compressedValues;
+
+    private final LongAdder rawBytes;
+
+    private final LongAdder storedBytes;
+
+    private final LongAdder compressNanos;
+
+    private final LongAdder decompressions;
+
+    private final LongAdder decompressNanos;
+
+    /**
+     * Constructs a new ValueCompressor without a dictionary.
+     *
+     * @param codec the codec converting values to bytes
+     * @param threshold the length from which encoded values are compressed
+     */
+    public ValueCompressor(ValueCodec<V> codec, int threshold) {
+        this(codec, threshold, NO_DICTIONARY);
+    }
+
+    /**
+     * Constructs a new ValueCompressor with a dictionary.
+     *
+     * @param codec the codec converting values to bytes
+     * @param threshold the length from which encoded values are compressed
+     * @param dictionary the dictionary, at most {@value LZ4Compressor#MAX_DISTANCE} bytes
+     */
+    public ValueCompressor(ValueCodec<V> codec, int threshold, byte[] dictionary) {
+        if (codec == null) {
+            throw new IllegalArgumentException("codec must not be null");
+        }
+        if (threshold < 0) {
+            throw new IllegalArgumentException("threshold must not be negative: " + threshold);
+        }
+        if (dictionary == null || dictionary.length > LZ4Compressor.MAX_DISTANCE) {
+            throw new IllegalArgumentException("dictionary must be at most " + LZ4Compressor.MAX_DISTANCE
+                    + " bytes");
+        }
+
+        this.codec = codec;
+        this.threshold = threshold;
+        this.dictionary = new LZ4Compressor.Dictionary(dictionary);
+        this.values = new LongAdder();
+        this.compressedValues = new LongAdder();
+        this.rawBytes = new LongAdder();
+        this.storedBytes = new LongAdder();
+        this.compressNanos = new LongAdder();
+        this.decompressions = new LongAdder();
+        this.decompressNanos = new LongAdder();
+    }
+
+    /**
+     * Encodes the specified value and compresses it if it is long enough.
+     *
+     * @param value the value to compress
+     * @return the compressed value
+     */
+    public CompressedValue<V> compress(V value) {
+        long start = System.nanoTime();
+        byte[] raw = this.codec.encode(value);
+        byte[] data = raw;
+        if (raw.length >= this.threshold && raw.length > 0) {
+            byte[] compressed = LZ4Compressor.compress(raw, this.dictionary);
+            if (compressed.length < raw.length) {
+                data = compressed;
+                this.compressedValues.increment();
+            }
+        }
+        this.compressNanos.add(System.nanoTime() - start);
+        this.values.increment();
+        this.rawBytes.add(raw.length);
+        this.storedBytes.add(data.length);
+
+        return new CompressedValue<>(this, data, raw.length);
+    }
+
+    /**
+     * Decompresses and decodes the specified value.
+     *
+     * @param value a value produced by this compressor
+     * @return the original value
+     */
+    public V decompress(CompressedValue<V> value) {
+        long start = System.nanoTime();
+        byte[] raw = value.isCompressed()
+                ? LZ4Compressor.decompress(value.data(), value.rawLength(), this.dictionary)
+                : value.data();
+        V decoded = this.codec.decode(raw);
+        this.decompressNanos.add(System.nanoTime() - start);
+        this.decompressions.increment();
+
+        return decoded;
+    }
+
+    /**
+     * Returns a snapshot of the work done by this compressor so far.
+     *
+     * @return the compression stats
+     */
+    public CompressionStats getStats() {
+        return new CompressionStats(this.values.sum(), this.compressedValues.sum(), this.rawBytes.sum(),
+                this.storedBytes.sum(), this.compressNanos.sum(), this.decompressions.sum(),
+                this.decompressNanos.sum());
+    }
+
+    /**
+     * Returns a weigher for caches of compressed values, which weighs an
+     * entry by the bytes stored for its value.
+     *
+     * @param <K> the type of keys of the cache
+     * @param <V> the type of the compressed values
+     * @return the weigher
+     */
+    public static <K, V> Weigher<K, CompressedValue<V>> weigher() {
+        return (key, value) -> Math.max(1, value.storedLength());
+    }
+}
@@ -3,6 +3,7 @@ package org.swiftcache.writingpolicy;
 import org.swiftcache.cacherepository.ICacheRepository;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * Interface representing a writing policy for a cache, providing a method
@@ -24,4 +25,58 @@ public interface IWritingPolicy<K, V> {
      * @return the previous value associated with the key, or null if there was no mapping for the key
      */
     V write(Map<K, V> cacheMap, K key, V value, ICacheRepository<K, V> repository);
+
+    /**
+     * Writes the specified value to the cache map and starts writing it to the
+     * repository, without waiting for the repository write to finish. The
+     * cache map is updated before this method returns. The default
+     * implementation performs the whole write synchronously.
+     *
+     * @param cacheMap the cache map to write the entry to
+     * @param key the key with which the specified value is to be associated
+     * @param value the value to be associated with the specified key
+     * @param repository the repository to write the entry to
+     * @return a future completed with the result of {@link #write} once the repository write has finished
+     */
+    default CompletableFuture<V> writeAsync(Map<K, V> cacheMap, K key, V value, ICacheRepository<K, V> repository) {
+        return CompletableFuture.completedFuture(write(cacheMap, key, value, repository));
+    }
+
+    /**
+     * Called when an entry has left the cache without being removed from the
+     * repository, because it was evicted or invalidated. The cached value is
+     * already gone. The default implementation does nothing.
+     *
+     * @param key the key of the entry that left the cache
+     */
+    default void onEvict(K key) {
+    }
+
+    /**
+     * Called before an entry is removed from both the cache and the
+     * repository. The default implementation does nothing.
+     *
+     * @param key the key of the entry being removed
+     */
+    default void onRemove(K key) {
+    }
+
+    /**
+     * Writes to the repository everything this policy has written to the
+     * cache but not to the repository yet. The default implementation has
+     * nothing to write.
+     *
+     * @return a future completed once the pending repository writes have finished
+     */
+    default CompletableFuture<Void> flush() {
+        return CompletableFuture.completedFuture(null);
+    }
+
+    /**
+     * Flushes this policy and releases its background resources. The default
+     * implementation waits for {@link #flush()}.
+     */
+    default void close() {
+        flush().join();
+    }
 }
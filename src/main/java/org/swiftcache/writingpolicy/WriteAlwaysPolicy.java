@@ -1,8 +1,11 @@
 package org.swiftcache.writingpolicy;
 
 import org.swiftcache.cacherepository.ICacheRepository;
+import org.swiftcache.utils.RepositoryExecutors;
 
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -10,6 +13,13 @@ import java.util.logging.Logger;
  * An implementation of the IWritingPolicy interface that uses the Write Always
  * policy. This policy writes the specified value to both the cache and the
  * underlying data source (repository) every time a write operation is performed.
+ * <p>
+ * With batching enabled, {@link #writeAsync} updates the cache right away and
+ * hands the repository write to a group commit: writes issued within the batch
+ * window are merged into a single {@link ICacheRepository#putAll(Map)} call,
+ * and each caller's future completes once its batch has been written. A key
+ * removed from the cache and the repository is dropped from the open batch
+ * first, so its pending write cannot land after the deletion.
  *
  * @param <K> the type of keys maintained by this writing policy
  * @param <V> the type of values maintained by this writing policy
@@ -18,10 +28,33 @@ public class WriteAlwaysPolicy<K, V> implements IWritingPolicy<K, V> {
 
     private static final Logger logger = Logger.getLogger(WriteAlwaysPolicy.class.getName());
 
+    private final WriteCoalescer<K, V> coalescer;
+
+    /**
+     * Constructs a new WriteAlwaysPolicy that writes every value to the
+     * repository synchronously.
+     */
+    public WriteAlwaysPolicy() {
+        this(0, 0);
+    }
+
+    /**
+     * Constructs a new WriteAlwaysPolicy that batches concurrent repository
+     * writes. Batching is disabled if either argument is not positive.
+     *
+     * @param batchWindowMillis how long a batch collects writes before it is committed, in milliseconds
+     * @param maxBatchSize the number of distinct keys after which a batch is committed early
+     */
+    public WriteAlwaysPolicy(long batchWindowMillis, int maxBatchSize) {
+        this.coalescer = batchWindowMillis > 0 && maxBatchSize > 0
+                ? new WriteCoalescer<>(batchWindowMillis, maxBatchSize, RepositoryExecutors.shared())
+                : null;
+    }
+
     /**
      * Writes the specified value associated with the specified key to the cache map
      * and the underlying repository. This policy ensures that the value is always
-     * written to both locations.
+     * written to both locations before returning, even when batching is enabled.
      *
      * @param cacheMap the cache map to write the entry to
      * @param key the key with which the specified value is to be associated
@@ -31,6 +64,14 @@ public class WriteAlwaysPolicy<K, V> implements IWritingPolicy<K, V> {
      */
     @Override
     public V write(Map<K, V> cacheMap, K key, V value, ICacheRepository<K, V> repository) {
+        if (this.coalescer != null) {
+            try {
+                return writeAsync(cacheMap, key, value, repository).join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException ? (RuntimeException) e.getCause() : e;
+            }
+        }
+
         cacheMap.put(key, value);
         repository.put(key, value);
 
@@ -38,4 +79,52 @@ public class WriteAlwaysPolicy<K, V> implements IWritingPolicy<K, V> {
 
         return value;
     }
+
+    /**
+     * Writes the specified value to the cache map and, with batching enabled,
+     * queues the repository write in the current batch instead of performing it.
+     *
+     * @param cacheMap the cache map to write the entry to
+     * @param key the key with which the specified value is to be associated
+     * @param value the value to be associated with the specified key
+     * @param repository the repository to write the entry to
+     * @return a future completed with the written value once the batch holding it has been committed
+     */
+    @Override
+    public CompletableFuture<V> writeAsync(Map<K, V> cacheMap, K key, final V value, ICacheRepository<K, V> repository) {
+        if (this.coalescer == null) {
+            return CompletableFuture.completedFuture(write(cacheMap, key, value, repository));
+        }
+
+        cacheMap.put(key, value);
+
+        logger.log(Level.INFO, "Written key: {0} to cache, queued for batched write to data source", key);
+
+        return this.coalescer.submit(repository, key, value).thenApply(ignored -> value);
+    }
+
+    /**
+     * Drops the pending batched write of the key, or waits for the batch
+     * already committing it, so that the write cannot reach the repository
+     * after the key has been deleted from it. A dropped write's caller is
+     * completed with the batch, as the deletion supersedes its value.
+     *
+     * @param key the key of the entry being removed
+     */
+    @Override
+    public void onRemove(K key) {
+        if (this.coalescer != null) {
+            this.coalescer.discard(key).join();
+        }
+    }
+
+    /**
+     * Commits the current batch without waiting for its window to end.
+     *
+     * @return a future completed once every write queued so far has been committed
+     */
+    @Override
+    public CompletableFuture<Void> flush() {
+        return this.coalescer != null ? this.coalescer.flush() : CompletableFuture.completedFuture(null);
+    }
 }
@@ -0,0 +1,359 @@
+package org.swiftcache.writingpolicy;
+
+import org.swiftcache.cacherepository.ICacheRepository;
+import org.swiftcache.utils.RepositoryExecutors;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * An implementation of the IWritingPolicy interface that uses the Write Back
+ * policy. A write only updates the cache and marks the entry dirty. Dirty
+ * entries are written to the repository when they are evicted, when the
+ * policy is flushed, and, if a maximum age is set, once they have been dirty
+ * for that long.
+ * <p>
+ * Repeated writes to a dirty entry only replace its pending value, so a key
+ * updated many times between two flushes is written to the repository once.
+ * A flush writes the dirty entries of each repository in one batched
+ * {@link ICacheRepository#putAll(Map)} call. An entry written again while it
+ * is being flushed stays dirty with its newer value.
+ * <p>
+ * A dirty entry is written when it is evicted, on the shared repository
+ * executor, because the cache evicts while holding its lock: evictions,
+ * invalidations and clears never wait for the repository. A read that misses
+ * while the write of its evicted value is still in progress may load the
+ * previous value from the repository. Removing an entry discards its pending
+ * value. If a repository write fails, the entries stay dirty and are retried
+ * on the next flush.
+ * <p>
+ * Repository writes are serialized per key, not across the policy: a flush
+ * claims the entries it writes, and does its I/O without holding any lock.
+ * The write of an evicted key is queued behind a write of that same key in
+ * progress, and a removal waits for it, so an older value never lands after a
+ * newer one and a removed value never reaches the repository after its
+ * removal.
+ * Until they are flushed, dirty values exist only in memory: close the policy,
+ * or shut the cache down, to write them before the application exits.
+ *
+ * @param <K> the type of keys maintained by this writing policy
+ * @param <V> the type of values maintained by this writing policy
+ */
+public class WriteBackPolicy<K, V> implements IWritingPolicy<K, V> {
+
+    private static final Logger logger = Logger.getLogger(WriteBackPolicy.class.getName());
+
+    private static final ScheduledExecutorService flusher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "swiftcache-write-back");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final long maxAgeNanos;
+
+    private final Map<K, Dirty<K, V>> dirty;
+
+    private final Map<K, CompletableFuture<Void>> inFlight;
+
+    private final ScheduledFuture<?> ageFlush;
+
+    /**
+     * Constructs a new WriteBackPolicy that writes dirty entries only when
+     * they are evicted or the policy is flushed.
+     */
+    public WriteBackPolicy() {
+        this(0);
+    }
+
+    /**
+     * Constructs a new WriteBackPolicy that also writes entries that have
+     * been dirty for longer than the specified age. The age is checked at
+     * half its length, so an entry may stay dirty for up to one and a half
+     * times the maximum age.
+     *
+     * @param maxAgeMillis how long an entry may stay dirty, in milliseconds, or 0 for no limit
+     */
+    public WriteBackPolicy(long maxAgeMillis) {
+        if (maxAgeMillis < 0) {
+            throw new IllegalArgumentException("maxAgeMillis must not be negative: " + maxAgeMillis);
+        }
+
+        this.maxAgeNanos = TimeUnit.MILLISECONDS.toNanos(maxAgeMillis);
+        this.dirty = new ConcurrentHashMap<>();
+        this.inFlight = new ConcurrentHashMap<>();
+        if (maxAgeMillis > 0) {
+            long period = Math.max(1, maxAgeMillis / 2);
+            this.ageFlush = flusher.scheduleAtFixedRate(this::flushExpired, period, period, TimeUnit.MILLISECONDS);
+        } else {
+            this.ageFlush = null;
+        }
+    }
+
+    /**
+     * Writes the specified value associated with the specified key to the cache map
+     * and marks the entry dirty. The repository is written later.
+     *
+     * @param cacheMap the cache map to write the entry to
+     * @param key the key with which the specified value is to be associated
+     * @param value the value to be associated with the specified key
+     * @param repository the repository the entry is written back to
+     * @return the previous value associated with the key, or null if there was no mapping for the key
+     */
+    @Override
+    public V write(Map<K, V> cacheMap, K key, V value, ICacheRepository<K, V> repository) {
+        V previous = cacheMap.put(key, value);
+        // An entry stays as old as its first unflushed write, so a hot key still reaches the repository
+        this.dirty.merge(key, new Dirty<>(repository, value, System.nanoTime()),
+                (current, update) -> new Dirty<>(update.repository, update.value, current.dirtySinceNanos));
+
+        logger.log(Level.INFO, "Written key: {0} to cache, marked dirty", key);
+
+        return previous;
+    }
+
+    /**
+     * Queues the write of the pending value of the evicted key, if any, on the
+     * repository executor, after a write of the same key in progress. Returns
+     * without waiting for the repository.
+     *
+     * @param key the key of the entry that left the cache
+     */
+    @Override
+    public void onEvict(K key) {
+        if (!this.dirty.containsKey(key)) {
+            return;
+        }
+
+        final CompletableFuture<Void> claim = new CompletableFuture<>();
+        // Taking over the claim, instead of waiting for it, queues the write behind the current one
+        CompletableFuture<Void> previous = this.inFlight.put(key, claim);
+        CompletableFuture<Void> ready = previous != null ? previous : CompletableFuture.completedFuture(null);
+        ready.whenCompleteAsync((ignored, error) -> writeEvicted(key, claim), RepositoryExecutors.shared());
+    }
+
+    /**
+     * Discards the pending value of the removed key. Waits for a write of the
+     * key in progress, so the value cannot reach the repository after the
+     * removal.
+     *
+     * @param key the key of the entry being removed
+     */
+    @Override
+    public void onRemove(K key) {
+        CompletableFuture<Void> claim = claim(key);
+        try {
+            this.dirty.remove(key);
+        } finally {
+            release(key, claim);
+        }
+    }
+
+    /**
+     * Writes every dirty entry to the repository, on the calling thread.
+     *
+     * @return a future completed once the dirty entries have been written, or completed
+     *         exceptionally if a repository write failed
+     */
+    @Override
+    public CompletableFuture<Void> flush() {
+        CompletableFuture<Void> flushed = new CompletableFuture<>();
+        try {
+            flushOlderThan(Long.MAX_VALUE);
+            flushed.complete(null);
+        } catch (RuntimeException e) {
+            flushed.completeExceptionally(e);
+        }
+        return flushed;
+    }
+
+    /**
+     * Stops the age-based flush and writes every dirty entry to the
+     * repository.
+     */
+    @Override
+    public void close() {
+        if (this.ageFlush != null) {
+            this.ageFlush.cancel(false);
+        }
+        flush().join();
+    }
+
+    /**
+     * Returns the number of entries written to the cache but not to the
+     * repository yet.
+     *
+     * @return the number of dirty entries
+     */
+    public int getDirtyCount() {
+        return this.dirty.size();
+    }
+
+    private void writeEvicted(K key, CompletableFuture<Void> claim) {
+        try {
+            // The latest pending value, in case the key was written again since its eviction
+            Dirty<K, V> entry = this.dirty.get(key);
+            if (entry == null) {
+                return;
+            }
+
+            entry.repository.put(key, entry.value);
+            this.dirty.remove(key, entry);
+
+            logger.log(Level.INFO, "Evicted key: {0} written back to data source", key);
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Write back of evicted key " + key + " failed, kept dirty", e);
+        } finally {
+            release(key, claim);
+        }
+    }
+
+    private void flushExpired() {
+        try {
+            flushOlderThan(this.maxAgeNanos);
+        } catch (RuntimeException e) {
+            logger.log(Level.WARNING, "Write back of expired entries failed, kept dirty", e);
+        }
+    }
+
+    /**
+     * Writes the entries that have been dirty for at least the specified age,
+     * in one batch per repository. The entries are claimed first, so the
+     * repository I/O runs without any lock, and entries whose key is being
+     * written by someone else are left for later. A full flush waits for those
+     * writes and then flushes again, so it returns once every entry dirty at
+     * its start has been written.
+     *
+     * @param ageNanos the minimum age of the entries to write, or Long.MAX_VALUE for all entries
+     */
+    private void flushOlderThan(long ageNanos) {
+        while (true) {
+            long now = System.nanoTime();
+            Map<ICacheRepository<K, V>, Map<K, V>> batches = new IdentityHashMap<>();
+            List<Claimed<K, V>> claimed = new ArrayList<>();
+            List<CompletableFuture<Void>> busy = new ArrayList<>();
+            for (Map.Entry<K, Dirty<K, V>> entry : this.dirty.entrySet()) {
+                K key = entry.getKey();
+                Dirty<K, V> pending = entry.getValue();
+                if (ageNanos != Long.MAX_VALUE && now - pending.dirtySinceNanos < ageNanos) {
+                    continue;
+                }
+                CompletableFuture<Void> claim = new CompletableFuture<>();
+                CompletableFuture<Void> current = this.inFlight.putIfAbsent(key, claim);
+                if (current != null) {
+                    busy.add(current);
+                    continue;
+                }
+                if (this.dirty.get(key) != pending) {
+                    // Written or removed since it was read, left for the next flush
+                    release(key, claim);
+                    continue;
+                }
+                batches.computeIfAbsent(pending.repository, repository -> new LinkedHashMap<>())
+                        .put(key, pending.value);
+                claimed.add(new Claimed<>(key, pending, claim));
+            }
+
+            RuntimeException failure = null;
+            Set<ICacheRepository<K, V>> failed = Collections.newSetFromMap(new IdentityHashMap<>());
+            for (Map.Entry<ICacheRepository<K, V>, Map<K, V>> batch : batches.entrySet()) {
+                try {
+                    batch.getKey().putAll(batch.getValue());
+                } catch (RuntimeException e) {
+                    // The entries of this batch stay dirty
+                    failed.add(batch.getKey());
+                    failure = failure == null ? e : failure;
+                }
+            }
+            int written = 0;
+            for (Claimed<K, V> entry : claimed) {
+                if (!failed.contains(entry.pending.repository)) {
+                    // Entries written again during the flush keep their newer value dirty
+                    this.dirty.remove(entry.key, entry.pending);
+                    written++;
+                }
+                release(entry.key, entry.claim);
+            }
+            if (written > 0) {
+                logger.log(Level.INFO, "{0} dirty entries written back to data source", written);
+            }
+            if (failure != null) {
+                throw failure;
+            }
+
+            if (ageNanos != Long.MAX_VALUE || busy.isEmpty()) {
+                return;
+            }
+            CompletableFuture.allOf(busy.toArray(new CompletableFuture<?>[0])).join();
+        }
+    }
+
+    /**
+     * Claims the right to write the specified key to the repository, waiting
+     * for a write of the key in progress to finish first.
+     *
+     * @param key the key to claim
+     * @return the claim, to be passed to {@link #release(Object, CompletableFuture)}
+     */
+    private CompletableFuture<Void> claim(K key) {
+        CompletableFuture<Void> claim = new CompletableFuture<>();
+        CompletableFuture<Void> current;
+        while ((current = this.inFlight.putIfAbsent(key, claim)) != null) {
+            current.join();
+        }
+        return claim;
+    }
+
+    private void release(K key, CompletableFuture<Void> claim) {
+        this.inFlight.remove(key, claim);
+        claim.complete(null);
+    }
+
+    /**
+     * A dirty entry claimed by a flush.
+     */
+    private static final class Claimed<K, V> {
+
+        private final K key;
+
+        private final Dirty<K, V> pending;
+
+        private final CompletableFuture<Void> claim;
+
+        Claimed(K key, Dirty<K, V> pending, CompletableFuture<Void> claim) {
+            this.key = key;
+            this.pending = pending;
+            this.claim = claim;
+        }
+    }
+
+    /**
+     * A value written to the cache but not to its repository yet.
+     */
+    private static final class Dirty<K, V> {
+
+        private final ICacheRepository<K, V> repository;
+
+        private final V value;
+
+        private final long dirtySinceNanos;
+
+        Dirty(ICacheRepository<K, V> repository, V value, long dirtySinceNanos) {
+            this.repository = repository;
+            this.value = value;
+            this.dirtySinceNanos = dirtySinceNanos;
+        }
+    }
+}
@@ -1,8 +1,10 @@
 package org.swiftcache.writingpolicy;
 
 import org.swiftcache.cacherepository.ICacheRepository;
+import org.swiftcache.utils.RepositoryExecutors;
 
 import java.util.Map;
+import java.util.concurrent.Executor;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
@@ -10,7 +12,8 @@ import java.util.logging.Logger;
  * An implementation of the IWritingPolicy interface that uses the Write Behind
  * policy. This policy writes the specified value to the cache immediately and
  * queues the write operation to the underlying data source (repository) to be
- * executed asynchronously in a background thread.
+ * executed asynchronously in the background. Writes run on the shared
+ * repository executor unless another executor is given.
  *
  * @param <K> the type of keys maintained by this writing policy
  * @param <V> the type of values maintained by this writing policy
@@ -19,10 +22,30 @@ public class WriteBehindPolicy<K, V> implements IWritingPolicy<K, V> {
 
     private static final Logger logger = Logger.getLogger(WriteBehindPolicy.class.getName());
 
+    private final Executor executor;
+
+    /**
+     * Constructs a new WriteBehindPolicy that writes to the repository on the
+     * shared repository executor.
+     */
+    public WriteBehindPolicy() {
+        this(null);
+    }
+
+    /**
+     * Constructs a new WriteBehindPolicy that writes to the repository on the
+     * specified executor.
+     *
+     * @param executor the executor running the repository writes, or null for the shared repository executor
+     */
+    public WriteBehindPolicy(Executor executor) {
+        this.executor = executor != null ? executor : RepositoryExecutors.shared();
+    }
+
     /**
      * Writes the specified value associated with the specified key to the cache map
      * immediately. The write to the underlying repository is performed asynchronously
-     * in a background thread.
+     * in the background.
      *
      * @param cacheMap the cache map to write the entry to
      * @param key the key with which the specified value is to be associated
@@ -35,12 +58,12 @@ public class WriteBehindPolicy<K, V> implements IWritingPolicy<K, V> {
         // Update the cache first
         cacheMap.put(key, value);
 
-        // Update the data source asynchronously in a background thread
-        new Thread(() -> {
+        // Update the data source asynchronously in the background
+        this.executor.execute(() -> {
             repository.put(key, value);
 
             logger.log(Level.INFO, "Written key: {0} to cache, queued for background write to data source", key);
-        }).start();
+        });
 
         return value;
     }
@@ -0,0 +1,227 @@
+package org.swiftcache.writingpolicy;
+
+import org.swiftcache.cacherepository.ICacheRepository;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Merges repository writes issued within a short window into a single batched
+ * {@link ICacheRepository#putAll(Map)} call (group commit).
+ * <p>
+ * The first write of a batch opens it and schedules its commit at the end of
+ * the window. A batch that reaches the maximum size is committed right away.
+ * Writes to the same key within a batch are merged and the last value wins.
+ * Batches are committed one after the other, in the order they were opened,
+ * so a later value never gets overwritten by an earlier one. A key about to
+ * be deleted from the repository is dropped from the open batch, and its
+ * deletion waits for a batch already being committed with it (see
+ * {@link #discard(Object)}), so a batched write never brings it back.
+ *
+ * @param <K> the type of keys written by this coalescer
+ * @param <V> the type of values written by this coalescer
+ */
+final class WriteCoalescer<K, V> {
+
+    private static final Logger logger = Logger.getLogger(WriteCoalescer.class.getName());
+
+    private static final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "swiftcache-write-coalescer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final long windowMillis;
+
+    private final int maxBatchSize;
+
+    private final Executor executor;
+
+    private Batch<K, V> openBatch;
+
+    private CompletableFuture<Void> lastCommit;
+
+    private final Deque<Batch<K, V>> committing;
+
+    /**
+     * Constructs a new WriteCoalescer.
+     *
+     * @param windowMillis how long a batch stays open for more writes, in milliseconds
+     * @param maxBatchSize the number of writes after which a batch is committed early
+     * @param executor the executor running the batched repository writes
+     */
+    WriteCoalescer(long windowMillis, int maxBatchSize, Executor executor) {
+        this.windowMillis = windowMillis;
+        this.maxBatchSize = maxBatchSize;
+        this.executor = executor;
+        this.lastCommit = CompletableFuture.completedFuture(null);
+        this.committing = new ArrayDeque<>();
+    }
+
+    /**
+     * Adds a write to the open batch, opening a new one if needed.
+     *
+     * @param repository the repository to write to
+     * @param key the key to write
+     * @param value the value to write
+     * @return a future completed once the batch holding the write has been committed
+     */
+    synchronized CompletableFuture<Void> submit(ICacheRepository<K, V> repository, K key, V value) {
+        Batch<K, V> batch = this.openBatch;
+        if (batch == null) {
+            batch = new Batch<>();
+            this.openBatch = batch;
+
+            final Batch<K, V> scheduled = batch;
+            timer.schedule(() -> close(scheduled), this.windowMillis, TimeUnit.MILLISECONDS);
+        }
+
+        CompletableFuture<Void> completion = batch.add(repository, key, value);
+        if (batch.size >= this.maxBatchSize) {
+            commit(batch);
+        }
+
+        return completion;
+    }
+
+    /**
+     * Commits the open batch right away, without waiting for its window to end.
+     *
+     * @return a future completed once every batch submitted so far has been committed
+     */
+    synchronized CompletableFuture<Void> flush() {
+        if (this.openBatch != null) {
+            commit(this.openBatch);
+        }
+        return this.lastCommit;
+    }
+
+    /**
+     * Drops the writes of a key from the open batch, before the key is
+     * deleted from the repository. A batch that is already being committed
+     * cannot drop its writes, so the deletion has to wait for it.
+     *
+     * @param key the key about to be deleted
+     * @return a future completed once no batch being committed holds a write of the key
+     */
+    synchronized CompletableFuture<Void> discard(K key) {
+        if (this.openBatch != null) {
+            this.openBatch.discard(key);
+        }
+
+        CompletableFuture<Void> written = CompletableFuture.completedFuture(null);
+        for (Batch<K, V> batch : this.committing) {
+            if (batch.holds(key)) {
+                written = batch.written;
+            }
+        }
+        return written;
+    }
+
+    private synchronized void close(Batch<K, V> batch) {
+        // The batch may already have been committed because it filled up or was flushed
+        if (this.openBatch == batch) {
+            commit(batch);
+        }
+    }
+
+    private void commit(final Batch<K, V> batch) {
+        this.openBatch = null;
+        this.committing.add(batch);
+        // Chaining on the previous commit keeps batches in order without blocking the submitters
+        this.lastCommit = this.lastCommit.handleAsync((ignored, error) -> {
+            batch.commit();
+            committed(batch);
+            return null;
+        }, this.executor);
+        batch.written = this.lastCommit;
+    }
+
+    private synchronized void committed(Batch<K, V> batch) {
+        this.committing.remove(batch);
+    }
+
+    /**
+     * The writes collected during one window, grouped by repository.
+     */
+    private static final class Batch<K, V> {
+
+        private final Map<ICacheRepository<K, V>, Group<K, V>> groups = new IdentityHashMap<>();
+
+        private int size;
+
+        /** Completed once the batch has been committed; set when it is handed to the executor. */
+        private CompletableFuture<Void> written;
+
+        CompletableFuture<Void> add(ICacheRepository<K, V> repository, K key, V value) {
+            Group<K, V> group = this.groups.get(repository);
+            if (group == null) {
+                group = new Group<>();
+                this.groups.put(repository, group);
+            }
+
+            if (group.writes.put(key, value) == null) {
+                this.size++;
+            }
+            return group.completion;
+        }
+
+        void discard(K key) {
+            for (Group<K, V> group : this.groups.values()) {
+                if (group.writes.remove(key) != null) {
+                    this.size--;
+                }
+            }
+        }
+
+        boolean holds(K key) {
+            for (Group<K, V> group : this.groups.values()) {
+                if (group.writes.containsKey(key)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        void commit() {
+            for (Map.Entry<ICacheRepository<K, V>, Group<K, V>> entry : this.groups.entrySet()) {
+                Group<K, V> group = entry.getValue();
+                if (group.writes.isEmpty()) {
+                    // Every write of the group was discarded
+                    group.completion.complete(null);
+                    continue;
+                }
+                try {
+                    entry.getKey().putAll(group.writes);
+                    group.completion.complete(null);
+
+                    logger.log(Level.INFO, "Committed batch of {0} writes to data source", group.writes.size());
+                } catch (RuntimeException e) {
+                    group.completion.completeExceptionally(e);
+
+                    logger.log(Level.WARNING, "Batched write of " + group.writes.size() + " keys failed", e);
+                }
+            }
+        }
+    }
+
+    /**
+     * The merged writes of one batch to a single repository.
+     */
+    private static final class Group<K, V> {
+
+        private final Map<K, V> writes = new LinkedHashMap<>();
+
+        private final CompletableFuture<Void> completion = new CompletableFuture<>();
+    }
+}
@@ -30,15 +30,15 @@ public class WriteIfAbsentPolicy<K, V> implements IWritingPolicy<K, V> {
      */
     @Override
     public V write(Map<K, V> cacheMap, K key, V value, ICacheRepository<K, V> repository) {
-
-        if (cacheMap.containsKey(key)) {
+        // A single putIfAbsent is atomic on concurrent maps, unlike containsKey followed by put
+        V existing = cacheMap.putIfAbsent(key, value);
+        if (existing != null) {
             logger.log(Level.INFO, "Key: {0} already exists in cache (Write-If-Absent)", key);
 
-            return cacheMap.get(key);
+            return existing;
         }
 
-        // Key not present in cache, so write to both cache and data source
-        cacheMap.put(key, value);
+        // Key was not present in cache, so write it to the data source too
         repository.put(key, value);
 
         logger.log(Level.INFO, "Written key: {0} to cache and data source (Write-If-Absent)", key);
@@ -0,0 +1,63 @@
+package org.swiftcache;
+
+import org.junit.jupiter.api.Test;
+import org.swiftcache.cache.SwiftCacheConfig;
+import org.swiftcache.evictionstrategy.LRUEvictionStrategy;
+import org.swiftcache.simulator.CacheSimulator;
+import org.swiftcache.simulator.SimulationResult;
+import org.swiftcache.simulator.TraceGenerator;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the CacheSimulator class. This class tests that traces are
+ * replayed against every strategy and capacity, and that the reported hit
+ * ratios match the known behavior of the strategies.
+ */
+class CacheSimulatorTest {
+
+    /**
+     * Tests that one result is produced per strategy and capacity, in order.
+     */
+    @Test
+    void testRunProducesResultPerStrategyAndCapacity() {
+        CacheSimulator simulator = new CacheSimulator(CacheSimulator.builtInStrategies(), 2, 10, 20);
+
+        List<SimulationResult> results = simulator.run(TraceGenerator.zipf(200, 50, 1.0, 42));
+
+        assertEquals(CacheSimulator.builtInStrategies().size() * 2, results.size());
+        assertEquals(SwiftCacheConfig.FIFO_EVICTION_STRATEGY, results.get(0).getStrategy());
+        assertEquals(10, results.get(0).getCapacity());
+        assertEquals(20, results.get(1).getCapacity());
+        for (SimulationResult result : results) {
+            assertEquals(200, result.getHits() + result.getMisses());
+        }
+    }
+
+    /**
+     * Tests that a loop larger than the cache never hits under LRU, while a
+     * loop that fits only misses on the first pass.
+     */
+    @Test
+    void testLoopHitRatioUnderLRU() {
+        long[] trace = TraceGenerator.loop(100, 10);
+
+        SimulationResult tooSmall = CacheSimulator.simulate("LRU", new LRUEvictionStrategy<>(), 9, trace);
+        SimulationResult largeEnough = CacheSimulator.simulate("LRU", new LRUEvictionStrategy<>(), 10, trace);
+
+        assertEquals(0, tooSmall.getHits());
+        assertEquals(10, largeEnough.getMisses());
+        assertEquals(0.9, largeEnough.getHitRatio(), 1e-9);
+    }
+
+    /**
+     * Tests that invalid capacities are rejected.
+     */
+    @Test
+    void testInvalidCapacityThrows() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new CacheSimulator(CacheSimulator.builtInStrategies(), 0));
+    }
+}
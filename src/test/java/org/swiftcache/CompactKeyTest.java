@@ -0,0 +1,134 @@
+package org.swiftcache;
+
+import org.junit.jupiter.api.Test;
+import org.swiftcache.cache.SwiftCache;
+import org.swiftcache.cache.SwiftCacheConfig;
+import org.swiftcache.cacherepository.CompactKeyRepository;
+import org.swiftcache.cacherepository.ICacheRepository;
+import org.swiftcache.evictionstrategy.LRUEvictionStrategy;
+import org.swiftcache.readingpolicy.ReadThroughPolicy;
+import org.swiftcache.utils.CompactKey;
+import org.swiftcache.writingpolicy.WriteAlwaysPolicy;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the CompactKey and CompactKeyRepository classes. This class
+ * tests that compact keys behave like the strings they encode, and that a
+ * cache keyed by compact keys reads through to a repository with string keys.
+ */
+class CompactKeyTest {
+
+    private static final String URL = "https://example.com/catalog/items/42?lang=fr&currency=EUR";
+
+    /**
+     * Tests that a compact key decodes to the string it was built from,
+     * including characters outside of ASCII.
+     */
+    @Test
+    void testRoundTrip() {
+        String key = URL + "&q=cr\u00e8me br\u00fbl\u00e9e&emoji=\ud83d\ude00";
+
+        CompactKey compact = CompactKey.of(key);
+
+        assertEquals(key, compact.toString());
+        assertEquals(key.getBytes(StandardCharsets.UTF_8).length, compact.length());
+        assertArrayEquals(key.getBytes(StandardCharsets.UTF_8), compact.toBytes());
+    }
+
+    /**
+     * Tests that keys of equal strings are equal and have the same hash and
+     * fingerprint, and that keys of different strings are not equal.
+     */
+    @Test
+    void testEqualsAndHashCode() {
+        CompactKey a = CompactKey.of(URL);
+        CompactKey b = CompactKey.wrap(URL.getBytes(StandardCharsets.UTF_8));
+        CompactKey c = CompactKey.of(URL + "&page=2");
+
+        assertEquals(a, b);
+        assertEquals(a.hashCode(), b.hashCode());
+        assertEquals(a.fingerprint(), b.fingerprint());
+        assertNotEquals(a, c);
+        assertNotEquals(a.fingerprint(), c.fingerprint());
+    }
+
+    /**
+     * Tests that keys differing in a single byte, at any position, get
+     * distinct fingerprints.
+     */
+    @Test
+    void testFingerprintsSpreadSingleByteChanges() {
+        Set<Long> fingerprints = new HashSet<>();
+        byte[] bytes = URL.getBytes(StandardCharsets.UTF_8);
+        fingerprints.add(CompactKey.wrap(bytes.clone()).fingerprint());
+        for (int i = 0; i < bytes.length; i++) {
+            byte[] changed = bytes.clone();
+            changed[i]++;
+            fingerprints.add(CompactKey.wrap(changed).fingerprint());
+        }
+
+        assertEquals(bytes.length + 1, fingerprints.size());
+    }
+
+    /**
+     * Tests that compact keys sort in the order of their strings and that
+     * startsWith matches string prefixes.
+     */
+    @Test
+    void testOrderAndPrefix() {
+        List<String> strings = Arrays.asList("b", "a/2", "a", "a/10", "\u00e9", "z");
+        List<String> sorted = strings.stream().sorted().collect(Collectors.toList());
+
+        List<String> compactSorted = strings.stream().map(CompactKey::of).sorted()
+                .map(CompactKey::toString).collect(Collectors.toList());
+
+        assertEquals(sorted, compactSorted);
+        assertTrue(CompactKey.of(URL).startsWith(CompactKey.of("https://example.com/")));
+        assertFalse(CompactKey.of("https://").startsWith(CompactKey.of(URL)));
+    }
+
+    /**
+     * Tests that writeTo copies the UTF-8 bytes of the key into a buffer.
+     */
+    @Test
+    void testWriteTo() {
+        CompactKey key = CompactKey.of(URL);
+        ByteBuffer buffer = ByteBuffer.allocate(key.length() + 4);
+
+        key.writeTo(buffer);
+
+        assertEquals(key.length(), buffer.position());
+        assertEquals(URL, new String(buffer.array(), 0, buffer.position(), StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Tests that a cache keyed by compact keys loads misses from a
+     * repository with string keys, and serves hits from the cache.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testCacheReadsThroughToStringRepository() {
+        ICacheRepository<String, String> strings = mock(ICacheRepository.class);
+        when(strings.get(URL)).thenReturn("item 42");
+        ICacheRepository<CompactKey, String> repository = new CompactKeyRepository<>(strings);
+        SwiftCache<CompactKey, String> cache = new SwiftCache<>(new SwiftCacheConfig(10, null, null, null),
+                new LRUEvictionStrategy<>(), new WriteAlwaysPolicy<>(), new ReadThroughPolicy<>());
+
+        assertEquals("item 42", cache.get(repository, CompactKey.of(URL)));
+        assertEquals("item 42", cache.get(repository, CompactKey.of(URL)));
+        cache.put(repository, CompactKey.of(URL + "&page=2"), "page 2");
+
+        verify(strings, times(1)).get(URL);
+        verify(strings).put(URL + "&page=2", "page 2");
+    }
+}
@@ -0,0 +1,74 @@
+package org.swiftcache;
+
+import org.junit.jupiter.api.Test;
+import org.swiftcache.membershipfilter.CuckooFilter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the CuckooFilter class. This class tests insertion, lookup,
+ * deletion and growth of the filter.
+ */
+class CuckooFilterTest {
+
+    /**
+     * Tests that every added key is found and that absent keys are rarely
+     * reported as present.
+     */
+    @Test
+    void testAddAndMightContain() {
+        CuckooFilter<Integer> filter = new CuckooFilter<>(10_000);
+
+        for (int i = 0; i < 10_000; i++) {
+            filter.add(i);
+        }
+
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain(i));
+        }
+
+        int falsePositives = 0;
+        for (int i = 10_000; i < 110_000; i++) {
+            if (filter.mightContain(i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives / 100_000.0 < 0.01);
+        assertTrue(filter.expectedFalsePositiveRate() < 0.01);
+    }
+
+    /**
+     * Tests that removed keys are no longer reported while other keys remain.
+     */
+    @Test
+    void testRemove() {
+        CuckooFilter<String> filter = new CuckooFilter<>(100);
+        filter.add("key1");
+        filter.add("key2");
+
+        assertTrue(filter.remove("key1"));
+
+        assertFalse(filter.mightContain("key1"));
+        assertTrue(filter.mightContain("key2"));
+        assertEquals(1, filter.size());
+        assertFalse(filter.remove("key1"));
+    }
+
+    /**
+     * Tests that the filter grows past its initial size without losing keys.
+     */
+    @Test
+    void testGrowsBeyondExpectedInsertions() {
+        CuckooFilter<Integer> filter = new CuckooFilter<>(100);
+
+        for (int i = 0; i < 5_000; i++) {
+            filter.add(i);
+        }
+
+        assertTrue(filter.getTableCount() > 1);
+        assertEquals(5_000, filter.size());
+        for (int i = 0; i < 5_000; i++) {
+            assertTrue(filter.mightContain(i));
+        }
+    }
+}
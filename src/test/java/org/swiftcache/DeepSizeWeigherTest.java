@@ -0,0 +1,182 @@
+package org.swiftcache;
+
+import org.junit.jupiter.api.Test;
+import org.swiftcache.cache.SwiftCache;
+import org.swiftcache.cache.SwiftCacheConfig;
+import org.swiftcache.cacherepository.ICacheRepository;
+import org.swiftcache.evictionstrategy.LRUEvictionStrategy;
+import org.swiftcache.readingpolicy.SimpleReadPolicy;
+import org.swiftcache.utils.DeepSizeWeigher;
+import org.swiftcache.writingpolicy.WriteAlwaysPolicy;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the DeepSizeWeigher class. This class tests that the
+ * estimated sizes grow with the data an object retains, that shared and
+ * cyclic references are counted once, that sampling keeps large collections
+ * close to their full estimate, and that a cache can be bounded in bytes.
+ */
+class DeepSizeWeigherTest {
+
+    private final DeepSizeWeigher<Object, Object> weigher = new DeepSizeWeigher<>();
+
+    /**
+     * A node of a user-defined object graph.
+     */
+    private static final class Node {
+
+        private final long id;
+
+        private final byte[] payload;
+
+        private Node next;
+
+        Node(long id, int payload) {
+            this.id = id;
+            this.payload = new byte[payload];
+        }
+    }
+
+    /**
+     * A user-defined list that keeps an index of its own next to the elements
+     * it inherits from a JDK class.
+     */
+    private static final class IndexedList extends ArrayList<String> {
+
+        private final byte[] index = new byte[10_000];
+    }
+
+    /**
+     * Tests that arrays and strings are estimated from their length, within
+     * the size of a header and padding.
+     */
+    @Test
+    void testArraysAndStrings() {
+        long bytes = weigher.sizeOf(new byte[1000]);
+        long longs = weigher.sizeOf(new long[1000]);
+        long string = weigher.sizeOf(repeat('x', 1000));
+
+        assertTrue(bytes >= 1000 && bytes <= 1032, "byte[1000] is " + bytes);
+        assertTrue(longs >= 8000 && longs <= 8032, "long[1000] is " + longs);
+        assertTrue(string >= 1000 && string <= 2100, "String of 1000 chars is " + string);
+        assertEquals(0, weigher.sizeOf(null));
+    }
+
+    /**
+     * Tests that the objects referenced by fields are counted, and that an
+     * object reachable twice or through a cycle is counted once.
+     */
+    @Test
+    void testGraphsCountSharedObjectsOnce() {
+        Node first = new Node(1, 1000);
+        Node second = new Node(2, 1000);
+        long single = weigher.sizeOf(first);
+
+        first.next = second;
+        long chained = weigher.sizeOf(first);
+        second.next = first;
+        long cyclic = weigher.sizeOf(first);
+
+        assertTrue(single > 1000);
+        assertEquals(2 * single, chained);
+        assertEquals(chained, cyclic);
+        assertEquals(chained, weigher.weigh(first, second)); // The value is reachable from the key
+    }
+
+    /**
+     * Tests that collections and maps count their elements, and that the
+     * estimate of a large collection from a sample stays close to the
+     * estimate of walking every element.
+     */
+    @Test
+    void testCollectionsAreSampled() {
+        List<String> list = new ArrayList<>();
+        Map<Integer, String> map = new HashMap<>();
+        for (int i = 0; i < 10_000; i++) {
+            list.add("value number " + i);
+            map.put(i, "value number " + i);
+        }
+
+        long sampled = new DeepSizeWeigher<>(32).sizeOf(list);
+        long full = new DeepSizeWeigher<>(100_000).sizeOf(list);
+        long sampledMap = new DeepSizeWeigher<>(32).sizeOf(map);
+        long fullMap = new DeepSizeWeigher<>(100_000).sizeOf(map);
+
+        assertTrue(full > 10_000 * 30, "list is " + full);
+        assertEquals(full, sampled, full * 0.1);
+        assertTrue(fullMap > full);
+        assertEquals(fullMap, sampledMap, fullMap * 0.1);
+    }
+
+    /**
+     * Tests that a collection that can only be iterated is estimated from its
+     * first elements, close to the estimate of walking every element.
+     */
+    @Test
+    void testIteratedCollectionsAreSampledFromTheirHead() {
+        List<String> list = new LinkedList<>();
+        for (int i = 0; i < 10_000; i++) {
+            list.add("value number " + (10_000 + i));
+        }
+
+        long sampled = new DeepSizeWeigher<>(32).sizeOf(list);
+        long full = new DeepSizeWeigher<>(100_000).sizeOf(list);
+
+        assertTrue(full > 10_000 * 30, "list is " + full);
+        assertEquals(full, sampled, full * 0.1);
+    }
+
+    /**
+     * Tests that a class extending a JDK collection counts both the fields it
+     * declares and the elements of the collection.
+     */
+    @Test
+    void testSubclassOfJdkCollectionFollowsItsOwnFields() {
+        IndexedList list = new IndexedList();
+        for (int i = 0; i < 100; i++) {
+            list.add(repeat('x', 100));
+        }
+
+        long size = weigher.sizeOf(list);
+
+        assertTrue(size > 10_000 + 100 * 100, "list is " + size);
+    }
+
+    /**
+     * Tests that a cache bounded in bytes with the weigher keeps its
+     * estimated size under the limit.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testCacheBoundedInBytes() {
+        SwiftCacheConfig config = new SwiftCacheConfig(1000, null, null, null);
+        config.setMaxWeight(50_000, new DeepSizeWeigher<String, byte[]>());
+        SwiftCache<String, byte[]> cache = new SwiftCache<>(config, new LRUEvictionStrategy<>(),
+                new WriteAlwaysPolicy<>(), new SimpleReadPolicy<>());
+        ICacheRepository<String, byte[]> repository = mock(ICacheRepository.class);
+
+        for (int i = 0; i < 100; i++) {
+            cache.put(repository, "key" + i, new byte[1000]);
+        }
+
+        assertTrue(cache.weight() <= 50_000);
+        assertTrue(cache.size() >= 40 && cache.size() < 50, "holds " + cache.size() + " entries");
+        assertFalse(DeepSizeWeigher.isInstrumented());
+    }
+
+    private static String repeat(char c, int count) {
+        StringBuilder builder = new StringBuilder(count);
+        for (int i = 0; i < count; i++) {
+            builder.append(c);
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,39 @@
+package org.swiftcache;
+
+import org.junit.jupiter.api.Test;
+import org.swiftcache.simulator.CacheSimulator;
+import org.swiftcache.simulator.FootprintBenchmark;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the FootprintBenchmark class. The measured sizes depend on
+ * the JVM and the collector, so only the shape of the report is checked.
+ */
+class FootprintBenchmarkTest {
+
+    /**
+     * Tests that every configuration is measured and reported in order.
+     */
+    @Test
+    void testRunReportsEveryConfiguration() {
+        Map<String, Double> results = new FootprintBenchmark(1000).run();
+
+        assertEquals(4 + CacheSimulator.builtInStrategies().size(), results.size());
+        assertEquals("VersionedMap", results.keySet().iterator().next());
+        assertTrue(results.containsKey("SwiftCache LRU"));
+        for (double bytesPerEntry : results.values()) {
+            assertFalse(Double.isNaN(bytesPerEntry));
+        }
+    }
+
+    /**
+     * Tests that a benchmark without entries is rejected.
+     */
+    @Test
+    void testRejectsEmptyBenchmark() {
+        assertThrows(IllegalArgumentException.class, () -> new FootprintBenchmark(0));
+    }
+}
@@ -0,0 +1,164 @@
+package org.swiftcache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.swiftcache.evictionstrategy.GDSFEvictionStrategy;
+
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the GDSFEvictionStrategy class. This class tests that load
+ * cost, size and frequency together decide which entry is evicted, and that
+ * the clock lets new entries outlive stale ones.
+ */
+class GDSFEvictionStrategyTest {
+
+    private GDSFEvictionStrategy<String, String> gdsfEvictionStrategy;
+    private Map<String, String> cacheMap;
+    private Queue<String> evictionQueue;
+
+    /**
+     * Sets up the test environment before each test case. Initializes the
+     * GDSF eviction strategy, cache map, and eviction queue.
+     */
+    @BeforeEach
+    void setUp() {
+        gdsfEvictionStrategy = new GDSFEvictionStrategy<>();
+        cacheMap = new ConcurrentHashMap<>();
+        evictionQueue = new LinkedList<>();
+    }
+
+    private void load(GDSFEvictionStrategy<String, String> strategy, String key, String value, long loadNanos) {
+        cacheMap.put(key, value);
+        strategy.onLoad(key, value, loadNanos);
+        strategy.updateQueue(key, evictionQueue);
+    }
+
+    /**
+     * Tests that the entry that was cheapest to load is evicted first, even
+     * if it was accessed more often.
+     */
+    @Test
+    void testEvictRemovesCheapestItem() {
+        load(gdsfEvictionStrategy, "expensive", "value", 800_000_000L);
+        load(gdsfEvictionStrategy, "cheap", "value", 2_000_000L);
+        gdsfEvictionStrategy.updateQueue("cheap", evictionQueue);
+
+        gdsfEvictionStrategy.evict(cacheMap, evictionQueue);
+
+        assertFalse(cacheMap.containsKey("cheap"));
+        assertTrue(cacheMap.containsKey("expensive"));
+        assertTrue(evictionQueue.isEmpty()); // The shared queue is never used
+    }
+
+    /**
+     * Tests that frequency multiplies the cost, so a frequently used entry
+     * outlives a slightly more expensive one accessed once.
+     */
+    @Test
+    void testFrequencyRaisesPriority() {
+        load(gdsfEvictionStrategy, "frequent", "value", 1_000_000L);
+        load(gdsfEvictionStrategy, "rare", "value", 2_000_000L);
+        for (int i = 0; i < 4; i++) {
+            gdsfEvictionStrategy.updateQueue("frequent", evictionQueue);
+        }
+
+        gdsfEvictionStrategy.evict(cacheMap, evictionQueue);
+
+        assertFalse(cacheMap.containsKey("rare"));
+    }
+
+    /**
+     * Tests that the cost is divided by the size computed by the weigher, so
+     * a large entry is evicted before a small one of equal cost.
+     */
+    @Test
+    void testSizeLowersPriority() {
+        GDSFEvictionStrategy<String, String> weighted = new GDSFEvictionStrategy<>((key, value) -> value.length());
+        load(weighted, "large", "a much longer value", 1_000_000L);
+        load(weighted, "small", "v", 1_000_000L);
+
+        weighted.evict(cacheMap, evictionQueue);
+
+        assertFalse(cacheMap.containsKey("large"));
+    }
+
+    /**
+     * Tests that the clock rises to the priority of each evicted entry, so a
+     * new entry starts above an expensive entry that is no longer accessed.
+     */
+    @Test
+    void testClockAgesOutStaleEntries() {
+        load(gdsfEvictionStrategy, "stale", "value", 10_000_000L);
+        load(gdsfEvictionStrategy, "victim1", "value", 9_000_000L);
+        gdsfEvictionStrategy.evict(cacheMap, evictionQueue); // Clock rises to 9 ms
+
+        load(gdsfEvictionStrategy, "fresh", "value", 2_000_000L); // Priority 9 + 2 ms
+
+        gdsfEvictionStrategy.evict(cacheMap, evictionQueue);
+
+        assertFalse(cacheMap.containsKey("stale"));
+        assertTrue(cacheMap.containsKey("fresh"));
+    }
+
+    /**
+     * Tests that entries put without a load are given the mean observed load
+     * time as their cost.
+     */
+    @Test
+    void testPutEntryUsesMeanLoadCost() {
+        load(gdsfEvictionStrategy, "loaded1", "value", 2_000_000L);
+        load(gdsfEvictionStrategy, "loaded2", "value", 6_000_000L);
+        cacheMap.put("put", "value");
+        gdsfEvictionStrategy.updateQueue("put", evictionQueue);
+
+        assertEquals(4_000_000.0, gdsfEvictionStrategy.meanLoadNanos());
+        assertEquals(4_000_000.0, gdsfEvictionStrategy.getPriority("put"));
+
+        gdsfEvictionStrategy.evict(cacheMap, evictionQueue);
+        assertFalse(cacheMap.containsKey("loaded1"));
+    }
+
+    /**
+     * Tests that a written entry is weighed like a loaded one, so a large
+     * entry that was put is evicted before a small loaded entry of equal cost.
+     */
+    @Test
+    void testWrittenEntryIsWeighed() {
+        GDSFEvictionStrategy<String, String> weighted = new GDSFEvictionStrategy<>((key, value) -> value.length());
+        load(weighted, "small", "v", 1_000_000L);
+        cacheMap.put("large", "a much longer value");
+        weighted.updateQueue("large", "a much longer value", evictionQueue);
+
+        weighted.evict(cacheMap, evictionQueue);
+
+        assertFalse(cacheMap.containsKey("large"));
+        assertTrue(cacheMap.containsKey("small"));
+    }
+
+    /**
+     * Tests that removed, stale and cleared keys are never evicted.
+     */
+    @Test
+    void testRemovedAndStaleKeysAreSkipped() {
+        load(gdsfEvictionStrategy, "key1", "value", 1_000_000L);
+        load(gdsfEvictionStrategy, "key2", "value", 2_000_000L);
+        load(gdsfEvictionStrategy, "key3", "value", 3_000_000L);
+        cacheMap.remove("key1");
+        gdsfEvictionStrategy.remove("key1", evictionQueue);
+        cacheMap.remove("key2"); // Removed behind the strategy's back
+
+        gdsfEvictionStrategy.evict(cacheMap, evictionQueue);
+        assertTrue(cacheMap.isEmpty());
+
+        load(gdsfEvictionStrategy, "key4", "value", 1_000_000L);
+        gdsfEvictionStrategy.clear(evictionQueue);
+        gdsfEvictionStrategy.evict(cacheMap, evictionQueue);
+        assertTrue(cacheMap.containsKey("key4")); // Cleared strategy has nothing to evict
+    }
+}
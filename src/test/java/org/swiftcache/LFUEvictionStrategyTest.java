@@ -0,0 +1,156 @@
+package org.swiftcache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.swiftcache.evictionstrategy.LFUEvictionStrategy;
+
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the LFUEvictionStrategy class. This class tests that the
+ * least frequently used entry is evicted, that ties are broken by age, and
+ * that frequencies are halved after the configured number of accesses.
+ */
+class LFUEvictionStrategyTest {
+
+    private LFUEvictionStrategy<String, String> lfuEvictionStrategy;
+    private Map<String, String> cacheMap;
+    private Queue<String> evictionQueue;
+
+    /**
+     * Sets up the test environment before each test case. Initializes the
+     * LFU eviction strategy, cache map, and eviction queue.
+     */
+    @BeforeEach
+    void setUp() {
+        lfuEvictionStrategy = new LFUEvictionStrategy<>();
+        cacheMap = new ConcurrentHashMap<>();
+        evictionQueue = new LinkedList<>();
+    }
+
+    private void access(LFUEvictionStrategy<String, String> strategy, String key, int times) {
+        cacheMap.put(key, "value");
+        for (int i = 0; i < times; i++) {
+            strategy.updateQueue(key, evictionQueue);
+        }
+    }
+
+    /**
+     * Tests that the entry with the lowest frequency is evicted, even if it
+     * was accessed most recently.
+     */
+    @Test
+    void testEvictRemovesLeastFrequentlyUsedItem() {
+        access(lfuEvictionStrategy, "key1", 3);
+        access(lfuEvictionStrategy, "key2", 2);
+        access(lfuEvictionStrategy, "key3", 1);
+
+        lfuEvictionStrategy.evict(cacheMap, evictionQueue);
+
+        assertFalse(cacheMap.containsKey("key3"));
+        assertEquals(2, cacheMap.size());
+        assertEquals(3, lfuEvictionStrategy.getFrequency("key1"));
+        assertTrue(evictionQueue.isEmpty()); // The shared queue is never used
+    }
+
+    /**
+     * Tests that among entries of equal frequency the one that reached that
+     * frequency first is evicted.
+     */
+    @Test
+    void testTiesAreEvictedOldestFirst() {
+        access(lfuEvictionStrategy, "key1", 2);
+        access(lfuEvictionStrategy, "key2", 1);
+        access(lfuEvictionStrategy, "key3", 1);
+        lfuEvictionStrategy.updateQueue("key2", evictionQueue); // key2 now reaches frequency 2 after key1
+
+        lfuEvictionStrategy.evict(cacheMap, evictionQueue);
+        assertFalse(cacheMap.containsKey("key3"));
+
+        lfuEvictionStrategy.evict(cacheMap, evictionQueue);
+        assertFalse(cacheMap.containsKey("key1"));
+        assertTrue(cacheMap.containsKey("key2"));
+    }
+
+    /**
+     * Tests that halving lets a new key outlive a key that used to be hot,
+     * once the new key is accessed more often than the decayed frequency.
+     */
+    @Test
+    void testDecayHalvesFrequencies() {
+        LFUEvictionStrategy<String, String> decaying = new LFUEvictionStrategy<>(10);
+        access(decaying, "old", 9);
+        access(decaying, "new", 1); // Tenth access halves all frequencies
+
+        assertEquals(4, decaying.getFrequency("old"));
+        assertEquals(1, decaying.getFrequency("new"));
+
+        access(decaying, "new", 4);
+        decaying.evict(cacheMap, evictionQueue);
+
+        assertFalse(cacheMap.containsKey("old"));
+        assertTrue(cacheMap.containsKey("new"));
+    }
+
+    /**
+     * Tests that buckets merged by halving keep the lower original frequency
+     * first in eviction order.
+     */
+    @Test
+    void testDecayMergesBucketsInOrder() {
+        LFUEvictionStrategy<String, String> decaying = new LFUEvictionStrategy<>(6);
+        access(decaying, "key1", 3);
+        access(decaying, "key2", 2);
+        access(decaying, "key3", 1); // Frequencies 3, 2 and 1 all halve to 1
+
+        assertEquals(1, decaying.getFrequency("key1"));
+        assertEquals(1, decaying.getFrequency("key2"));
+
+        decaying.evict(cacheMap, evictionQueue);
+        assertFalse(cacheMap.containsKey("key3"));
+        decaying.evict(cacheMap, evictionQueue);
+        assertFalse(cacheMap.containsKey("key2"));
+        decaying.evict(cacheMap, evictionQueue);
+        assertTrue(cacheMap.isEmpty());
+    }
+
+    /**
+     * Tests that removed keys are no longer tracked and that entries missing
+     * from the cache map are skipped during eviction.
+     */
+    @Test
+    void testRemovedAndStaleKeysAreSkipped() {
+        access(lfuEvictionStrategy, "key1", 1);
+        access(lfuEvictionStrategy, "key2", 1);
+        access(lfuEvictionStrategy, "key3", 2);
+        cacheMap.remove("key1");
+        lfuEvictionStrategy.remove("key1", evictionQueue);
+        cacheMap.remove("key2"); // Removed behind the strategy's back
+
+        lfuEvictionStrategy.evict(cacheMap, evictionQueue);
+
+        assertTrue(cacheMap.isEmpty());
+        assertEquals(0, lfuEvictionStrategy.getFrequency("key1"));
+    }
+
+    /**
+     * Tests that evicting from an empty or cleared strategy does nothing, and
+     * that a negative decay interval is rejected.
+     */
+    @Test
+    void testEvictDoesNothingWhenEmpty() {
+        lfuEvictionStrategy.evict(cacheMap, evictionQueue);
+
+        access(lfuEvictionStrategy, "key1", 1);
+        lfuEvictionStrategy.clear(evictionQueue);
+        lfuEvictionStrategy.evict(cacheMap, evictionQueue);
+
+        assertTrue(cacheMap.containsKey("key1")); // Cleared strategy has nothing to evict
+        assertThrows(IllegalArgumentException.class, () -> new LFUEvictionStrategy<>(-1));
+    }
+}
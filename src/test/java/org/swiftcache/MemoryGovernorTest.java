@@ -0,0 +1,135 @@
+package org.swiftcache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.swiftcache.cache.MemoryGovernor;
+import org.swiftcache.cache.SwiftCache;
+import org.swiftcache.cacherepository.ICacheRepository;
+import org.swiftcache.evictionstrategy.LRUEvictionStrategy;
+import org.swiftcache.readingpolicy.SimpleReadPolicy;
+import org.swiftcache.writingpolicy.WriteAlwaysPolicy;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the MemoryGovernor class. This class tests that caches are
+ * shrunk in steps under memory pressure, down to their floor, grown back in
+ * steps once the pressure eases, up to their ceiling, and that every resize
+ * is reported.
+ */
+class MemoryGovernorTest {
+
+    private SwiftCache<Integer, Integer> cache;
+
+    private ICacheRepository<Integer, Integer> repository;
+
+    private List<MemoryGovernor.ResizeEvent> events;
+
+    /**
+     * Sets up the test environment before each test case. Fills a cache of
+     * 100 entries.
+     */
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        repository = mock(ICacheRepository.class);
+        cache = new SwiftCache<>(100, new LRUEvictionStrategy<>(), new WriteAlwaysPolicy<>(), new SimpleReadPolicy<>());
+        for (int i = 0; i < 100; i++) {
+            cache.put(repository, i, i);
+        }
+        events = new ArrayList<>();
+    }
+
+    /**
+     * Tests that pressure shrinks the cache by one step per evaluation down
+     * to its floor, evicting the least valuable entries, and that relief
+     * grows it back up to its ceiling.
+     */
+    @Test
+    void testShrinksAndGrowsInSteps() {
+        MemoryGovernor governor = new MemoryGovernor(0.8, 0.5, 0.5, 0);
+        governor.register(cache, 20, 100);
+        governor.addListener(events::add);
+
+        governor.evaluate(0.9);
+        assertEquals(50, cache.getMaxSize());
+        await().atMost(2, TimeUnit.SECONDS).until(() -> cache.size() == 50);
+        assertFalse(cache.keys().contains(0)); // The least recently used entries went first
+        assertTrue(cache.keys().contains(99));
+
+        governor.evaluate(0.9);
+        governor.evaluate(0.9);
+        assertEquals(20, cache.getMaxSize());
+        await().atMost(2, TimeUnit.SECONDS).until(() -> cache.size() == 20);
+
+        governor.evaluate(0.7); // Between the thresholds, nothing changes
+        assertEquals(20, cache.getMaxSize());
+
+        governor.evaluate(0.3);
+        assertEquals(70, cache.getMaxSize());
+        governor.evaluate(0.3);
+        assertEquals(100, cache.getMaxSize());
+
+        assertEquals(5, events.size());
+        assertTrue(events.get(0).isShrink());
+        assertEquals(100, events.get(0).getPreviousMaxSize());
+        assertEquals(50, events.get(0).getNewMaxSize());
+        assertEquals(0.9, events.get(0).getHeapUsage());
+        assertFalse(events.get(4).isShrink());
+        assertSame(cache, events.get(4).getCache());
+    }
+
+    /**
+     * Tests that a shrunk cache keeps its new limit when entries are put.
+     */
+    @Test
+    void testShrunkCacheStaysWithinNewLimit() {
+        MemoryGovernor governor = new MemoryGovernor(0.8, 0.5, 0.5, 0);
+        governor.register(cache, 10, 100);
+
+        governor.evaluate(0.95);
+        for (int i = 100; i < 200; i++) {
+            cache.put(repository, i, i);
+        }
+
+        await().atMost(2, TimeUnit.SECONDS).until(() -> cache.size() == 50);
+    }
+
+    /**
+     * Tests that no more than one step is taken per cooldown period.
+     */
+    @Test
+    void testCooldownLimitsSteps() {
+        MemoryGovernor governor = new MemoryGovernor(0.8, 0.5, 0.25, 60_000);
+        governor.register(cache, 10, 100);
+
+        governor.evaluate(0.9);
+        governor.evaluate(0.9);
+
+        assertEquals(75, cache.getMaxSize());
+    }
+
+    /**
+     * Tests that the governor can listen to the JVM and stop again, and that
+     * the heap usage it measures is a fraction.
+     */
+    @Test
+    void testStartAndClose() {
+        MemoryGovernor governor = new MemoryGovernor(0.99, 0.01, 0.1, 1000);
+        governor.register(cache, 10, 100);
+
+        governor.start();
+        System.gc();
+        governor.close();
+
+        double usage = MemoryGovernor.heapUsage();
+        assertTrue(usage >= 0 && usage <= 1);
+        assertThrows(IllegalArgumentException.class, () -> new MemoryGovernor(0.5, 0.6, 0.1, 0));
+    }
+}
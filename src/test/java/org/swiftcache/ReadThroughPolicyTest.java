@@ -8,13 +8,23 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.swiftcache.cacherepository.ICacheRepository;
+import org.swiftcache.membershipfilter.CuckooFilter;
 import org.swiftcache.readingpolicy.ReadThroughPolicy;
+import org.swiftcache.utils.VersionedMap;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.*;
 
 /**
@@ -105,4 +115,202 @@ class ReadThroughPolicyTest {
         assertNull(cacheMap.get(key)); // Cache should not contain the value
         verify(repository).get(key); // Repository should be called
     }
+
+    /**
+     * Tests that a key missing from the repository is remembered as absent,
+     * so the next lookup does not reach the repository.
+     */
+    @Test
+    void testNegativeCachingSkipsRepositoryForMissingKey() {
+        ReadThroughPolicy<String, String> policy = new ReadThroughPolicy<>(60_000, 10);
+        String key = "missing";
+        when(repository.get(key)).thenReturn(null);
+
+        assertNull(policy.read(cacheMap, key, repository));
+        assertNull(policy.read(cacheMap, key, repository));
+
+        verify(repository, times(1)).get(key); // Second lookup is answered by the negative cache
+        assertEquals(1, policy.getNegativeCacheSize());
+        assertNull(cacheMap.get(key)); // Negative entries never reach the cache map
+    }
+
+    /**
+     * Tests that a negative entry is forgotten once a value is put for the key.
+     */
+    @Test
+    void testNegativeEntryInvalidatedOnPut() {
+        ReadThroughPolicy<String, String> policy = new ReadThroughPolicy<>(60_000, 10);
+        String key = "key1";
+        when(repository.get(key)).thenReturn(null).thenReturn("value1");
+
+        assertNull(policy.read(cacheMap, key, repository));
+        policy.onPut(key);
+
+        assertEquals("value1", policy.read(cacheMap, key, repository));
+        verify(repository, times(2)).get(key);
+    }
+
+    /**
+     * Tests that negative entries expire after their time to live.
+     */
+    @Test
+    void testNegativeEntryExpires() {
+        ReadThroughPolicy<String, String> policy = new ReadThroughPolicy<>(50, 10);
+        String key = "missing";
+        when(repository.get(key)).thenReturn(null);
+
+        policy.read(cacheMap, key, repository);
+
+        await().atMost(5, TimeUnit.SECONDS)
+                .pollInterval(20, TimeUnit.MILLISECONDS)
+                .untilAsserted(() -> {
+                    policy.read(cacheMap, key, repository);
+                    verify(repository, atLeast(2)).get(key); // Expired entry sends the lookup to the repository again
+                });
+    }
+
+    /**
+     * Tests that the negative cache is bounded and discards its oldest key first.
+     */
+    @Test
+    void testNegativeCacheIsBounded() {
+        ReadThroughPolicy<String, String> policy = new ReadThroughPolicy<>(60_000, 2);
+
+        policy.read(cacheMap, "a", repository);
+        policy.read(cacheMap, "b", repository);
+        policy.read(cacheMap, "c", repository);
+        policy.read(cacheMap, "a", repository);
+
+        assertEquals(2, policy.getNegativeCacheSize());
+        verify(repository, times(2)).get("a"); // "a" was discarded to make room for "c"
+    }
+
+    /**
+     * Tests that keys rejected by the membership filter never reach the
+     * repository, while warmed-up and put keys do.
+     */
+    @Test
+    void testMembershipFilterSkipsRepositoryForUnknownKeys() {
+        ReadThroughPolicy<String, String> policy = new ReadThroughPolicy<>(0, 0, new CuckooFilter<>(100));
+        policy.warmUp(Arrays.asList("key1"));
+        policy.onPut("key2");
+        when(repository.get("key1")).thenReturn("value1");
+        when(repository.get("key2")).thenReturn("value2");
+
+        assertNull(policy.read(cacheMap, "unknown", repository));
+        assertEquals("value1", policy.read(cacheMap, "key1", repository));
+        assertEquals("value2", policy.read(cacheMap, "key2", repository));
+
+        verify(repository, never()).get("unknown");
+        assertEquals(0.0, policy.getObservedFalsePositiveRate());
+    }
+
+    /**
+     * Tests that removed keys are deleted from a deletable membership filter,
+     * and that filter passes for missing keys are counted as false positives.
+     */
+    @Test
+    void testMembershipFilterRemovalAndFalsePositiveRate() {
+        ReadThroughPolicy<String, String> policy = new ReadThroughPolicy<>(0, 0, new CuckooFilter<>(100));
+        policy.warmUp(Arrays.asList("key1", "key2"));
+        when(repository.get("key2")).thenReturn(null); // Deleted behind the filter's back
+
+        policy.onRemove("key1");
+
+        assertNull(policy.read(cacheMap, "key1", repository));
+        assertNull(policy.read(cacheMap, "key2", repository));
+        verify(repository, never()).get("key1");
+        assertEquals(0.5, policy.getObservedFalsePositiveRate());
+        assertTrue(policy.getMembershipFilter().mightContain("key2"));
+    }
+
+    /**
+     * Tests that a key put many times holds a single fingerprint, and that
+     * string keys whose hash codes collide get distinct fingerprints, so
+     * removing one leaves the other readable.
+     */
+    @Test
+    void testMembershipFilterRemovalKeepsCollidingKeys() {
+        ReadThroughPolicy<String, String> policy = new ReadThroughPolicy<>(0, 0, new CuckooFilter<>(100));
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        when(repository.get("Aa")).thenReturn("value1");
+
+        policy.onPut("Aa");
+        policy.onPut("BB");
+        policy.onPut("BB");
+        assertEquals(2, policy.getMembershipFilter().size());
+
+        policy.onRemove("BB");
+        policy.onRemove("C#"); // Never added, and colliding too
+        assertEquals("value1", policy.read(cacheMap, "Aa", repository));
+        assertFalse(policy.getMembershipFilter().mightContain("BB"));
+        assertEquals(1, policy.getMembershipFilter().size());
+
+        policy.onRemove("Aa");
+        assertFalse(policy.getMembershipFilter().mightContain("Aa"));
+    }
+
+    /**
+     * Tests that a registered listener is told about repository loads, and
+     * not about cache hits or keys missing from the repository.
+     */
+    @Test
+    void testLoadCostListenerNotifiedOfLoads() {
+        List<String> loaded = new ArrayList<>();
+        readThroughPolicy.setLoadCostListener((key, value, loadNanos) -> {
+            assertTrue(loadNanos >= 0);
+            loaded.add(key + "=" + value);
+        });
+        when(repository.get("key1")).thenReturn("value1");
+
+        readThroughPolicy.read(cacheMap, "key1", repository);
+        readThroughPolicy.read(cacheMap, "key1", repository); // Hit
+        readThroughPolicy.read(cacheMap, "missing", repository);
+
+        assertEquals(Collections.singletonList("key1=value1"), loaded);
+    }
+
+    /**
+     * Tests that a value loaded while the key was written concurrently does
+     * not overwrite the newer value, and that the newer value is returned.
+     */
+    @Test
+    void testStaleLoadDoesNotOverwriteConcurrentPut() {
+        VersionedMap<String, String> versionedMap = new VersionedMap<>(16);
+        when(repository.get("key1")).thenAnswer(invocation -> {
+            versionedMap.put("key1", "fresh"); // Written while the load is in flight
+            return "stale";
+        });
+
+        assertEquals("fresh", readThroughPolicy.read(versionedMap, "key1", repository));
+        assertEquals("fresh", versionedMap.get("key1"));
+    }
+
+    /**
+     * Tests that a value loaded while other keys are evicted from a full map
+     * is still cached, and that a value loaded while its key is deleted is
+     * not.
+     */
+    @Test
+    void testLoadDuringEvictionsIsCached() {
+        VersionedMap<String, String> versionedMap = new VersionedMap<>(16);
+        for (int i = 0; i < 1000; i++) {
+            versionedMap.put("key" + i * 7919, "value" + i); // Spread over every removal stripe
+        }
+        when(repository.get("slow")).thenAnswer(invocation -> {
+            for (int i = 0; i < 1000; i++) {
+                versionedMap.remove("key" + i * 7919); // Evicted while the load is in flight
+            }
+            return "loaded";
+        });
+        when(repository.get("deleted")).thenAnswer(invocation -> {
+            versionedMap.delete("deleted");
+            return "stale";
+        });
+
+        assertEquals("loaded", readThroughPolicy.read(versionedMap, "slow", repository));
+        assertEquals("loaded", versionedMap.get("slow"));
+        assertEquals("stale", readThroughPolicy.read(versionedMap, "deleted", repository));
+        assertNull(versionedMap.get("deleted"));
+    }
 }
@@ -10,7 +10,9 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.swiftcache.cacherepository.ICacheRepository;
 import org.swiftcache.readingpolicy.RefreshAheadPolicy;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
@@ -54,11 +56,14 @@ class RefreshAheadPolicyTest {
         String key = "key1";
         String value = "value1";
         cacheMap.put(key, value); // Simulate cache hit
+        List<Runnable> refreshes = new ArrayList<>();
+        refreshAheadPolicy = new RefreshAheadPolicy<>(refreshes::add); // Hold the refresh back
 
         String result = refreshAheadPolicy.read(cacheMap, key, repository);
 
         assertEquals(value, result); // Should return value from cache
         verify(repository, never()).get(key); // Repository should not be called
+        assertEquals(1, refreshes.size()); // The refresh is left to the executor
     }
 
     /**
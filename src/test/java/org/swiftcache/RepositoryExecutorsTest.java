@@ -0,0 +1,69 @@
+package org.swiftcache;
+
+import org.junit.jupiter.api.Test;
+import org.swiftcache.utils.RepositoryExecutors;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the RepositoryExecutors class. This class tests that the
+ * shared executor runs blocking tasks and that the bounded fallback pool uses
+ * daemon threads and queues excess tasks.
+ */
+class RepositoryExecutorsTest {
+
+    /**
+     * Tests that many blocking tasks submitted to the shared executor all
+     * complete.
+     */
+    @Test
+    void testSharedExecutorRunsBlockingTasks() throws InterruptedException {
+        int tasks = 1_000;
+        CountDownLatch done = new CountDownLatch(tasks);
+
+        for (int i = 0; i < tasks; i++) {
+            RepositoryExecutors.shared().execute(() -> {
+                try {
+                    Thread.sleep(1); // Simulate a blocking repository call
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                done.countDown();
+            });
+        }
+
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+    }
+
+    /**
+     * Tests that the bounded pool runs tasks on daemon threads and queues
+     * tasks beyond its size instead of rejecting them.
+     */
+    @Test
+    void testBoundedPoolUsesDaemonThreadsAndQueues() throws InterruptedException {
+        ExecutorService pool = RepositoryExecutors.newBoundedPool(2);
+        CountDownLatch done = new CountDownLatch(10);
+        AtomicBoolean allDaemon = new AtomicBoolean(true);
+
+        try {
+            for (int i = 0; i < 10; i++) {
+                pool.execute(() -> {
+                    if (!Thread.currentThread().isDaemon()) {
+                        allDaemon.set(false);
+                    }
+                    done.countDown();
+                });
+            }
+
+            assertTrue(done.await(5, TimeUnit.SECONDS));
+            assertTrue(allDaemon.get());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package org.swiftcache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.swiftcache.evictionstrategy.SIEVEEvictionStrategy;
+
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the SIEVEEvictionStrategy class. This class tests that
+ * unvisited entries are evicted oldest first, that visited entries are
+ * spared once, and that the shared eviction queue is never touched.
+ */
+class SIEVEEvictionStrategyTest {
+
+    private SIEVEEvictionStrategy<String, String> sieveEvictionStrategy;
+    private Map<String, String> cacheMap;
+    private Queue<String> evictionQueue;
+
+    /**
+     * Sets up the test environment before each test case. Initializes the
+     * SIEVE eviction strategy, cache map, and eviction queue.
+     */
+    @BeforeEach
+    void setUp() {
+        sieveEvictionStrategy = new SIEVEEvictionStrategy<>();
+        cacheMap = new ConcurrentHashMap<>();
+        evictionQueue = new LinkedList<>();
+    }
+
+    private void insert(String key) {
+        cacheMap.put(key, "value");
+        sieveEvictionStrategy.updateQueue(key, evictionQueue);
+    }
+
+    /**
+     * Tests that without hits the oldest entry is evicted first.
+     */
+    @Test
+    void testEvictRemovesOldestUnvisitedItem() {
+        insert("key1");
+        insert("key2");
+        insert("key3");
+
+        sieveEvictionStrategy.evict(cacheMap, evictionQueue);
+
+        assertFalse(cacheMap.containsKey("key1"));
+        assertEquals(2, cacheMap.size());
+        assertTrue(evictionQueue.isEmpty()); // The shared queue is never used
+    }
+
+    /**
+     * Tests that a visited entry survives the sweep and loses its visited bit,
+     * and that the hand continues from where it stopped.
+     */
+    @Test
+    void testVisitedItemIsSpared() {
+        insert("key1");
+        insert("key2");
+        insert("key3");
+        sieveEvictionStrategy.updateQueue("key1", evictionQueue); // Hit
+
+        sieveEvictionStrategy.evict(cacheMap, evictionQueue);
+        assertTrue(cacheMap.containsKey("key1"));
+        assertFalse(cacheMap.containsKey("key2"));
+
+        sieveEvictionStrategy.evict(cacheMap, evictionQueue);
+        assertFalse(cacheMap.containsKey("key3")); // The hand moved on from key2 to key3
+
+        sieveEvictionStrategy.evict(cacheMap, evictionQueue);
+        assertTrue(cacheMap.isEmpty()); // key1's visited bit was cleared by the first sweep
+    }
+
+    /**
+     * Tests that removed keys are no longer tracked and that entries missing
+     * from the cache map are skipped during eviction.
+     */
+    @Test
+    void testRemovedAndStaleKeysAreSkipped() {
+        insert("key1");
+        insert("key2");
+        insert("key3");
+        cacheMap.remove("key1");
+        sieveEvictionStrategy.remove("key1", evictionQueue);
+        cacheMap.remove("key2"); // Removed behind the strategy's back
+
+        sieveEvictionStrategy.evict(cacheMap, evictionQueue);
+
+        assertTrue(cacheMap.isEmpty());
+    }
+
+    /**
+     * Tests that evicting from an empty strategy does nothing.
+     */
+    @Test
+    void testEvictDoesNothingWhenEmpty() {
+        sieveEvictionStrategy.evict(cacheMap, evictionQueue);
+
+        sieveEvictionStrategy.updateQueue("key1", evictionQueue);
+        sieveEvictionStrategy.clear(evictionQueue);
+        cacheMap.put("key1", "value");
+        sieveEvictionStrategy.evict(cacheMap, evictionQueue);
+
+        assertTrue(cacheMap.containsKey("key1")); // Cleared strategy has nothing to evict
+    }
+}
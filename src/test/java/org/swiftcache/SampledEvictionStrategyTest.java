@@ -0,0 +1,133 @@
+package org.swiftcache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.swiftcache.evictionstrategy.SampledEvictionStrategy;
+
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the SampledEvictionStrategy class. This class tests that the
+ * scorer decides which sampled entry is evicted, that stale entries are
+ * skipped, and that the shared eviction queue is never touched.
+ */
+class SampledEvictionStrategyTest {
+
+    private Map<String, String> cacheMap;
+    private Queue<String> evictionQueue;
+
+    /**
+     * Sets up the test environment before each test case. Initializes the
+     * cache map and eviction queue.
+     */
+    @BeforeEach
+    void setUp() {
+        cacheMap = new ConcurrentHashMap<>();
+        evictionQueue = new LinkedList<>();
+    }
+
+    private void access(SampledEvictionStrategy<String, String> strategy, String key, String value, int times) {
+        cacheMap.put(key, value);
+        for (int i = 0; i < times; i++) {
+            strategy.updateQueue(key, evictionQueue);
+        }
+    }
+
+    /**
+     * Tests that with a sample covering the whole cache, the idle time scorer
+     * evicts the least recently used entry.
+     */
+    @Test
+    void testIdleTimeScorerEvictsLeastRecentlyUsed() throws InterruptedException {
+        SampledEvictionStrategy<String, String> strategy =
+                new SampledEvictionStrategy<>(20, 16, SampledEvictionStrategy.idleTime());
+        access(strategy, "key1", "value", 1);
+        access(strategy, "key2", "value", 1);
+        access(strategy, "key3", "value", 1);
+        Thread.sleep(2);
+        strategy.updateQueue("key1", evictionQueue);
+        strategy.updateQueue("key3", evictionQueue);
+
+        strategy.evict(cacheMap, evictionQueue);
+
+        assertFalse(cacheMap.containsKey("key2"));
+        assertEquals(2, cacheMap.size());
+        assertTrue(evictionQueue.isEmpty()); // The shared queue is never used
+    }
+
+    /**
+     * Tests that the frequency scorer evicts the least frequently used entry.
+     */
+    @Test
+    void testFrequencyScorerEvictsLeastFrequentlyUsed() {
+        SampledEvictionStrategy<String, String> strategy =
+                new SampledEvictionStrategy<>(20, 16, SampledEvictionStrategy.frequency());
+        access(strategy, "key1", "value", 3);
+        access(strategy, "key2", "value", 1);
+        access(strategy, "key3", "value", 2);
+
+        strategy.evict(cacheMap, evictionQueue);
+
+        assertFalse(cacheMap.containsKey("key2"));
+    }
+
+    /**
+     * Tests that the weight scorer evicts the heaviest entry.
+     */
+    @Test
+    void testWeightScorerEvictsHeaviest() {
+        SampledEvictionStrategy<String, String> strategy = new SampledEvictionStrategy<>(20, 16,
+                SampledEvictionStrategy.weight((key, value) -> value.length()));
+        access(strategy, "small", "v", 1);
+        access(strategy, "large", "a much longer value", 1);
+
+        strategy.evict(cacheMap, evictionQueue);
+
+        assertFalse(cacheMap.containsKey("large"));
+    }
+
+    /**
+     * Tests that repeated evictions with small samples empty the cache one
+     * entry at a time, skipping removed and stale keys.
+     */
+    @Test
+    void testEvictsEveryEntryAndSkipsStaleKeys() {
+        SampledEvictionStrategy<String, String> strategy = new SampledEvictionStrategy<>();
+        for (int i = 0; i < 50; i++) {
+            access(strategy, "key" + i, "value", 1);
+        }
+        cacheMap.remove("key0");
+        strategy.remove("key0", evictionQueue);
+        cacheMap.remove("key1"); // Removed behind the strategy's back
+
+        for (int expected = 47; expected >= 0; expected--) {
+            strategy.evict(cacheMap, evictionQueue);
+            assertEquals(expected, cacheMap.size());
+        }
+        strategy.evict(cacheMap, evictionQueue); // Nothing left to evict
+    }
+
+    /**
+     * Tests that a cleared strategy has nothing to evict, and that invalid
+     * sizes are rejected.
+     */
+    @Test
+    void testClearAndInvalidSizes() {
+        SampledEvictionStrategy<String, String> strategy = new SampledEvictionStrategy<>();
+        access(strategy, "key1", "value", 1);
+        strategy.clear(evictionQueue);
+
+        strategy.evict(cacheMap, evictionQueue);
+
+        assertTrue(cacheMap.containsKey("key1"));
+        assertThrows(IllegalArgumentException.class,
+                () -> new SampledEvictionStrategy<String, String>(0, 16, SampledEvictionStrategy.idleTime()));
+        assertThrows(IllegalArgumentException.class,
+                () -> new SampledEvictionStrategy<String, String>(5, 0, SampledEvictionStrategy.idleTime()));
+    }
+}
@@ -0,0 +1,79 @@
+package org.swiftcache;
+
+import org.junit.jupiter.api.Test;
+import org.swiftcache.membershipfilter.ScalableBloomFilter;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the ScalableBloomFilter class. This class tests that added
+ * keys are always found, that the filter grows past its initial size, and
+ * that its false positive rate stays close to the target.
+ */
+class ScalableBloomFilterTest {
+
+    /**
+     * Tests that every added key is reported as possibly present.
+     */
+    @Test
+    void testNoFalseNegatives() {
+        ScalableBloomFilter<Integer> filter = new ScalableBloomFilter<>(1_000, 0.01);
+
+        for (int i = 0; i < 1_000; i++) {
+            filter.add(i);
+        }
+
+        for (int i = 0; i < 1_000; i++) {
+            assertTrue(filter.mightContain(i));
+        }
+        assertEquals(1_000, filter.size(), 10); // A few keys may collide with earlier ones
+    }
+
+    /**
+     * Tests that the filter appends slices once the expected insertions are
+     * exceeded, keeps all keys and stays within its false positive target.
+     */
+    @Test
+    void testGrowsAndKeepsFalsePositiveRateBounded() {
+        ScalableBloomFilter<Integer> filter = new ScalableBloomFilter<>(1_000, 0.01);
+
+        for (int i = 0; i < 10_000; i++) {
+            filter.add(i);
+        }
+
+        assertTrue(filter.getSliceCount() > 1);
+        for (int i = 0; i < 10_000; i++) {
+            assertTrue(filter.mightContain(i));
+        }
+
+        int falsePositives = 0;
+        for (int i = 10_000; i < 110_000; i++) {
+            if (filter.mightContain(i)) {
+                falsePositives++;
+            }
+        }
+        assertTrue(falsePositives / 100_000.0 < 0.02);
+        assertTrue(filter.expectedFalsePositiveRate() <= 0.01);
+    }
+
+    /**
+     * Tests that deletion is not supported.
+     */
+    @Test
+    void testRemoveIsNotSupported() {
+        ScalableBloomFilter<String> filter = new ScalableBloomFilter<>(10, 0.01);
+        filter.add("key1");
+
+        assertFalse(filter.remove("key1"));
+        assertTrue(filter.mightContain("key1"));
+    }
+
+    /**
+     * Tests that invalid sizing arguments are rejected.
+     */
+    @Test
+    void testInvalidArgumentsThrow() {
+        assertThrows(IllegalArgumentException.class, () -> new ScalableBloomFilter<>(0, 0.01));
+        assertThrows(IllegalArgumentException.class, () -> new ScalableBloomFilter<>(10, 1.0));
+    }
+}
@@ -38,9 +38,11 @@ class SwiftCacheConfigTest {
     @Test
     void testValidCombinations() {
         // Define all valid combinations of policies
-        String[] evictionStrategies = {SwiftCacheConfig.LRU_EVICTION_STRATEGY, SwiftCacheConfig.FIFO_EVICTION_STRATEGY};
+        String[] evictionStrategies = {SwiftCacheConfig.LRU_EVICTION_STRATEGY, SwiftCacheConfig.FIFO_EVICTION_STRATEGY,
+                SwiftCacheConfig.SIEVE_EVICTION_STRATEGY, SwiftCacheConfig.LFU_EVICTION_STRATEGY,
+                SwiftCacheConfig.GDSF_EVICTION_STRATEGY, SwiftCacheConfig.SAMPLED_EVICTION_STRATEGY};
         String[] readingPolicies = {SwiftCacheConfig.READ_THROUGH_POLICY, SwiftCacheConfig.SIMPLE_READ_POLICY, SwiftCacheConfig.REFRESH_AHEAD_POLICY};
-        String[] writingPolicies = {SwiftCacheConfig.WRITE_ALWAYS_POLICY, SwiftCacheConfig.WRITE_BEHIND_POLICY, SwiftCacheConfig.WRITE_IF_ABSENT_POLICY};
+        String[] writingPolicies = {SwiftCacheConfig.WRITE_ALWAYS_POLICY, SwiftCacheConfig.WRITE_BEHIND_POLICY, SwiftCacheConfig.WRITE_IF_ABSENT_POLICY, SwiftCacheConfig.WRITE_BACK_POLICY};
 
         for (String eviction : evictionStrategies) {
             for (String read : readingPolicies) {
@@ -4,6 +4,7 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.swiftcache.cache.SwiftCache;
 import org.swiftcache.cache.SwiftCacheConfig;
+import org.swiftcache.evictionstrategy.GDSFEvictionStrategy;
 import org.swiftcache.evictionstrategy.IEvictionStrategy;
 import org.swiftcache.readingpolicy.IReadingPolicy;
 import org.swiftcache.writingpolicy.IWritingPolicy;
@@ -56,6 +57,27 @@ class SwiftCacheManagerTest {
         assertTrue(writingPolicy instanceof org.swiftcache.writingpolicy.WriteAlwaysPolicy);
     }
 
+    /**
+     * Tests that a GDSF strategy created from the configuration sizes loaded
+     * entries with the configured weigher.
+     */
+    @Test
+    void testGdsfUsesConfiguredWeigher() {
+        config = new SwiftCacheConfig(100, SwiftCacheConfig.GDSF_EVICTION_STRATEGY,
+                SwiftCacheConfig.READ_THROUGH_POLICY, SwiftCacheConfig.WRITE_ALWAYS_POLICY);
+        config.setMaxWeight(10_000, (String key, String value) -> value.length());
+        GDSFEvictionStrategy<String, String> strategy =
+                (GDSFEvictionStrategy<String, String>) new SwiftCacheManager<String, String>(config)
+                        .getSwiftCache().getEvictionStrategy();
+
+        strategy.onLoad("small", "a", 1000);
+        strategy.onLoad("large", "aaaaaaaaaa", 1000);
+        strategy.updateQueue("small", null);
+        strategy.updateQueue("large", null);
+
+        assertEquals(10 * strategy.getPriority("large"), strategy.getPriority("small"), 1e-9);
+    }
+
     /**
      * Tests that an invalid eviction strategy throws an IllegalArgumentException.
      */
@@ -7,7 +7,10 @@ import org.mockito.Mock;
 import org.mockito.MockitoAnnotations;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.swiftcache.cache.SwiftCache;
+import org.swiftcache.cache.SwiftCacheConfig;
 import org.swiftcache.cacherepository.ICacheRepository;
+import org.swiftcache.evictionstrategy.FIFOEvictionStrategy;
+import org.swiftcache.evictionstrategy.GDSFEvictionStrategy;
 import org.swiftcache.evictionstrategy.IEvictionStrategy;
 import org.swiftcache.evictionstrategy.LRUEvictionStrategy;
 import org.swiftcache.readingpolicy.IReadingPolicy;
@@ -15,6 +18,23 @@ import org.swiftcache.readingpolicy.ReadThroughPolicy;
 import org.swiftcache.writingpolicy.IWritingPolicy;
 import org.swiftcache.writingpolicy.WriteAlwaysPolicy;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
@@ -99,6 +119,36 @@ class SwiftCacheTest {
         assertNull(cache.get(repository, "key0")); // key0 should be evicted
     }
 
+    /**
+     * Tests that with background eviction, puts go over the soft limit without
+     * evicting and the maintenance task brings the cache back down to it.
+     */
+    @Test
+    void testBackgroundEvictionReturnsToSoftLimit() {
+        cache = new SwiftCache<>(5, 100, evictionStrategy, writingPolicy, readingPolicy);
+
+        for (int i = 0; i < 20; i++) {
+            cache.put(repository, "key" + i, "value" + i);
+        }
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> cache.size() == 5);
+        assertEquals("value19", cache.get(repository, "key19")); // The most recent entries survive
+    }
+
+    /**
+     * Tests that a put evicts inline once the cache holds its hard limit, so
+     * the cache never grows past it.
+     */
+    @Test
+    void testHardLimitThrottlesPuts() {
+        cache = new SwiftCache<>(2, 4, evictionStrategy, writingPolicy, readingPolicy);
+
+        for (int i = 0; i < 100; i++) {
+            cache.put(repository, "key" + i, "value" + i);
+            assertTrue(cache.size() <= 4); // Holds however far behind the maintenance task is
+        }
+    }
+
     /**
      * Tests that an item can be removed from the cache.
      */
@@ -148,6 +198,562 @@ class SwiftCacheTest {
         assertEquals(0, cache.size());
     }
 
+    /**
+     * Tests that after a clear, entries of the old generation are gone and the
+     * fresh map and eviction queue work as before.
+     */
+    @Test
+    void testClearStartsFreshGeneration() {
+        for (int i = 0; i < 5; i++) {
+            cache.put(repository, "old" + i, "value" + i);
+        }
+        cache.clear();
+
+        for (int i = 0; i < 6; i++) {
+            cache.put(repository, "new" + i, "value" + i);
+        }
+
+        assertEquals(5, cache.size());
+        assertNull(cache.get(repository, "old4")); // Not answered from the old map
+        assertNull(cache.get(repository, "new0")); // Evicted from the fresh queue
+        assertEquals("value5", cache.get(repository, "new5"));
+    }
+
+    /**
+     * Tests that invalidating a tag removes every entry carrying it from the
+     * cache only, and leaves other entries and the repository alone.
+     */
+    @Test
+    void testInvalidateTagRemovesTaggedEntries() {
+        cache.put(repository, "key1", "value1", "user:1");
+        cache.put(repository, "key2", "value2", "user:1", "user:2");
+        cache.put(repository, "key3", "value3", "user:2");
+
+        assertEquals(2, cache.invalidateTag("user:1"));
+
+        assertEquals(1, cache.size());
+        assertTrue(cache.getTaggedKeys("user:1").isEmpty());
+        assertEquals(Collections.singleton("key3"), cache.getTaggedKeys("user:2")); // key2 untagged everywhere
+        verify(repository, never()).remove(anyString());
+    }
+
+    /**
+     * Tests that removed, evicted and re-put entries lose their tags, so a
+     * later invalidation does not touch them.
+     */
+    @Test
+    void testTagsDroppedOnRemovalEvictionAndOverwrite() {
+        cache.put(repository, "key0", "value0", "tag");
+        cache.put(repository, "key1", "value1", "tag");
+        cache.put(repository, "key2", "value2", "tag");
+        cache.remove(repository, "key1");
+        cache.put(repository, "key2", "value2"); // Overwritten without tags
+        for (int i = 3; i < 8; i++) {
+            cache.put(repository, "key" + i, "value" + i); // key0 is evicted
+        }
+
+        assertTrue(cache.getTaggedKeys("tag").isEmpty());
+        assertEquals(0, cache.invalidateTag("tag"));
+        assertEquals(5, cache.size());
+    }
+
+    /**
+     * Tests that range and prefix scans return the cached entries in key
+     * order, and reflect removals and evictions.
+     */
+    @Test
+    void testOrderedKeyIndexRangeAndPrefix() {
+        SwiftCacheConfig config = new SwiftCacheConfig(4, null, null, null);
+        config.setOrderedKeyIndex(true);
+        cache = new SwiftCache<>(config, evictionStrategy, writingPolicy, readingPolicy);
+        cache.put(repository, "2024-01-03", "c");
+        cache.put(repository, "2024-01-01", "a");
+        cache.put(repository, "2024-02-01", "d");
+        cache.put(repository, "2024-01-02", "b");
+        cache.remove(repository, "2024-01-02");
+        cache.put(repository, "2024-03-01", "e");
+        cache.put(repository, "2024-03-02", "f"); // Evicts 2024-01-03
+
+        assertEquals(Arrays.asList("2024-01-01", "2024-02-01"), keysOf(cache.range("2024-01-01", "2024-03-01")));
+        assertEquals(Arrays.asList("2024-03-01", "2024-03-02"), keysOf(cache.prefix("2024-03")));
+        assertFalse(cache.prefix("2025").hasNext());
+
+        Iterator<Map.Entry<String, String>> entries = cache.prefix("2024-02");
+        assertEquals("d", entries.next().getValue());
+        assertThrows(NoSuchElementException.class, entries::next);
+    }
+
+    /**
+     * Tests that keys loaded by the reading policy are added to the ordered
+     * key index, and stay in it when they are read again.
+     */
+    @Test
+    void testOrderedKeyIndexIncludesLoadedKeys() {
+        SwiftCacheConfig config = new SwiftCacheConfig(4, null, null, null);
+        config.setOrderedKeyIndex(true);
+        cache = new SwiftCache<>(config, evictionStrategy, writingPolicy, readingPolicy);
+        when(repository.get("2024-01-02")).thenReturn("b");
+        cache.put(repository, "2024-01-01", "a");
+
+        assertEquals("b", cache.get(repository, "2024-01-02"));
+        assertEquals("b", cache.get(repository, "2024-01-02"));
+        assertEquals("a", cache.get(repository, "2024-01-01"));
+
+        assertEquals(Arrays.asList("2024-01-01", "2024-01-02"), keysOf(cache.prefix("2024-01")));
+        verify(repository, times(1)).get("2024-01-02");
+    }
+
+    /**
+     * Tests that scanning a cache without the ordered key index is rejected.
+     */
+    @Test
+    void testRangeRequiresOrderedKeyIndex() {
+        assertThrows(IllegalStateException.class, () -> cache.range("a", "b"));
+    }
+
+    private static List<String> keysOf(Iterator<Map.Entry<String, String>> entries) {
+        List<String> keys = new ArrayList<>();
+        entries.forEachRemaining(entry -> keys.add(entry.getKey()));
+        return keys;
+    }
+
+    /**
+     * Tests that the entry and key views reflect the cache, cannot modify it,
+     * and can be streamed in parallel.
+     */
+    @Test
+    void testEntriesKeysAndParallelStream() {
+        cache = new SwiftCache<>(1000, evictionStrategy, writingPolicy, readingPolicy);
+        for (int i = 0; i < 500; i++) {
+            cache.put(repository, "key" + i, String.valueOf(i));
+        }
+
+        assertEquals(500, cache.keys().size());
+        assertTrue(cache.keys().contains("key42"));
+        assertEquals(124750, cache.entries().parallelStream().mapToInt(entry -> Integer.parseInt(entry.getValue())).sum());
+        assertEquals(250, cache.stream().parallel().filter(entry -> Integer.parseInt(entry.getValue()) % 2 == 0).count());
+        assertThrows(UnsupportedOperationException.class, () -> cache.keys().remove("key1"));
+        assertThrows(UnsupportedOperationException.class, () -> cache.entries().iterator().next().setValue("x"));
+    }
+
+    /**
+     * Tests that removeIf removes the matching entries from the cache only,
+     * and that they stop counting towards eviction.
+     */
+    @Test
+    void testRemoveIfRemovesMatchingEntries() {
+        for (int i = 0; i < 5; i++) {
+            cache.put(repository, "key" + i, String.valueOf(i));
+        }
+
+        assertEquals(3, cache.removeIf((key, value) -> Integer.parseInt(value) % 2 == 0));
+
+        assertEquals(2, cache.size());
+        cache.put(repository, "key5", "5");
+        cache.put(repository, "key6", "6");
+        cache.put(repository, "key7", "7");
+        assertEquals(5, cache.size()); // Removed keys were untracked, so nothing was evicted early
+        assertEquals("1", cache.get(repository, "key1"));
+        verify(repository, never()).remove(anyString());
+    }
+
+    /**
+     * Tests that removeIf removes nothing when the cache is cleared while the
+     * predicate is being evaluated, so the new generation is left alone. The
+     * maintenance thread is held up by another cache, so the old generation
+     * is still populated when the removal runs.
+     */
+    @Test
+    void testRemoveIfAfterClearLeavesNewEntries() throws Exception {
+        CountDownLatch maintenanceHeld = new CountDownLatch(1);
+        CountDownLatch removalDone = new CountDownLatch(1);
+        SwiftCache<String, String> busy = new SwiftCache<>(1, 10, new LRUEvictionStrategy<String, String>() {
+            @Override
+            public String evict(Map<String, String> cacheMap, Queue<String> evictionQueue) {
+                maintenanceHeld.countDown();
+                try {
+                    removalDone.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return super.evict(cacheMap, evictionQueue);
+            }
+        }, new WriteAlwaysPolicy<>(), new ReadThroughPolicy<>());
+        IWritingPolicy<String, String> policy = spy(new WriteAlwaysPolicy<>());
+        cache = new SwiftCache<>(5, evictionStrategy, policy, readingPolicy);
+        for (int i = 0; i < 3; i++) {
+            cache.put(repository, "key" + i, String.valueOf(i));
+        }
+        CountDownLatch scanning = new CountDownLatch(1);
+        CountDownLatch cleared = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            busy.put(repository, "other0", "0");
+            busy.put(repository, "other1", "1");
+            assertTrue(maintenanceHeld.await(5, TimeUnit.SECONDS));
+            Future<Integer> removed = executor.submit(() -> cache.removeIf((key, value) -> {
+                scanning.countDown();
+                try {
+                    cleared.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return true;
+            }));
+            assertTrue(scanning.await(5, TimeUnit.SECONDS));
+            cache.clear();
+            cache.put(repository, "key0", "new");
+            cleared.countDown();
+
+            assertEquals(0, removed.get(5, TimeUnit.SECONDS));
+        } finally {
+            removalDone.countDown();
+            executor.shutdownNow();
+        }
+
+        assertEquals("new", cache.get(repository, "key0"));
+        assertEquals(1, cache.size());
+        verify(policy, never()).onEvict(anyString());
+    }
+
+    /**
+     * Tests that putting a value for a key remembered as missing sends later
+     * cache misses for that key back to the repository.
+     */
+    @Test
+    void testPutInvalidatesNegativeEntry() {
+        cache = new SwiftCache<>(5, evictionStrategy, writingPolicy, new ReadThroughPolicy<>(60_000, 10));
+        when(repository.get("key1")).thenReturn(null).thenReturn("value1");
+
+        assertNull(cache.get(repository, "key1"));
+        cache.put(repository, "key1", "value1");
+        cache.clear();
+
+        assertEquals("value1", cache.get(repository, "key1")); // Reloaded instead of answered as absent
+    }
+
+    /**
+     * Tests that putAsync makes the entry visible immediately and completes
+     * once the batched repository write has been committed.
+     */
+    @Test
+    void testPutAsyncCompletesAfterBatchedWrite() throws Exception {
+        cache = new SwiftCache<>(5, evictionStrategy, new WriteAlwaysPolicy<>(50, 100), readingPolicy);
+
+        CompletableFuture<String> pending = cache.putAsync(repository, "key1", "value1");
+
+        assertEquals("value1", cache.get(repository, "key1"));
+        assertEquals("value1", pending.get(5, TimeUnit.SECONDS));
+        verify(repository).putAll(Collections.singletonMap("key1", "value1"));
+    }
+
+    /**
+     * Tests that removing a key whose put is still waiting in a batch keeps
+     * the batched write from bringing the key back into the repository.
+     */
+    @Test
+    void testRemoveAfterBatchedPutStaysRemoved() throws Exception {
+        cache = new SwiftCache<>(5, evictionStrategy, new WriteAlwaysPolicy<>(50, 100), readingPolicy);
+
+        CompletableFuture<String> pending = cache.putAsync(repository, "key1", "value1");
+        cache.putAsync(repository, "key2", "value2");
+        cache.remove(repository, "key1");
+
+        assertEquals("value1", pending.get(5, TimeUnit.SECONDS));
+        cache.getWritingPolicy().flush().get(5, TimeUnit.SECONDS);
+        verify(repository).remove("key1");
+        verify(repository, times(1)).putAll(Collections.singletonMap("key2", "value2"));
+        verify(repository, never()).put(eq("key1"), anyString());
+    }
+
+    /**
+     * Tests that a GDSF eviction strategy is registered with the reading
+     * policy, so that a cheap entry is evicted before an expensive one.
+     */
+    @Test
+    void testLoadCostReachesGDSFEvictionStrategy() {
+        cache = new SwiftCache<>(2, new GDSFEvictionStrategy<>(), writingPolicy, new ReadThroughPolicy<>());
+        when(repository.get("cheap")).thenReturn("value1");
+        when(repository.get("expensive")).thenAnswer(invocation -> {
+            Thread.sleep(20);
+            return "value2";
+        });
+
+        cache.get(repository, "expensive");
+        cache.get(repository, "cheap");
+        cache.put(repository, "key3", "value3");
+
+        assertEquals("value2", cache.get(repository, "expensive"));
+        verify(repository).get("expensive"); // Still cached, the cheap entry was evicted instead
+        assertEquals(2, cache.size());
+    }
+
+    /**
+     * Tests that entries written to the cache, by put or by a conditional
+     * write, are weighed by a GDSF eviction strategy, so a large entry that
+     * was written last is still evicted first.
+     */
+    @Test
+    void testWrittenEntriesAreWeighedByGDSFEvictionStrategy() {
+        cache = new SwiftCache<>(3, new GDSFEvictionStrategy<String, String>((key, value) -> value.length()),
+                writingPolicy, readingPolicy);
+        cache.put(repository, "small1", "v");
+        cache.put(repository, "small2", "v");
+        cache.putIfAbsent("large", "a much longer value");
+        cache.put(repository, "small3", "v");
+
+        assertEquals(3, cache.size());
+        assertNull(cache.get(repository, "large"));
+        assertEquals("v", cache.get(repository, "small1"));
+    }
+
+    /**
+     * Tests that putIfAbsent and replace only write when the cached value is
+     * as expected, and leave the repository alone.
+     */
+    @Test
+    void testPutIfAbsentAndReplace() {
+        assertNull(cache.putIfAbsent("key1", "value1"));
+        assertEquals("value1", cache.putIfAbsent("key1", "value2"));
+        assertFalse(cache.replace("key1", "value2", "value3"));
+        assertTrue(cache.replace("key1", "value1", "value3"));
+
+        assertEquals("value3", cache.get(repository, "key1"));
+        verifyNoInteractions(repository);
+    }
+
+    /**
+     * Tests that compareAndSet succeeds only while the key keeps the version
+     * read beforehand, and that an absent key can be set this way too.
+     */
+    @Test
+    void testCompareAndSetUsesEntryVersions() {
+        long absent = cache.getVersion("key1");
+        assertTrue(cache.compareAndSet("key1", absent, "value1"));
+        assertFalse(cache.compareAndSet("key1", absent, "value2"));
+
+        long version = cache.getVersion("key1");
+        cache.remove(repository, "key1");
+        cache.put(repository, "key1", "value3");
+        assertFalse(cache.compareAndSet("key1", version, "stale")); // Changed in between
+
+        assertTrue(cache.compareAndSet("key1", cache.getVersion("key1"), "value4"));
+        assertEquals("value4", cache.get(repository, "key1"));
+    }
+
+    /**
+     * Tests that conditional inserts make room when the cache is full.
+     */
+    @Test
+    void testConditionalInsertsRespectMaxSize() {
+        cache = new SwiftCache<>(2, new LRUEvictionStrategy<>(), writingPolicy, readingPolicy);
+
+        cache.putIfAbsent("key1", "value1");
+        cache.putIfAbsent("key2", "value2");
+        cache.compareAndSet("key3", cache.getVersion("key3"), "value3");
+
+        assertEquals(2, cache.size());
+        assertFalse(cache.keys().contains("key1"));
+    }
+
+    /**
+     * Tests that concurrent conditional inserts keep the cache within its
+     * maximum size and leave the eviction queue consistent, so that later
+     * puts still evict one entry each.
+     */
+    @Test
+    void testConcurrentConditionalInsertsStayWithinMaxSize() throws Exception {
+        cache = new SwiftCache<>(50, new FIFOEvictionStrategy<>(), writingPolicy, readingPolicy);
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            final int thread = t;
+            threads.add(new Thread(() -> {
+                for (int i = 0; i < 500; i++) {
+                    cache.putIfAbsent("key" + thread + "-" + i, "value");
+                }
+            }));
+        }
+        threads.forEach(Thread::start);
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertEquals(50, cache.size());
+        for (int i = 0; i < 100; i++) {
+            cache.put(repository, "put" + i, "value");
+        }
+        assertEquals(50, cache.size());
+        assertEquals(50, cache.keys().stream().filter(key -> key.startsWith("put")).count());
+    }
+
+    /**
+     * Tests that in snapshot mode hits bypass the eviction strategy, that a
+     * write is visible right away, and that the snapshot is rebuilt after it.
+     */
+    @Test
+    void testSnapshotReadsSkipBookkeeping() {
+        SwiftCacheConfig config = new SwiftCacheConfig(100, null, null, null);
+        config.setSnapshotReads(true);
+        @SuppressWarnings("unchecked")
+        IEvictionStrategy<String, String> strategy = mock(IEvictionStrategy.class);
+        cache = new SwiftCache<>(config, strategy, writingPolicy, readingPolicy);
+
+        Map<String, String> entries = new HashMap<>();
+        for (int i = 0; i < 100; i++) {
+            entries.put("key" + i, "value" + i);
+        }
+        cache.putAll(repository, entries);
+        verify(repository, times(100)).put(anyString(), anyString());
+        clearInvocations(strategy);
+
+        for (int i = 0; i < 100; i++) {
+            assertEquals("value" + i, cache.get(repository, "key" + i));
+        }
+        verify(strategy, never()).updateQueue(any(), any()); // Served from the snapshot
+
+        cache.put(repository, "key1", "updated");
+        assertEquals("updated", cache.get(repository, "key1")); // Reads see their own writes
+
+        await().atMost(2, TimeUnit.SECONDS).untilAsserted(() -> {
+            clearInvocations(strategy);
+            assertEquals("updated", cache.get(repository, "key1"));
+            verify(strategy, never()).updateQueue(any(), any());
+        });
+        verify(repository, never()).get(anyString());
+    }
+
+    /**
+     * Tests that repeated reads are served from the per-thread hot key cache
+     * without eviction bookkeeping, and that writes and clearing the cache
+     * invalidate the copies of every thread.
+     */
+    @Test
+    void testHotKeyCacheInvalidatedByWrites() throws Exception {
+        SwiftCacheConfig config = new SwiftCacheConfig(10, null, null, null);
+        config.setHotKeyCache(16);
+        @SuppressWarnings("unchecked")
+        IEvictionStrategy<String, String> strategy = mock(IEvictionStrategy.class);
+        cache = new SwiftCache<>(config, strategy, writingPolicy, readingPolicy);
+
+        cache.put(repository, "hot", "value1");
+        clearInvocations(strategy);
+        for (int i = 0; i < 10; i++) {
+            assertEquals("value1", cache.get(repository, "hot"));
+        }
+        verify(strategy, times(1)).updateQueue(eq("hot"), any()); // Only the first read was shared
+
+        CompletableFuture<String> otherThread = CompletableFuture.supplyAsync(() -> cache.get(repository, "hot"));
+        assertEquals("value1", otherThread.get(2, TimeUnit.SECONDS));
+
+        cache.put(repository, "hot", "value2");
+        assertEquals("value2", cache.get(repository, "hot"));
+        assertEquals("value2", CompletableFuture.supplyAsync(() -> cache.get(repository, "hot")).get(2, TimeUnit.SECONDS));
+
+        cache.clear();
+        assertNull(cache.get(repository, "hot"));
+    }
+
+    /**
+     * Tests that with snapshot reads and the hot key cache combined, a value
+     * read from the snapshot while a write is in progress is not kept as a
+     * hot copy, so the reading thread sees the write once it has completed.
+     */
+    @Test
+    void testHotKeyCacheSkipsStaleSnapshotHits() throws Exception {
+        SwiftCacheConfig config = new SwiftCacheConfig(10, null, null, null);
+        config.setSnapshotReads(true);
+        config.setHotKeyCache(16);
+        CountDownLatch written = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        IWritingPolicy<String, String> pausingPolicy = (map, key, value, repo) -> {
+            String previous = map.put(key, value);
+            if ("value2".equals(value)) {
+                // The map has moved its epoch, the snapshot is not dropped yet
+                written.countDown();
+                awaitQuietly(release);
+            }
+            return previous;
+        };
+        cache = new SwiftCache<>(config, evictionStrategy, pausingPolicy, readingPolicy);
+        cache.putAll(repository, Collections.singletonMap("hot", "value1")); // Publishes the snapshot
+        ExecutorService reader = Executors.newSingleThreadExecutor();
+
+        try {
+            CompletableFuture<Void> writer = CompletableFuture.runAsync(() -> cache.put(repository, "hot", "value2"));
+            assertTrue(written.await(2, TimeUnit.SECONDS));
+            assertEquals("value1", reader.submit(() -> cache.get(repository, "hot")).get(2, TimeUnit.SECONDS));
+
+            release.countDown();
+            writer.get(2, TimeUnit.SECONDS);
+            assertEquals("value2", reader.submit(() -> cache.get(repository, "hot")).get(2, TimeUnit.SECONDS));
+        } finally {
+            reader.shutdown();
+        }
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Tests that a cache with a maximum weight evicts on put until it is back
+     * under the weight, and evicts in the background after loads.
+     */
+    @Test
+    void testMaxWeightEvictsByWeight() {
+        SwiftCacheConfig config = new SwiftCacheConfig(100, null, null, null);
+        config.setMaxWeight(10, (String key, String value) -> value.length());
+        cache = new SwiftCache<>(config, evictionStrategy, writingPolicy, readingPolicy);
+
+        cache.put(repository, "key1", "aaaa");
+        cache.put(repository, "key2", "bbbb");
+        assertEquals(8, cache.weight());
+
+        cache.put(repository, "key3", "cccccc");
+        assertEquals(10, cache.weight());
+        assertEquals(2, cache.size());
+        assertFalse(cache.keys().contains("key1")); // The least recently used entry went first
+
+        when(repository.get("key4")).thenReturn("dddddddd");
+        assertEquals("dddddddd", cache.get(repository, "key4"));
+        await().atMost(2, TimeUnit.SECONDS).until(() -> cache.weight() <= 10);
+        assertTrue(cache.keys().contains("key4"));
+    }
+
+    /**
+     * Tests that with weak value references a value nothing else holds is
+     * reclaimed, reads as a miss, and has its entry dropped from the map and
+     * the eviction order, while held values stay cached.
+     */
+    @Test
+    void testWeakValuesAreReclaimed() {
+        SwiftCacheConfig config = new SwiftCacheConfig(5, null, null, null);
+        config.setValueReferences(SwiftCacheConfig.WEAK_VALUE_REFERENCES);
+        cache = new SwiftCache<>(config, evictionStrategy, writingPolicy, readingPolicy);
+        String kept = "kept";
+
+        cache.put(repository, "key1", kept);
+        assertNull(cache.putIfAbsent("key2", new String("dropped"))); // Not through the mock, which would hold it
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> {
+            System.gc();
+            return cache.get(repository, "key2") == null;
+        });
+        // Every read of the reclaimed value schedules maintenance until its reference is enqueued
+        await().atMost(2, TimeUnit.SECONDS).until(() -> cache.get(repository, "key2") == null && cache.size() == 1);
+        assertEquals(Collections.singletonList("key1"), new ArrayList<>(cache.keys()));
+
+        for (int i = 3; i <= 7; i++) {
+            cache.put(repository, "key" + i, "value" + i);
+        }
+        assertEquals(5, cache.size()); // The reclaimed key is no longer a candidate for eviction
+        assertFalse(cache.keys().contains("key1"));
+    }
+
     /**
      * Tests that the getEvictionStrategy method returns the correct eviction strategy.
      */
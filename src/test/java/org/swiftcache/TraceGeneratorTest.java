@@ -0,0 +1,73 @@
+package org.swiftcache;
+
+import org.junit.jupiter.api.Test;
+import org.swiftcache.simulator.TraceGenerator;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the TraceGenerator class. This class tests the shape of the
+ * generated synthetic traces.
+ */
+class TraceGeneratorTest {
+
+    /**
+     * Tests that the Zipf generator is deterministic, stays within the key
+     * space and favors the most popular key.
+     */
+    @Test
+    void testZipfIsSkewedAndDeterministic() {
+        long[] trace = TraceGenerator.zipf(10_000, 100, 1.0, 7);
+
+        assertArrayEquals(trace, TraceGenerator.zipf(10_000, 100, 1.0, 7));
+
+        int[] counts = new int[100];
+        for (long key : trace) {
+            assertTrue(key >= 0 && key < 100);
+            counts[(int) key]++;
+        }
+        assertTrue(counts[0] > counts[10]);
+        assertTrue(counts[10] > counts[99]);
+    }
+
+    /**
+     * Tests that the loop and scan generators produce the expected keys.
+     */
+    @Test
+    void testLoopAndScan() {
+        assertArrayEquals(new long[]{0, 1, 2, 0, 1}, TraceGenerator.loop(5, 3));
+        assertArrayEquals(new long[]{100, 101, 102}, TraceGenerator.scan(3, 100));
+        assertArrayEquals(new long[]{0, 1, 100}, TraceGenerator.concat(TraceGenerator.loop(2, 2), TraceGenerator.scan(1, 100)));
+    }
+
+    /**
+     * Tests that the hot set moves to fresh keys after each shift interval.
+     */
+    @Test
+    void testShiftingHotSetMoves() {
+        long[] trace = TraceGenerator.shiftingHotSet(2_000, 10, 1_000, 1.0, 1_000, 3);
+
+        Set<Long> firstPhase = new HashSet<>();
+        Set<Long> secondPhase = new HashSet<>();
+        for (int i = 0; i < trace.length; i++) {
+            (i < 1_000 ? firstPhase : secondPhase).add(trace[i]);
+        }
+
+        assertTrue(firstPhase.size() <= 10);
+        assertTrue(secondPhase.size() <= 10);
+        firstPhase.retainAll(secondPhase);
+        assertTrue(firstPhase.isEmpty());
+    }
+
+    /**
+     * Tests that non-positive sizes are rejected.
+     */
+    @Test
+    void testInvalidArgumentsThrow() {
+        assertThrows(IllegalArgumentException.class, () -> TraceGenerator.loop(10, 0));
+        assertThrows(IllegalArgumentException.class, () -> TraceGenerator.zipf(10, 0, 1.0, 1));
+    }
+}
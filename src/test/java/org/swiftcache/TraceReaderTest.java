@@ -0,0 +1,62 @@
+package org.swiftcache;
+
+import org.junit.jupiter.api.Test;
+import org.swiftcache.simulator.TraceReader;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the TraceReader class. This class tests reading access
+ * traces in the text and binary formats.
+ */
+class TraceReaderTest {
+
+    /**
+     * Tests that text traces skip comments and blank lines, keep numeric keys
+     * and map symbolic keys to stable ids.
+     */
+    @Test
+    void testReadText() throws IOException {
+        String text = "# comment\n42\n\nuser:1 1699999999\n42,GET\nuser:1\nuser:2\n";
+
+        long[] trace = TraceReader.readText(new StringReader(text));
+
+        assertEquals(5, trace.length);
+        assertEquals(42, trace[0]);
+        assertEquals(42, trace[2]);
+        assertEquals(trace[1], trace[3]);
+        assertNotEquals(trace[1], trace[4]);
+    }
+
+    /**
+     * Tests that binary traces are read as big-endian 64-bit keys.
+     */
+    @Test
+    void testReadBinary() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        out.writeLong(1);
+        out.writeLong(Long.MAX_VALUE);
+        out.writeLong(-5);
+
+        long[] trace = TraceReader.readBinary(new ByteArrayInputStream(bytes.toByteArray()));
+
+        assertArrayEquals(new long[]{1, Long.MAX_VALUE, -5}, trace);
+    }
+
+    /**
+     * Tests that a binary trace ending in the middle of a key is rejected.
+     */
+    @Test
+    void testReadTruncatedBinaryThrows() {
+        byte[] truncated = new byte[12];
+
+        assertThrows(IOException.class, () -> TraceReader.readBinary(new ByteArrayInputStream(truncated)));
+    }
+}
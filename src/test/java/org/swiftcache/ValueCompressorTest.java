@@ -0,0 +1,191 @@
+package org.swiftcache;
+
+import org.junit.jupiter.api.Test;
+import org.swiftcache.cache.SwiftCache;
+import org.swiftcache.cache.SwiftCacheConfig;
+import org.swiftcache.cacherepository.CompressingRepository;
+import org.swiftcache.cacherepository.ICacheRepository;
+import org.swiftcache.evictionstrategy.LRUEvictionStrategy;
+import org.swiftcache.readingpolicy.ReadThroughPolicy;
+import org.swiftcache.valuecodec.CompressedValue;
+import org.swiftcache.valuecodec.CompressionStats;
+import org.swiftcache.valuecodec.LZ4Compressor;
+import org.swiftcache.valuecodec.ValueCodec;
+import org.swiftcache.valuecodec.ValueCompressor;
+import org.swiftcache.writingpolicy.WriteAlwaysPolicy;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the LZ4Compressor, ValueCompressor and CompressingRepository
+ * classes. This class tests that values survive compression unchanged, that
+ * only values worth compressing are stored compressed, and that a cache of
+ * compressed values fits more entries in the same maximum weight.
+ */
+class ValueCompressorTest {
+
+    private static String json(int id) {
+        return "{\"id\":" + id + ",\"name\":\"item " + id + "\",\"category\":\"books\",\"price\":{\"amount\":"
+                + (id % 100) + ",\"currency\":\"EUR\"},\"tags\":[\"new\",\"popular\",\"books\"],"
+                + "\"description\":\"A book about caching, part " + id + " of the series about caching\"}";
+    }
+
+    /**
+     * Tests that random, repetitive and overlapping inputs of many lengths,
+     * including empty ones, decompress to the original bytes.
+     */
+    @Test
+    void testRoundTrip() {
+        Random random = new Random(42);
+        for (int length : new int[]{0, 1, 12, 13, 64, 1000, 70_000}) {
+            byte[] noise = new byte[length];
+            random.nextBytes(noise);
+            byte[] runs = new byte[length];
+            for (int i = 0; i < length; i++) {
+                runs[i] = (byte) (i / 300 % 3); // Long runs, so matches overlap their own output
+            }
+            byte[] text = new byte[length];
+            for (int i = 0; i < length; i++) {
+                text[i] = (byte) "abcabdabe".charAt(random.nextInt(9));
+            }
+
+            for (byte[] input : new byte[][]{noise, runs, text}) {
+                byte[] block = LZ4Compressor.compress(input, new byte[0]);
+                assertTrue(block.length <= LZ4Compressor.maxCompressedLength(length));
+                assertArrayEquals(input, LZ4Compressor.decompress(block, length, new byte[0]));
+            }
+        }
+    }
+
+    /**
+     * Tests that a dictionary makes small values compress, and that they
+     * decompress with the same dictionary.
+     */
+    @Test
+    void testDictionaryCompressesSmallValues() {
+        byte[] value = json(7).getBytes(StandardCharsets.UTF_8);
+        byte[] dictionary = json(1).getBytes(StandardCharsets.UTF_8);
+
+        byte[] plain = LZ4Compressor.compress(value, new byte[0]);
+        byte[] withDictionary = LZ4Compressor.compress(value, dictionary);
+
+        assertTrue(withDictionary.length * 2 < plain.length);
+        assertArrayEquals(value, LZ4Compressor.decompress(withDictionary, value.length, dictionary));
+    }
+
+    /**
+     * Tests that values decompress to the original bytes with dictionaries of
+     * several sizes, including matches that start in the dictionary and run
+     * on into the value, and a dictionary longer than the window.
+     */
+    @Test
+    void testDictionaryRoundTrip() {
+        Random random = new Random(7);
+        for (int dictionaryLength : new int[]{3, 100, 5000, LZ4Compressor.MAX_DISTANCE + 1000}) {
+            byte[] dictionary = new byte[dictionaryLength];
+            for (int i = 0; i < dictionaryLength; i++) {
+                dictionary[i] = (byte) "abcabdabe".charAt(random.nextInt(9));
+            }
+            LZ4Compressor.Dictionary prepared = new LZ4Compressor.Dictionary(dictionary);
+
+            for (int length : new int[]{13, 64, 1000, 20_000}) {
+                // The value starts like the dictionary and repeats the dictionary's tail followed by its own head
+                byte[] value = new byte[length];
+                for (int i = 0; i < length; i++) {
+                    value[i] = i < length / 2
+                            ? dictionary[i % dictionaryLength]
+                            : (byte) random.nextInt(256);
+                }
+                int tail = Math.min(dictionaryLength, 40);
+                if (length > 2 * tail + 20) {
+                    System.arraycopy(dictionary, dictionaryLength - tail, value, length - 2 * tail - 10, tail);
+                    System.arraycopy(value, 0, value, length - tail - 10, tail);
+                }
+
+                byte[] block = LZ4Compressor.compress(value, prepared);
+                assertArrayEquals(block, LZ4Compressor.compress(value, dictionary));
+                assertArrayEquals(value, LZ4Compressor.decompress(block, length, dictionary));
+                assertArrayEquals(value, LZ4Compressor.decompress(block, length, prepared));
+            }
+        }
+    }
+
+    /**
+     * Tests that a corrupt block is rejected rather than decompressed into
+     * garbage.
+     */
+    @Test
+    void testCorruptBlockRejected() {
+        byte[] value = json(3).getBytes(StandardCharsets.UTF_8);
+        byte[] block = LZ4Compressor.compress(value, new byte[0]);
+
+        assertThrows(IllegalArgumentException.class,
+                () -> LZ4Compressor.decompress(block, value.length + 1, new byte[0]));
+        assertThrows(IllegalArgumentException.class,
+                () -> LZ4Compressor.decompress(new byte[]{0x0F, 0x10, 0x00}, 20, new byte[0]));
+    }
+
+    /**
+     * Tests that values below the threshold and values that do not compress
+     * are stored as they are, and that the stats count every value.
+     */
+    @Test
+    void testThresholdAndStats() {
+        ValueCompressor<String> compressor = new ValueCompressor<>(ValueCodec.utf8(), 64);
+        byte[] noise = new byte[200];
+        new Random(1).nextBytes(noise);
+        ValueCompressor<byte[]> bytes = new ValueCompressor<>(ValueCodec.bytes(), 64);
+
+        CompressedValue<String> small = compressor.compress("short");
+        CompressedValue<String> large = compressor.compress(json(1) + json(2));
+        CompressedValue<byte[]> random = bytes.compress(noise);
+
+        assertFalse(small.isCompressed());
+        assertTrue(large.isCompressed());
+        assertFalse(random.isCompressed());
+        assertEquals("short", small.get());
+        assertEquals(json(1) + json(2), large.get());
+        assertArrayEquals(noise, random.get());
+
+        CompressionStats stats = compressor.getStats();
+        assertEquals(2, stats.getValues());
+        assertEquals(1, stats.getCompressedValues());
+        assertEquals(2, stats.getDecompressions());
+        assertEquals(small.rawLength() + large.rawLength(), stats.getRawBytes());
+        assertEquals(small.storedLength() + large.storedLength(), stats.getStoredBytes());
+        assertTrue(stats.getCompressionRatio() > 1.5);
+    }
+
+    /**
+     * Tests that a weight-bounded cache of compressed values loads through a
+     * compressing repository, hands out the original values, and holds
+     * several times more entries than the same weight of plain values.
+     */
+    @Test
+    @SuppressWarnings("unchecked")
+    void testCompressedCacheHoldsMoreEntries() {
+        ICacheRepository<Integer, String> plain = mock(ICacheRepository.class);
+        when(plain.get(anyInt())).thenAnswer(invocation -> json(invocation.getArgument(0)));
+        ValueCompressor<String> compressor = new ValueCompressor<>(ValueCodec.utf8(), 32,
+                json(0).getBytes(StandardCharsets.UTF_8));
+        ICacheRepository<Integer, CompressedValue<String>> repository = new CompressingRepository<>(plain, compressor);
+        long maxWeight = 20 * json(10).length();
+        SwiftCacheConfig config = new SwiftCacheConfig(1000, null, null, null);
+        config.setMaxWeight(maxWeight, ValueCompressor.weigher());
+        SwiftCache<Integer, CompressedValue<String>> cache = new SwiftCache<>(config,
+                new LRUEvictionStrategy<>(), new WriteAlwaysPolicy<>(), new ReadThroughPolicy<>());
+
+        for (int id = 10; id < 110; id++) {
+            assertEquals(json(id), cache.get(repository, id).get());
+            cache.put(repository, id, cache.get(repository, id));
+        }
+
+        assertTrue(cache.weight() <= maxWeight);
+        assertTrue(cache.size() >= 60, "only " + cache.size() + " entries fit");
+        verify(plain).put(42, json(42));
+    }
+}
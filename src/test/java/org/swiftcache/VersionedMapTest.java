@@ -0,0 +1,244 @@
+package org.swiftcache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.swiftcache.utils.VersionedMap;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Unit tests for the VersionedMap class. This class tests that every write
+ * changes the version of a key, that compareAndSet only succeeds on an
+ * unchanged key, and that the views write through to the map.
+ */
+class VersionedMapTest {
+
+    private VersionedMap<String, String> map;
+
+    /**
+     * Sets up the test environment before each test case. Initializes an
+     * empty VersionedMap.
+     */
+    @BeforeEach
+    void setUp() {
+        map = new VersionedMap<>(16);
+    }
+
+    /**
+     * Tests that puts, replaces and deletions all change the version of a key.
+     */
+    @Test
+    void testWritesChangeVersion() {
+        long absent = map.version("key1");
+        map.put("key1", "value1");
+        long put = map.version("key1");
+        map.replace("key1", "value2");
+        long replaced = map.version("key1");
+        map.delete("key1");
+        long removed = map.version("key1");
+
+        assertNotEquals(absent, put);
+        assertNotEquals(put, replaced);
+        assertNotEquals(replaced, removed);
+        assertNotEquals(absent, removed);
+    }
+
+    /**
+     * Tests that compareAndSet succeeds with the current version, for an
+     * absent key as well as a present one, and fails with a stale version.
+     */
+    @Test
+    void testCompareAndSet() {
+        long absent = map.version("key1");
+        assertTrue(map.compareAndSet("key1", absent, "value1"));
+        assertFalse(map.compareAndSet("key1", absent, "value2"));
+
+        long present = map.version("key1");
+        assertTrue(map.compareAndSet("key1", present, "value3"));
+        assertEquals("value3", map.get("key1"));
+    }
+
+    /**
+     * Tests that a key put and deleted again since its version was read does
+     * not look unchanged, even though it is absent both times.
+     */
+    @Test
+    void testPutAndDeleteIsNotUnchanged() {
+        long absent = map.version("key1");
+        map.put("key1", "value1");
+        assertEquals("value1", map.delete("key1"));
+
+        assertFalse(map.compareAndSet("key1", absent, "stale"));
+        assertNull(map.get("key1"));
+    }
+
+    /**
+     * Tests that removing and clearing other keys, as evictions do, leaves
+     * the version of an absent key alone, so a value computed meanwhile can
+     * still be installed.
+     */
+    @Test
+    void testRemovalsLeaveAbsentVersionAlone() {
+        long absent = map.version("loading");
+        for (int i = 0; i < 1000; i++) {
+            map.put("key" + i * 7919, "value" + i); // Spread over every removal stripe
+            map.remove("key" + i * 7919);
+        }
+        map.put("key1", "value1");
+        map.clear();
+
+        assertEquals(absent, map.version("loading"));
+        assertTrue(map.compareAndSet("loading", absent, "loaded"));
+    }
+
+    /**
+     * Tests the conditional operations of the ConcurrentMap interface, and
+     * that only successful writes move the epoch.
+     */
+    @Test
+    void testConditionalOperations() {
+        assertNull(map.putIfAbsent("key1", "value1"));
+        assertEquals("value1", map.putIfAbsent("key1", "value2"));
+        assertFalse(map.replace("key1", "value2", "value3"));
+        assertTrue(map.replace("key1", "value1", "value3"));
+        assertFalse(map.remove("key1", "value1"));
+        assertTrue(map.remove("key1", "value3"));
+        assertTrue(map.isEmpty());
+        assertThrows(NullPointerException.class, () -> map.put("key1", null));
+
+        long epoch = map.epoch();
+        map.putIfAbsent("key1", "value1");
+        map.putIfAbsent("key1", "value2"); // Failed writes leave the epoch alone
+        map.remove("missing");
+        assertEquals(epoch + 1, map.epoch());
+    }
+
+    /**
+     * Tests that the entry and key views reflect the map, that removing and
+     * setting values through them writes to the map, and that a parallel
+     * stream sees every entry.
+     */
+    @Test
+    void testViewsWriteThrough() {
+        Map<String, String> expected = new HashMap<>();
+        for (int i = 0; i < 1000; i++) {
+            map.put("key" + i, "value" + i);
+            expected.put("key" + i, "value" + i);
+        }
+
+        assertEquals(expected, map.entrySet().parallelStream()
+                .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue)));
+        assertEquals(expected.keySet(), map.keySet());
+
+        long version = map.version("key1");
+        for (Map.Entry<String, String> entry : map.entrySet()) {
+            if (entry.getKey().equals("key1")) {
+                entry.setValue("updated");
+            }
+        }
+        assertEquals("updated", map.get("key1"));
+        assertNotEquals(version, map.version("key1"));
+
+        Iterator<String> keys = map.keySet().iterator();
+        String first = keys.next();
+        version = map.version(first);
+        keys.remove();
+        assertFalse(map.containsKey(first));
+        assertNotEquals(version, map.version(first));
+
+        map.keySet().clear();
+        assertTrue(map.isEmpty());
+    }
+
+    /**
+     * Tests that a map with a weigher keeps the total weight of its entries
+     * across puts, replaces, removals and clearing, and that a map without
+     * one counts its entries.
+     */
+    @Test
+    void testWeightTracksWrites() {
+        VersionedMap<String, String> weighted = new VersionedMap<>(16, (key, value) -> value.length());
+        weighted.put("key1", "abc");
+        weighted.put("key2", "abcdef");
+        assertEquals(9, weighted.weight());
+
+        weighted.put("key1", "a");
+        weighted.replace("key2", "abcdef", "ab");
+        assertTrue(weighted.compareAndSet("key3", weighted.version("key3"), "abcd"));
+        assertEquals(7, weighted.weight());
+
+        weighted.remove("key3");
+        assertEquals(3, weighted.weight());
+        weighted.clear();
+        assertEquals(0, weighted.weight());
+
+        map.put("key1", "abc");
+        assertEquals(1, map.weight());
+    }
+
+    /**
+     * Tests that a weakly held value is cleared once nothing else holds it,
+     * that it reads as absent straight away, and that expunging removes its
+     * entry, its weight, and reports its key.
+     */
+    @Test
+    void testWeakValuesAreExpunged() {
+        VersionedMap<String, Object> weak = new VersionedMap<>(16, (key, value) -> 10,
+                VersionedMap.ValueReferences.WEAK);
+        Object kept = new Object();
+        weak.put("kept", kept);
+        weak.put("dropped", new Object());
+        long version = weak.version("dropped");
+        assertEquals(20, weak.weight());
+
+        await().atMost(5, TimeUnit.SECONDS).until(() -> {
+            System.gc();
+            return weak.get("dropped") == null;
+        });
+        assertFalse(weak.containsKey("dropped"));
+        assertTrue(weak.hasClearedReads());
+        assertEquals(Collections.singletonList("kept"), weak.keySet().stream().collect(Collectors.toList()));
+
+        List<String> expunged = new ArrayList<>();
+        await().atMost(2, TimeUnit.SECONDS).until(() -> {
+            weak.expungeCleared(expunged::add);
+            return !expunged.isEmpty();
+        });
+        assertEquals(Collections.singletonList("dropped"), expunged);
+        assertFalse(weak.hasClearedReads());
+        assertEquals(1, weak.size());
+        assertEquals(10, weak.weight());
+        assertNotEquals(version, weak.version("dropped"));
+        assertSame(kept, weak.get("kept"));
+    }
+
+    /**
+     * Tests that a map holding its values softly behaves like a regular map
+     * while the heap has room, and that expunging does nothing on a map
+     * holding its values strongly.
+     */
+    @Test
+    void testSoftValuesBehaveLikeStrongValues() {
+        VersionedMap<String, String> soft = new VersionedMap<>(16, null, VersionedMap.ValueReferences.SOFT);
+        soft.put("key1", "value1");
+        assertNull(soft.putIfAbsent("key2", "value2"));
+        assertEquals("value2", soft.putIfAbsent("key2", "other"));
+        assertTrue(soft.replace("key1", "value1", "updated"));
+        assertEquals("updated", soft.get("key1"));
+        assertTrue(soft.remove("key2", "value2"));
+        assertEquals(Collections.singletonMap("key1", "updated"), new HashMap<>(soft));
+
+        map.put("key1", "value1");
+        assertEquals(0, map.expungeCleared(key -> fail("nothing to expunge")));
+    }
+}
@@ -10,10 +10,20 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.swiftcache.cacherepository.ICacheRepository;
 import org.swiftcache.writingpolicy.WriteAlwaysPolicy;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 /**
@@ -106,4 +116,129 @@ class WriteAlwaysPolicyTest {
         assertEquals(newValue, cacheMap.get(key)); // Cache should contain the new value
         verify(repository, times(2)).put(eq(key), anyString()); // Repository's put should be called twice
     }
+
+    /**
+     * Tests that writes issued within the batch window are merged into a
+     * single batched repository write, with the last value of a key winning.
+     */
+    @Test
+    void testBatchedWritesAreCoalesced() {
+        WriteAlwaysPolicy<String, String> policy = new WriteAlwaysPolicy<>(200, 100);
+
+        CompletableFuture<String> first = policy.writeAsync(cacheMap, "key1", "value1", repository);
+        CompletableFuture<String> second = policy.writeAsync(cacheMap, "key2", "value2", repository);
+        CompletableFuture<String> third = policy.writeAsync(cacheMap, "key1", "value3", repository);
+
+        assertEquals("value3", cacheMap.get("key1")); // Cache is updated immediately
+        assertEquals("value3", third.join());
+        assertEquals("value1", first.join());
+        assertEquals("value2", second.join());
+
+        Map<String, String> expected = new LinkedHashMap<>();
+        expected.put("key1", "value3");
+        expected.put("key2", "value2");
+        verify(repository, times(1)).putAll(expected);
+        verify(repository, never()).put(anyString(), anyString());
+    }
+
+    /**
+     * Tests that a batch reaching its maximum size is committed without
+     * waiting for the end of its window.
+     */
+    @Test
+    void testFullBatchIsCommittedEarly() throws Exception {
+        WriteAlwaysPolicy<String, String> policy = new WriteAlwaysPolicy<>(60_000, 2);
+
+        policy.writeAsync(cacheMap, "key1", "value1", repository);
+        CompletableFuture<String> second = policy.writeAsync(cacheMap, "key2", "value2", repository);
+
+        assertEquals("value2", second.get(5, TimeUnit.SECONDS));
+        verify(repository).putAll(anyMap());
+    }
+
+    /**
+     * Tests that a failed batched write fails the futures of its callers and
+     * is rethrown by the synchronous write.
+     */
+    @Test
+    void testBatchFailureIsReportedToCallers() {
+        WriteAlwaysPolicy<String, String> policy = new WriteAlwaysPolicy<>(10, 100);
+        doThrow(new IllegalStateException("down")).when(repository).putAll(anyMap());
+
+        CompletableFuture<String> pending = policy.writeAsync(cacheMap, "key1", "value1", repository);
+
+        CompletionException exception = assertThrows(CompletionException.class, pending::join);
+        assertTrue(exception.getCause() instanceof IllegalStateException);
+        assertThrows(IllegalStateException.class, () -> policy.write(cacheMap, "key2", "value2", repository));
+    }
+
+    /**
+     * Tests that removing a key drops its write from the open batch, and
+     * that the other writes of the batch are still committed.
+     */
+    @Test
+    void testRemoveDropsPendingBatchedWrite() {
+        WriteAlwaysPolicy<String, String> policy = new WriteAlwaysPolicy<>(60_000, 100);
+
+        CompletableFuture<String> removed = policy.writeAsync(cacheMap, "key1", "value1", repository);
+        policy.writeAsync(cacheMap, "key2", "value2", repository);
+        policy.onRemove("key1");
+        policy.flush().join();
+
+        assertEquals("value1", removed.join());
+        verify(repository, times(1)).putAll(Collections.singletonMap("key2", "value2"));
+    }
+
+    /**
+     * Tests that removing a key waits for a batch that is already being
+     * committed with a write of the key.
+     */
+    @Test
+    void testRemoveWaitsForCommittingBatch() throws Exception {
+        WriteAlwaysPolicy<String, String> policy = new WriteAlwaysPolicy<>(60_000, 1);
+        CountDownLatch committing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            committing.countDown();
+            release.await();
+            return null;
+        }).when(repository).putAll(anyMap());
+
+        policy.writeAsync(cacheMap, "key1", "value1", repository); // Fills the batch, which commits at once
+        assertTrue(committing.await(5, TimeUnit.SECONDS));
+        CompletableFuture<Void> removal = CompletableFuture.runAsync(() -> policy.onRemove("key1"));
+        policy.onRemove("key2"); // Not in the committing batch, so it does not wait
+
+        assertThrows(TimeoutException.class, () -> removal.get(100, TimeUnit.MILLISECONDS));
+        release.countDown();
+        removal.get(5, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Tests that concurrent writers share a batch and all complete after a
+     * single flush.
+     */
+    @Test
+    void testConcurrentWritersShareBatch() throws InterruptedException {
+        WriteAlwaysPolicy<String, String> policy = new WriteAlwaysPolicy<>(60_000, 1_000);
+        Map<String, String> sharedCacheMap = new ConcurrentHashMap<>();
+        List<CompletableFuture<String>> pending = Collections.synchronizedList(new ArrayList<>());
+        List<Thread> writers = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            final int writer = i;
+            Thread thread = new Thread(() -> pending.add(policy.writeAsync(sharedCacheMap, "key" + writer, "value", repository)));
+            writers.add(thread);
+            thread.start();
+        }
+        for (Thread thread : writers) {
+            thread.join();
+        }
+
+        policy.flush().join();
+
+        for (CompletableFuture<String> future : pending) {
+            assertTrue(future.isDone());
+        }
+        verify(repository, times(1)).putAll(anyMap());
+    }
 }
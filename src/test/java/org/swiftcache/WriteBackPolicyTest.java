@@ -0,0 +1,199 @@
+package org.swiftcache;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+import org.swiftcache.cache.SwiftCache;
+import org.swiftcache.cacherepository.ICacheRepository;
+import org.swiftcache.evictionstrategy.LRUEvictionStrategy;
+import org.swiftcache.readingpolicy.ReadThroughPolicy;
+import org.swiftcache.writingpolicy.WriteBackPolicy;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.awaitility.Awaitility.await;
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the WriteBackPolicy class. This class tests that writes only
+ * mark entries dirty, and that dirty entries reach the repository once per
+ * flush, on eviction, after their maximum age and on shutdown.
+ */
+class WriteBackPolicyTest {
+
+    private WriteBackPolicy<String, String> writeBackPolicy;
+
+    private Map<String, String> cacheMap;
+
+    @Mock
+    private ICacheRepository<String, String> repository;
+
+    /**
+     * Sets up the test environment before each test case. Initializes the
+     * WriteBackPolicy and the cache map.
+     */
+    @BeforeEach
+    void setUp() {
+        MockitoAnnotations.openMocks(this);
+        writeBackPolicy = new WriteBackPolicy<>();
+        cacheMap = new HashMap<>();
+    }
+
+    /**
+     * Tests that repeated writes to a key only update the cache, and that a
+     * flush writes the last value to the repository in a single call.
+     */
+    @Test
+    void testRepeatedWritesFlushedOnce() {
+        for (int i = 1; i <= 100; i++) {
+            writeBackPolicy.write(cacheMap, "counter", String.valueOf(i), repository);
+        }
+
+        assertEquals("100", cacheMap.get("counter"));
+        assertEquals(1, writeBackPolicy.getDirtyCount());
+        verifyNoInteractions(repository);
+
+        writeBackPolicy.flush().join();
+        writeBackPolicy.flush().join(); // Nothing left to write
+
+        verify(repository, times(1)).putAll(Collections.singletonMap("counter", "100"));
+        assertEquals(0, writeBackPolicy.getDirtyCount());
+    }
+
+    /**
+     * Tests that a dirty entry is written when it is evicted, and that a
+     * removed entry is discarded instead. The flush waits for the write of
+     * the evicted entry.
+     */
+    @Test
+    void testEvictWritesAndRemoveDiscards() {
+        writeBackPolicy.write(cacheMap, "key1", "value1", repository);
+        writeBackPolicy.write(cacheMap, "key2", "value2", repository);
+
+        writeBackPolicy.onEvict("key1");
+        writeBackPolicy.onEvict("key1"); // Already clean
+        writeBackPolicy.onRemove("key2");
+        writeBackPolicy.flush().join();
+
+        verify(repository, times(1)).put("key1", "value1");
+        verify(repository, never()).putAll(any());
+    }
+
+    /**
+     * Tests that a failed flush keeps the entries dirty for the next one.
+     */
+    @Test
+    void testFailedFlushKeepsEntriesDirty() {
+        writeBackPolicy.write(cacheMap, "key1", "value1", repository);
+        doThrow(new IllegalStateException("down")).doNothing().when(repository).putAll(any());
+
+        assertTrue(writeBackPolicy.flush().isCompletedExceptionally());
+        assertEquals(1, writeBackPolicy.getDirtyCount());
+
+        writeBackPolicy.flush().join();
+        assertEquals(0, writeBackPolicy.getDirtyCount());
+    }
+
+    /**
+     * Tests that entries are written once they have been dirty for longer
+     * than the maximum age.
+     */
+    @Test
+    void testMaxAgeFlushesInBackground() {
+        WriteBackPolicy<String, String> aging = new WriteBackPolicy<>(20);
+        try {
+            aging.write(cacheMap, "key1", "value1", repository);
+
+            await().atMost(2, TimeUnit.SECONDS).untilAsserted(() ->
+                    verify(repository).putAll(Collections.singletonMap("key1", "value1")));
+            assertEquals(0, aging.getDirtyCount());
+        } finally {
+            aging.close();
+        }
+    }
+
+    /**
+     * Tests that a cache with the policy writes evicted entries back, and
+     * flushes the rest on shutdown.
+     */
+    @Test
+    void testCacheEvictionAndShutdownWriteBack() {
+        SwiftCache<String, String> cache = new SwiftCache<>(1, new LRUEvictionStrategy<>(),
+                writeBackPolicy, new ReadThroughPolicy<>());
+
+        cache.put(repository, "key1", "value1");
+        cache.put(repository, "key2", "value2"); // Evicts key1
+        verify(repository, timeout(2000)).put("key1", "value1");
+        verify(repository, never()).put(eq("key2"), any());
+
+        cache.shutdown();
+        verify(repository).putAll(Collections.singletonMap("key2", "value2"));
+    }
+
+    /**
+     * Tests that a flush does its repository I/O without blocking the
+     * eviction of a key it is not writing, while the write of an evicted key
+     * it is writing is queued behind it, so the newer value lands last.
+     */
+    @Test
+    void testFlushOnlyBlocksWritesOfTheSameKey() throws Exception {
+        CountDownLatch flushing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            flushing.countDown();
+            release.await();
+            return null;
+        }).when(repository).putAll(anyMap());
+        writeBackPolicy.write(cacheMap, "key1", "old", repository);
+
+        CompletableFuture<Void> flush = CompletableFuture.runAsync(() -> writeBackPolicy.flush().join());
+        assertTrue(flushing.await(2, TimeUnit.SECONDS));
+        writeBackPolicy.write(cacheMap, "key2", "value2", repository);
+        writeBackPolicy.onEvict("key2"); // Not being flushed, written right away
+        verify(repository, timeout(2000)).put("key2", "value2");
+
+        writeBackPolicy.write(cacheMap, "key1", "new", repository);
+        writeBackPolicy.onEvict("key1");
+        Thread.sleep(100);
+        verify(repository, never()).put("key1", "new"); // Queued behind the flush writing the older value
+
+        release.countDown();
+        flush.get(2, TimeUnit.SECONDS);
+        verify(repository, timeout(2000)).put("key1", "new");
+        await().atMost(2, TimeUnit.SECONDS).until(() -> writeBackPolicy.getDirtyCount() == 0);
+    }
+
+    /**
+     * Tests that an eviction returns without waiting for a slow repository,
+     * and that a removal of the evicted key waits for its write, so the
+     * removal is not undone by it.
+     */
+    @Test
+    void testEvictionDoesNotWaitForRepository() throws Exception {
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            writing.countDown();
+            release.await();
+            return null;
+        }).when(repository).put("key1", "value1");
+        writeBackPolicy.write(cacheMap, "key1", "value1", repository);
+
+        CompletableFuture.runAsync(() -> writeBackPolicy.onEvict("key1")).get(2, TimeUnit.SECONDS);
+        assertTrue(writing.await(2, TimeUnit.SECONDS));
+        CompletableFuture<Void> removal = CompletableFuture.runAsync(() -> writeBackPolicy.onRemove("key1"));
+        Thread.sleep(100);
+        assertFalse(removal.isDone()); // Waits for the write of the evicted value
+
+        release.countDown();
+        removal.get(2, TimeUnit.SECONDS);
+        assertEquals(0, writeBackPolicy.getDirtyCount());
+    }
+}
@@ -8,7 +8,9 @@ import org.mockito.MockitoAnnotations;
 import org.swiftcache.cacherepository.ICacheRepository;
 import org.swiftcache.writingpolicy.WriteBehindPolicy;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.concurrent.TimeUnit;
 
@@ -64,4 +66,22 @@ class WriteBehindPolicyTest {
                     verify(repository).put(key, value); // Repository's put should be called
                 });
     }
+
+    /**
+     * Tests that the repository write is handed to the configured executor
+     * instead of being performed by the caller.
+     */
+    @Test
+    void testWriteRunsOnConfiguredExecutor() {
+        List<Runnable> writes = new ArrayList<>();
+        WriteBehindPolicy<String, String> policy = new WriteBehindPolicy<>(writes::add);
+
+        policy.write(cacheMap, "key1", "value1", repository);
+
+        verify(repository, never()).put("key1", "value1");
+        assertEquals(1, writes.size());
+
+        writes.get(0).run();
+        verify(repository).put("key1", "value1");
+    }
 }